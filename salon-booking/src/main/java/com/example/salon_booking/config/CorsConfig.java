@@ -38,7 +38,8 @@ public class CorsConfig {
                 "Accept",
                 "X-Requested-With",
                 "Access-Control-Allow-Origin",
-                "Access-Control-Allow-Credentials"));
+                "Access-Control-Allow-Credentials",
+                "Idempotent-Replayed"));
 
         // Cache preflight response for 1 hour
         config.setMaxAge(3600L);
@@ -0,0 +1,82 @@
+package com.example.salon_booking.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.example.salon_booking.dto.CustomerEmailGroup;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.repositories.CustomerRepository;
+import com.example.salon_booking.repositories.MongoIds;
+import com.example.salon_booking.service.AppointmentSnapshotService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lower-cases customer emails and merges customers that differ only in the
+ * casing or surrounding spaces of their email
+ * 
+ * Emails used to be stored as entered, so one person could have several
+ * customer documents. In each such group the oldest customer is kept: the
+ * appointments of the others are moved to it and the others are deleted, then
+ * its email is normalized. Only groups that still need it are touched, so
+ * repeated runs change nothing.
+ *
+ * Run by MongoIndexConfig before the case-insensitive unique email index is
+ * built, while the application is starting and not yet serving bookings.
+ * A failure fails startup rather than leaving the index unbuilt.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerEmailMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final CustomerRepository customerRepository;
+    private final AppointmentSnapshotService appointmentSnapshotService;
+
+    public void normalizeEmails() {
+        List<CustomerEmailGroup> groups = customerRepository.findEmailGroupsToNormalize();
+        long merged = 0;
+        for (CustomerEmailGroup group : groups) {
+            merged += normalize(group);
+        }
+        if (!groups.isEmpty()) {
+            log.info("Normalized {} customer emails, merging {} duplicate customers", groups.size(), merged);
+        }
+    }
+
+    /**
+     * Merge one group into its oldest customer and normalize that customer's email
+     * @return Number of duplicate customers removed
+     */
+    private long normalize(CustomerEmailGroup group) {
+        String keptId = group.getCustomerIds().get(0);
+        List<Object> duplicateIds = group.getCustomerIds().stream()
+                .skip(1)
+                .map(MongoIds::toStoredId)
+                .toList();
+        if (!duplicateIds.isEmpty()) {
+            long moved = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("customer.$id").in(duplicateIds)),
+                    new Update().set("customer", MongoIds.dbRef("customers", keptId)),
+                    "appointments").getModifiedCount();
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(duplicateIds)), "customers");
+            log.info("Merged customers {} into {} ({} appointments moved)", duplicateIds, keptId, moved);
+        }
+
+        // The duplicates are gone, so the normalized email cannot collide with them
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(MongoIds.toStoredId(keptId))),
+                new Update().set("email", group.getEmail()), "customers");
+        Customer kept = mongoTemplate.findById(keptId, Customer.class);
+        if (kept != null) {
+            appointmentSnapshotService.refreshCustomer(kept);
+        }
+        return duplicateIds.size();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.salon_booking.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives existing appointments, reviews and salons an optimistic locking version
+ *
+ * Spring Data treats an entity with a null @Version as new, so saving a document
+ * written before versioning would be sent as an insert and fail on the _id.
+ * Documents without a version field get version 0; documents that already have
+ * one are not touched, so repeated runs change nothing.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentVersionMigration {
+
+    private static final List<String> VERSIONED_COLLECTIONS = List.of("appointments", "reviews", "salons");
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void addMissingVersions() {
+        for (String collection : VERSIONED_COLLECTIONS) {
+            try {
+                UpdateResult result = mongoTemplate.updateMulti(
+                        new Query(Criteria.where("version").exists(false)),
+                        new Update().set("version", 0L), collection);
+                if (result.getModifiedCount() > 0) {
+                    log.info("Added version field to {} documents in {}", result.getModifiedCount(), collection);
+                }
+            } catch (Exception e) {
+                log.error("Failed to add version field to {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.salon_booking.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.models.IdempotencyRecord;
+import com.example.salon_booking.models.Review;
+import com.example.salon_booking.models.TimeSlot;
+import com.mongodb.MongoCommandException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared on entities that the application relies on,
+ * both unique constraints that keep writes idempotent and the reference
+ * indexes used by fan-out updates
+ * 
+ * Automatic index creation is not enabled, so the annotated indexes are
+ * applied here once all beans exist and before the web server starts, after
+ * the migrations an index depends on (CustomerEmailMigration). An index is never redefined
+ * under its existing name: a changed index gets a new name, is built next to
+ * the old one, and the old one is dropped only once the new one exists.
+ * A unique index that cannot be built (e.g. existing duplicates) fails startup,
+ * since the writes that rely on it would otherwise go unguarded; other
+ * failures are logged.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig implements SmartInitializingSingleton {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(TimeSlot.class, Appointment.class, Review.class,
+            IdempotencyRecord.class, Customer.class);
+
+    /**
+     * Declared indexes that must not be created: a sparse compound index still
+     * indexes guest reviews (no user), so it would allow one guest review per salon
+     */
+    private static final Set<String> SKIPPED_INDEXES = Set.of("salon_user_unique_idx");
+
+    /**
+     * Indexes superseded by a differently named index, dropped once the replacement exists
+     */
+    private static final List<RetiredIndex> RETIRED_INDEXES = List.of(
+            new RetiredIndex(Appointment.class, "customer_booking_idx", "customer_booking_seek_idx"),
+            new RetiredIndex(Appointment.class, "salon_booking_idx", "salon_booking_seek_idx"),
+            new RetiredIndex(Review.class, "salon_date_idx", "salon_date_seek_idx"),
+            new RetiredIndex(Customer.class, "email", "customer_email_idx"));
+
+    /**
+     * Server error code for dropping an index that does not exist (another instance dropped it first)
+     */
+    private static final int INDEX_NOT_FOUND = 27;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+    private final CustomerEmailMigration customerEmailMigration;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Duplicates differing only in email casing would fail the unique email index
+        customerEmailMigration.normalizeEmails();
+        ensureIndexes();
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        List<String> missingConstraints = new ArrayList<>();
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+                String name = index.getIndexOptions().getString("name");
+                if (name != null && SKIPPED_INDEXES.contains(name)) {
+                    continue;
+                }
+                try {
+                    indexOps.createIndex(index);
+                } catch (Exception e) {
+                    log.error("Could not create index {} on {}: {}",
+                            name, entity.getSimpleName(), e.getMessage());
+                    if (Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+                        missingConstraints.add(entity.getSimpleName() + "." + name);
+                    }
+                }
+            }
+            dropRetiredIndexes(entity, indexOps);
+        }
+        if (!missingConstraints.isEmpty()) {
+            throw new IllegalStateException("Could not create unique indexes " + missingConstraints);
+        }
+        log.info("Ensured indexes for {}", INDEXED_ENTITIES.stream().map(Class::getSimpleName).toList());
+    }
+
+    /**
+     * Drop the retired indexes of an entity whose replacement has been built
+     */
+    private void dropRetiredIndexes(Class<?> entity, IndexOperations indexOps) {
+        Set<String> existing = indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+        for (RetiredIndex retired : RETIRED_INDEXES) {
+            if (retired.entity() != entity || !existing.contains(retired.name())) {
+                continue;
+            }
+            if (!existing.contains(retired.replacedBy())) {
+                log.warn("Keeping index {} on {} until {} is built",
+                        retired.name(), entity.getSimpleName(), retired.replacedBy());
+                continue;
+            }
+            try {
+                indexOps.dropIndex(retired.name());
+                log.info("Dropped index {} on {}, replaced by {}",
+                        retired.name(), entity.getSimpleName(), retired.replacedBy());
+            } catch (RuntimeException e) {
+                if (!hasErrorCode(e, INDEX_NOT_FOUND)) {
+                    log.warn("Could not drop retired index {} on {}: {}",
+                            retired.name(), entity.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean hasErrorCode(Throwable e, int errorCode) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException command && command.getErrorCode() == errorCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An index name no longer declared on the entity, and the index that replaces it
+     */
+    private record RetiredIndex(Class<?> entity, String name, String replacedBy) {
+    }
+}
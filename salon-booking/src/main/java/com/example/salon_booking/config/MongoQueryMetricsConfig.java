@@ -0,0 +1,39 @@
+package com.example.salon_booking.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import com.example.salon_booking.repositories.RepositoryInvocationContext;
+import com.example.salon_booking.service.MongoQueryMetrics;
+
+/**
+ * Registers the query metrics listener with the Mongo client and tags every
+ * repository proxy, so commands can be attributed to the repository method
+ * that issued them
+ */
+@Configuration
+public class MongoQueryMetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoQueryMetricsCustomizer(MongoQueryMetrics mongoQueryMetrics) {
+        return settings -> settings.addCommandListener(mongoQueryMetrics);
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryInvocationTagger() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, repository) -> proxy.addAdvice(
+                                    RepositoryInvocationContext.interceptorFor(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
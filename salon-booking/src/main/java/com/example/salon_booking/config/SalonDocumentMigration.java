@@ -0,0 +1,50 @@
+package com.example.salon_booking.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strips the embedded bookings / slotsBooked arrays from salon documents
+ * 
+ * Salons used to carry every booking and booked slot id, so each salon write
+ * grew with the booking history. Both are now queried from the appointments
+ * and time_slots collections by salon; this removes the leftover arrays once
+ * the application is ready. Only documents that still have them are touched,
+ * so repeated runs change nothing.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class SalonDocumentMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void removeEmbeddedBookingArrays() {
+        try {
+            Query query = new Query(new Criteria().orOperator(
+                    Criteria.where("bookings").exists(true),
+                    Criteria.where("slotsBooked").exists(true)));
+            UpdateResult result = mongoTemplate.updateMulti(query,
+                    new Update().unset("bookings").unset("slotsBooked"), "salons");
+            if (result.getModifiedCount() > 0) {
+                log.info("Removed embedded bookings / slotsBooked arrays from {} salons", result.getModifiedCount());
+            }
+        } catch (Exception e) {
+            log.error("Failed to remove embedded booking arrays from salons: {}", e.getMessage());
+        }
+    }
+}
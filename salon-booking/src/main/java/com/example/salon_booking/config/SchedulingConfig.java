@@ -0,0 +1,13 @@
+package com.example.salon_booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs (nightly slot generation)
+ * Individual jobs are switched on through their own properties
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
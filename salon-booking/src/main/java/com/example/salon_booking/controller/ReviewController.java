@@ -21,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.salon_booking.dto.CreateReviewDTO;
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.dto.RatingStatisticsDTO;
 import com.example.salon_booking.dto.ReviewResponseDTO;
 import com.example.salon_booking.dto.UpdateReviewDTO;
@@ -76,6 +77,25 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
     
+    /**
+     * Get reviews for a salon with keyset pagination, newest first
+     * Deep pages cost the same as the first one
+     * 
+     * @param salonId Salon identifier
+     * @param after Continuation token from the previous page (omit for the first page)
+     * @param size Number of items per page (default: 10, max: 100)
+     * @return Page of reviews with the token for the next page
+     */
+    @GetMapping("/salon/{salonId}/page")
+    public ResponseEntity<KeysetPage<ReviewResponseDTO>> getSalonReviewsPage(
+            @PathVariable String salonId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        log.info("Fetching review page for salon: {}, size: {}", salonId, size);
+        return ResponseEntity.ok(reviewService.getSalonReviewsPage(salonId, after, size));
+    }
+    
     /**
      * Get rating statistics for a specific salon
      * 
@@ -180,6 +200,20 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Restore a hidden review (moderation)
+     * 
+     * @param reviewId Review identifier
+     * @return Restored review
+     */
+    @PostMapping("/{reviewId}/restore")
+    public ResponseEntity<ReviewResponseDTO> restoreReview(
+            @PathVariable String reviewId
+    ) {
+        log.info("Restoring review with ID: {}", reviewId);
+        return ResponseEntity.ok(reviewService.restoreReview(reviewId));
+    }
+    
     /**
      * Get all reviews by a specific user
      * 
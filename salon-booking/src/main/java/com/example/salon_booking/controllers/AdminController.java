@@ -1,13 +1,41 @@
 package com.example.salon_booking.controllers;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.salon_booking.repositories.SalonRepository;
+import com.example.salon_booking.dto.AppointmentSnapshotReport;
+import com.example.salon_booking.dto.AvailabilityIndexReport;
+import com.example.salon_booking.dto.CacheStatsDTO;
+import com.example.salon_booking.dto.ConfirmationCodePoolStats;
+import com.example.salon_booking.dto.HelpfulVoteBufferStats;
+import com.example.salon_booking.dto.OptimisticRetryStats;
+import com.example.salon_booking.dto.QueryShapeStats;
+import com.example.salon_booking.dto.RatingReconcileReport;
+import com.example.salon_booking.dto.RatingRefreshStats;
+import com.example.salon_booking.dto.SlotGenerationReport;
+import com.example.salon_booking.service.AppointmentSnapshotService;
+import com.example.salon_booking.service.ConfirmationCodePool;
+import com.example.salon_booking.service.CustomerService;
+import com.example.salon_booking.service.HelpfulVoteBuffer;
+import com.example.salon_booking.service.MongoQueryMetrics;
+import com.example.salon_booking.service.OptimisticRetry;
+import com.example.salon_booking.service.RatingAggregateService;
+import com.example.salon_booking.service.SalonCatalogService;
+import com.example.salon_booking.service.SalonRatingRefresher;
+import com.example.salon_booking.service.ServiceCatalogService;
+import com.example.salon_booking.service.SlotAvailabilityIndex;
+import com.example.salon_booking.service.SlotGenerationService;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,7 +50,40 @@ import lombok.extern.slf4j.Slf4j;
 public class AdminController {
 
     @Autowired
-    private SalonRepository salonRepository;
+    private SalonCatalogService salonCatalogService;
+
+    @Autowired
+    private ServiceCatalogService serviceCatalogService;
+
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Autowired
+    private SlotGenerationService slotGenerationService;
+
+    @Autowired
+    private AppointmentSnapshotService appointmentSnapshotService;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private SalonRatingRefresher salonRatingRefresher;
+
+    @Autowired
+    private HelpfulVoteBuffer helpfulVoteBuffer;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ConfirmationCodePool confirmationCodePool;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MongoQueryMetrics mongoQueryMetrics;
 
     /**
      * DELETE all salons from database
@@ -32,10 +93,193 @@ public class AdminController {
     @DeleteMapping("/salons/clear")
     public ResponseEntity<String> clearAllSalons() {
         log.warn("⚠️ ADMIN: Clearing all salons from database...");
-        long count = salonRepository.count();
-        salonRepository.deleteAll();
+        long count = salonCatalogService.deleteAllSalons();
+        slotAvailabilityIndex.clear();
         log.info("✅ ADMIN: Deleted {} salons", count);
         return ResponseEntity
                 .ok("Deleted " + count + " salons. Restart the application to re-initialize with type field.");
     }
+
+    /**
+     * Rebuild the in-memory slot availability index from the database
+     * POST /api/admin/slots/index/rebuild
+     */
+    @PostMapping("/slots/index/rebuild")
+    public ResponseEntity<AvailabilityIndexReport> rebuildAvailabilityIndex() {
+        log.info("ADMIN: Rebuilding slot availability index");
+        slotAvailabilityIndex.rebuild();
+        return ResponseEntity.ok(slotAvailabilityIndex.verify());
+    }
+
+    /**
+     * Check the slot availability index against the time_slots collection
+     * Drifted days are repaired in place
+     * GET /api/admin/slots/index/verify
+     */
+    @GetMapping("/slots/index/verify")
+    public ResponseEntity<AvailabilityIndexReport> verifyAvailabilityIndex() {
+        AvailabilityIndexReport report = slotAvailabilityIndex.verify();
+        log.info("ADMIN: Availability index check: {}", report);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Generate missing time slots for all salons
+     * Safe to repeat: days that already have slots are skipped
+     * POST /api/admin/slots/generate?startDate=2025-01-01&days=90
+     */
+    @PostMapping("/slots/generate")
+    public ResponseEntity<SlotGenerationReport> generateSlots(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(defaultValue = "90") int days) {
+        LocalDate start = startDate != null ? startDate : LocalDate.now();
+        log.info("ADMIN: Generating slots for all salons, {} days from {}", days, start);
+        return ResponseEntity.ok(slotGenerationService.generateForAllSalons(start, days));
+    }
+
+    /**
+     * Write snapshots for appointments that lack one or whose snapshot drifted
+     * POST /api/admin/appointments/snapshots/backfill
+     */
+    @PostMapping("/appointments/snapshots/backfill")
+    public ResponseEntity<AppointmentSnapshotReport> backfillAppointmentSnapshots() {
+        log.info("ADMIN: Backfilling appointment snapshots");
+        return ResponseEntity.ok(appointmentSnapshotService.reconcile(true));
+    }
+
+    /**
+     * Report appointment snapshots that are missing or differ from the referenced documents
+     * GET /api/admin/appointments/snapshots/drift
+     */
+    @GetMapping("/appointments/snapshots/drift")
+    public ResponseEntity<AppointmentSnapshotReport> appointmentSnapshotDrift() {
+        return ResponseEntity.ok(appointmentSnapshotService.reconcile(false));
+    }
+
+    /**
+     * Recompute salon rating aggregates from the reviews and correct any drift
+     * POST /api/admin/ratings/reconcile
+     */
+    @PostMapping("/ratings/reconcile")
+    public ResponseEntity<RatingReconcileReport> reconcileRatings() {
+        log.info("ADMIN: Reconciling salon rating aggregates");
+        return ResponseEntity.ok(ratingAggregateService.reconcile());
+    }
+
+    /**
+     * Queue depth and coalescing counters of the salon rating refresher
+     * GET /api/admin/ratings/refresh/stats
+     */
+    @GetMapping("/ratings/refresh/stats")
+    public ResponseEntity<RatingRefreshStats> getRatingRefreshStats() {
+        return ResponseEntity.ok(salonRatingRefresher.getStats());
+    }
+
+    /**
+     * Buffered delta and flush timings of the helpful vote write-behind buffer
+     * GET /api/admin/reviews/helpful-buffer/stats
+     */
+    @GetMapping("/reviews/helpful-buffer/stats")
+    public ResponseEntity<HelpfulVoteBufferStats> getHelpfulVoteBufferStats() {
+        return ResponseEntity.ok(helpfulVoteBuffer.getStats());
+    }
+
+    /**
+     * Write buffered helpful votes now
+     * POST /api/admin/reviews/helpful-buffer/flush
+     */
+    @PostMapping("/reviews/helpful-buffer/flush")
+    public ResponseEntity<HelpfulVoteBufferStats> flushHelpfulVoteBuffer() {
+        log.info("ADMIN: Flushing helpful vote buffer");
+        helpfulVoteBuffer.flush();
+        return ResponseEntity.ok(helpfulVoteBuffer.getStats());
+    }
+
+    /**
+     * Hit / miss / eviction counters of the salon catalog caches
+     * GET /api/admin/cache/salons/stats
+     */
+    @GetMapping("/cache/salons/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getSalonCacheStats() {
+        return ResponseEntity.ok(salonCatalogService.getStats());
+    }
+
+    /**
+     * Drop every cached salon, e.g. after editing salons directly in the database
+     * POST /api/admin/cache/salons/clear
+     */
+    @PostMapping("/cache/salons/clear")
+    public ResponseEntity<List<CacheStatsDTO>> clearSalonCache() {
+        log.info("ADMIN: Clearing salon catalog cache");
+        salonCatalogService.invalidateAll();
+        return ResponseEntity.ok(salonCatalogService.getStats());
+    }
+
+    /**
+     * Hit / miss / eviction counters of the rendered service list cache
+     * GET /api/admin/cache/services/stats
+     */
+    @GetMapping("/cache/services/stats")
+    public ResponseEntity<CacheStatsDTO> getServiceCacheStats() {
+        return ResponseEntity.ok(serviceCatalogService.getStats());
+    }
+
+    /**
+     * Drop the rendered service lists, e.g. after editing services directly in the database
+     * POST /api/admin/cache/services/clear
+     */
+    @PostMapping("/cache/services/clear")
+    public ResponseEntity<CacheStatsDTO> clearServiceCache() {
+        log.info("ADMIN: Clearing service catalog cache");
+        serviceCatalogService.invalidateAll();
+        return ResponseEntity.ok(serviceCatalogService.getStats());
+    }
+
+    /**
+     * Hit / miss / eviction counters of the customer-by-email cache used by booking
+     * GET /api/admin/cache/customers/stats
+     */
+    @GetMapping("/cache/customers/stats")
+    public ResponseEntity<CacheStatsDTO> getCustomerCacheStats() {
+        return ResponseEntity.ok(customerService.getStats());
+    }
+
+    /**
+     * Version conflict counters of the optimistic locking retry policy
+     * GET /api/admin/concurrency/retry/stats
+     */
+    @GetMapping("/concurrency/retry/stats")
+    public ResponseEntity<OptimisticRetryStats> getOptimisticRetryStats() {
+        return ResponseEntity.ok(optimisticRetry.getStats());
+    }
+
+    /**
+     * Fill level and collision counters of the confirmation code pool
+     * GET /api/admin/appointments/confirmation-codes/stats
+     */
+    @GetMapping("/appointments/confirmation-codes/stats")
+    public ResponseEntity<ConfirmationCodePoolStats> getConfirmationCodePoolStats() {
+        return ResponseEntity.ok(confirmationCodePool.getStats());
+    }
+
+    /**
+     * Slowest Mongo query shapes since startup, by average duration
+     * GET /api/admin/mongo/query-shapes?limit=20
+     */
+    @GetMapping("/mongo/query-shapes")
+    public ResponseEntity<List<QueryShapeStats>> getSlowestQueryShapes(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(mongoQueryMetrics.getSlowestShapes(Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * Forget the collected query shapes, e.g. after adding an index
+     * POST /api/admin/mongo/query-shapes/reset
+     */
+    @PostMapping("/mongo/query-shapes/reset")
+    public ResponseEntity<Void> resetQueryShapes() {
+        log.info("ADMIN: Resetting Mongo query shape statistics");
+        mongoQueryMetrics.resetShapes();
+        return ResponseEntity.noContent().build();
+    }
 }
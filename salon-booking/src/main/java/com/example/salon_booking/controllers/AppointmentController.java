@@ -1,19 +1,31 @@
 package com.example.salon_booking.controllers;
 
+import com.example.salon_booking.dto.AppointmentBatchItemDTO;
+import com.example.salon_booking.dto.AppointmentBatchRequestDTO;
+import com.example.salon_booking.dto.AppointmentBatchResultDTO;
 import com.example.salon_booking.dto.AppointmentRequestDTO;
 import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.IdempotentResult;
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.models.Appointment;
 import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.AppointmentTransition;
 import com.example.salon_booking.models.TimeSlot;
+import com.example.salon_booking.service.AppointmentExportService;
 import com.example.salon_booking.service.AppointmentService;
+import com.example.salon_booking.service.IdempotencyService;
 import com.example.salon_booking.service.TimeSlotService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -36,23 +48,45 @@ public class AppointmentController {
     
     private final AppointmentService appointmentService;
     private final TimeSlotService timeSlotService;
+    private final AppointmentExportService appointmentExportService;
+    private final IdempotencyService idempotencyService;
+    
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String CREATE_APPOINTMENT_SCOPE = "create-appointment";
     
     /**
      * Create a new appointment
      * POST /api/appointments
      * 
+     * With an Idempotency-Key header a retry of the same request returns the
+     * original response (Idempotent-Replayed: true) instead of booking again.
+     * 
      * @param request Appointment request data
+     * @param idempotencyKey Client-generated key, unique per booking attempt (optional)
      * @return Created appointment with confirmation code
      */
     @PostMapping
     public ResponseEntity<AppointmentResponseDTO> createAppointment(
-            @Valid @RequestBody AppointmentRequestDTO request) {
+            @Valid @RequestBody AppointmentRequestDTO request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Received appointment request for customer: {}", request.getCustomerEmail());
         
-        Appointment appointment = appointmentService.createAppointment(request);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(book(request, null));
+        }
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        IdempotentResult<AppointmentResponseDTO> result = idempotencyService.execute(CREATE_APPOINTMENT_SCOPE,
+                idempotencyKey, request, AppointmentResponseDTO.class,
+                appointmentId -> book(request, appointmentId), appointmentService::findAppointmentDTOById);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                .body(result.getBody());
+    }
+    
+    private AppointmentResponseDTO book(AppointmentRequestDTO request, String appointmentId) {
+        Appointment appointment = appointmentService.createAppointment(request, appointmentId);
+        return appointmentService.convertToResponseDTO(appointment);
     }
     
     /**
@@ -66,8 +100,7 @@ public class AppointmentController {
     public ResponseEntity<AppointmentResponseDTO> getAppointment(@PathVariable String id) {
         log.info("Fetching appointment: {}", id);
         
-        Appointment appointment = appointmentService.getAppointmentById(id);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        AppointmentResponseDTO response = appointmentService.getAppointmentDTOById(id);
         
         return ResponseEntity.ok(response);
     }
@@ -84,8 +117,7 @@ public class AppointmentController {
             @PathVariable String code) {
         log.info("Fetching appointment with confirmation code: {}", code);
         
-        Appointment appointment = appointmentService.getAppointmentByConfirmationCode(code);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        AppointmentResponseDTO response = appointmentService.getAppointmentDTOByConfirmationCode(code);
         
         return ResponseEntity.ok(response);
     }
@@ -102,8 +134,7 @@ public class AppointmentController {
             @PathVariable String customerId) {
         log.info("Fetching appointments for customer: {}", customerId);
         
-        List<Appointment> appointments = appointmentService.getCustomerAppointments(customerId);
-        List<AppointmentResponseDTO> response = appointmentService.convertToResponseDTOs(appointments);
+        List<AppointmentResponseDTO> response = appointmentService.getCustomerAppointmentDTOs(customerId);
         
         return ResponseEntity.ok(response);
     }
@@ -120,12 +151,45 @@ public class AppointmentController {
             @PathVariable String salonId) {
         log.info("Fetching appointments for salon: {}", salonId);
         
-        List<Appointment> appointments = appointmentService.getSalonAppointments(salonId);
-        List<AppointmentResponseDTO> response = appointmentService.convertToResponseDTOs(appointments);
+        List<AppointmentResponseDTO> response = appointmentService.getSalonAppointmentDTOs(salonId);
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Get one page of a salon's appointments, newest booking first
+     * GET /api/appointments/salon/{salonId}/page?size=20&after={nextToken}
+     * 
+     * @param salonId Salon ID
+     * @param after Continuation token from the previous page
+     * @param size Page size (max 100)
+     * @return Page of appointments with the token for the next page
+     */
+    @GetMapping("/salon/{salonId}/page")
+    public ResponseEntity<KeysetPage<AppointmentResponseDTO>> getSalonAppointmentsPage(
+            @PathVariable String salonId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.getSalonAppointmentsPage(salonId, after, size));
+    }
+    
+    /**
+     * Get one page of a customer's appointments, newest booking first
+     * GET /api/appointments/customer/{customerId}/page?size=20&after={nextToken}
+     * 
+     * @param customerId Customer ID
+     * @param after Continuation token from the previous page
+     * @param size Page size (max 100)
+     * @return Page of appointments with the token for the next page
+     */
+    @GetMapping("/customer/{customerId}/page")
+    public ResponseEntity<KeysetPage<AppointmentResponseDTO>> getCustomerAppointmentsPage(
+            @PathVariable String customerId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.getCustomerAppointmentsPage(customerId, after, size));
+    }
+    
     /**
      * Get appointments by status
      * GET /api/appointments/status/{status}
@@ -139,8 +203,7 @@ public class AppointmentController {
         log.info("Fetching appointments with status: {}", status);
         
         AppointmentStatus appointmentStatus = AppointmentStatus.valueOf(status.toUpperCase());
-        List<Appointment> appointments = appointmentService.getAppointmentsByStatus(appointmentStatus);
-        List<AppointmentResponseDTO> response = appointmentService.convertToResponseDTOs(appointments);
+        List<AppointmentResponseDTO> response = appointmentService.getAppointmentDTOsByStatus(appointmentStatus);
         
         return ResponseEntity.ok(response);
     }
@@ -155,12 +218,59 @@ public class AppointmentController {
     public ResponseEntity<List<AppointmentResponseDTO>> getAllAppointments() {
         log.info("Fetching all appointments");
         
-        List<Appointment> appointments = appointmentService.getAllAppointments();
-        List<AppointmentResponseDTO> response = appointmentService.convertToResponseDTOs(appointments);
+        List<AppointmentResponseDTO> response = appointmentService.getAllAppointmentDTOs();
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Stream all appointments (admin export)
+     * GET /api/appointments/export?format=json|ndjson|csv
+     * 
+     * @param format Output format (default json)
+     * @return Appointments written to the response as they are read
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllAppointments(
+            @RequestParam(defaultValue = "json") String format) {
+        log.info("Exporting all appointments as {}", format);
+        return export(appointmentExportService.allAppointments(), format, "appointments");
+    }
+    
+    /**
+     * Stream a salon's appointments (owner dashboard export)
+     * GET /api/appointments/salon/{salonId}/export?format=json|ndjson|csv
+     * 
+     * @param salonId Salon ID
+     * @param format Output format (default json)
+     * @return Appointments written to the response as they are read
+     */
+    @GetMapping("/salon/{salonId}/export")
+    public ResponseEntity<StreamingResponseBody> exportSalonAppointments(
+            @PathVariable String salonId,
+            @RequestParam(defaultValue = "json") String format) {
+        log.info("Exporting appointments for salon {} as {}", salonId, format);
+        return export(appointmentExportService.salonAppointments(salonId), format, "appointments-" + salonId);
+    }
+    
+    /**
+     * Stream appointments by status
+     * GET /api/appointments/status/{status}/export?format=json|ndjson|csv
+     * 
+     * @param status Appointment status
+     * @param format Output format (default json)
+     * @return Appointments written to the response as they are read
+     */
+    @GetMapping("/status/{status}/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsByStatus(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "json") String format) {
+        log.info("Exporting appointments with status {} as {}", status, format);
+        AppointmentStatus appointmentStatus = AppointmentStatus.valueOf(status.toUpperCase());
+        return export(appointmentExportService.appointmentsByStatus(appointmentStatus), format,
+                "appointments-" + status.toLowerCase());
+    }
+    
     /**
      * Cancel an appointment
      * DELETE /api/appointments/{id}
@@ -175,8 +285,7 @@ public class AppointmentController {
             @RequestParam(required = false) String reason) {
         log.info("Cancelling appointment: {}", id);
         
-        Appointment appointment = appointmentService.cancelAppointment(id, reason);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        AppointmentResponseDTO response = appointmentService.cancelAppointment(id, reason);
         
         return ResponseEntity.ok(response);
     }
@@ -212,8 +321,7 @@ public class AppointmentController {
     public ResponseEntity<AppointmentResponseDTO> confirmAppointment(@PathVariable String id) {
         log.info("Confirming appointment: {}", id);
         
-        Appointment appointment = appointmentService.confirmAppointment(id);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        AppointmentResponseDTO response = appointmentService.confirmAppointment(id);
         
         return ResponseEntity.ok(response);
     }
@@ -229,8 +337,65 @@ public class AppointmentController {
     public ResponseEntity<AppointmentResponseDTO> completeAppointment(@PathVariable String id) {
         log.info("Completing appointment: {}", id);
         
-        Appointment appointment = appointmentService.completeAppointment(id);
-        AppointmentResponseDTO response = appointmentService.convertToResponseDTO(appointment);
+        AppointmentResponseDTO response = appointmentService.completeAppointment(id);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Apply a batch of status changes (confirm, complete, cancel, no-show)
+     * POST /api/appointments/batch
+     * 
+     * @param request Appointment IDs and transitions
+     * @return Per-item results; items that failed do not fail the request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<AppointmentBatchResultDTO> applyBatch(
+            @Valid @RequestBody AppointmentBatchRequestDTO request) {
+        log.info("Applying batch of {} appointment transitions", request.getItems().size());
+        return ResponseEntity.ok(appointmentService.applyBatch(request));
+    }
+    
+    /**
+     * Apply the same status change to many appointments
+     * POST /api/appointments/batch/{transition} (e.g. /batch/confirm)
+     * 
+     * @param transition CONFIRM, COMPLETE, CANCEL or NO_SHOW (case-insensitive, '-' for '_')
+     * @param appointmentIds Appointment IDs
+     * @param reason Cancellation reason (optional, cancel only)
+     * @return Per-item results; items that failed do not fail the request
+     */
+    @PostMapping("/batch/{transition}")
+    public ResponseEntity<AppointmentBatchResultDTO> applyBatch(
+            @PathVariable String transition,
+            @RequestBody List<String> appointmentIds,
+            @RequestParam(required = false) String reason) {
+        AppointmentTransition appointmentTransition =
+                AppointmentTransition.valueOf(transition.toUpperCase().replace('-', '_'));
+        log.info("Applying {} to {} appointments", appointmentTransition, appointmentIds.size());
+        
+        List<AppointmentBatchItemDTO> items = appointmentIds.stream()
+                .map(id -> AppointmentBatchItemDTO.builder()
+                        .appointmentId(id)
+                        .transition(appointmentTransition)
+                        .reason(reason)
+                        .build())
+                .toList();
+        return applyBatch(AppointmentBatchRequestDTO.builder().items(items).build());
+    }
+    
+    /**
+     * Mark an appointment as a no-show
+     * PUT /api/appointments/{id}/no-show
+     * 
+     * @param id Appointment ID
+     * @return Updated appointment
+     */
+    @PutMapping("/{id}/no-show")
+    public ResponseEntity<AppointmentResponseDTO> markNoShow(@PathVariable String id) {
+        log.info("Marking appointment as no-show: {}", id);
+        
+        AppointmentResponseDTO response = appointmentService.markNoShow(id);
         
         return ResponseEntity.ok(response);
     }
@@ -277,4 +442,29 @@ public class AppointmentController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Build a streaming export response
+     * 
+     * @param query Appointment query
+     * @param format Requested format name
+     * @param filename Download file name without extension
+     * @return Streaming response, or 400 for an unknown format
+     */
+    private ResponseEntity<StreamingResponseBody> export(Query query, String format, String filename) {
+        AppointmentExportService.Format exportFormat;
+        try {
+            exportFormat = AppointmentExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = out -> appointmentExportService.export(query, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename + "." + exportFormat.getExtension())
+                        .build().toString())
+                .body(body);
+    }
 }
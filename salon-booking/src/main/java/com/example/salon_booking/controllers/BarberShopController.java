@@ -1,7 +1,5 @@
 package com.example.salon_booking.controllers;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,7 +10,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.salon_booking.exception.ResourceNotFoundException;
 import com.example.salon_booking.models.Salon;
-import com.example.salon_booking.repositories.SalonRepository;
+import com.example.salon_booking.service.SalonCatalogService;
 
 /**
  * REST Controller for Barber Shop operations
@@ -24,18 +22,17 @@ import com.example.salon_booking.repositories.SalonRepository;
 public class BarberShopController {
 
     @Autowired
-    private SalonRepository salonRepository;
+    private SalonCatalogService salonCatalogService;
 
     /**
      * Get all barber shops
      * GET /api/barber-shops
      * 
-     * @return List of all barber shops
+     * @return Summaries of all barber shops as pre-rendered JSON (304 when If-None-Match matches)
      */
     @GetMapping
-    public ResponseEntity<List<Salon>> getAllBarberShops() {
-        List<Salon> salons = salonRepository.findByType("barber-shop");
-        return ResponseEntity.ok(salons);
+    public ResponseEntity<byte[]> getAllBarberShops() {
+        return salonCatalogService.getSalonsByTypeJson("barber-shop").toResponse();
     }
 
     /**
@@ -43,11 +40,11 @@ public class BarberShopController {
      * GET /api/barber-shops/{id}
      * 
      * @param id The salon ID
-     * @return Single salon object
+     * @return Full salon document
      */
     @GetMapping("/{id}")
     public ResponseEntity<Salon> getBarberShopById(@PathVariable String id) {
-        Salon salon = salonRepository.findById(id)
+        Salon salon = salonCatalogService.findSalon(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Barber shop not found with id: " + id));
 
         // Verify it's actually a barber shop
@@ -1,7 +1,5 @@
 package com.example.salon_booking.controllers;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,7 +10,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.salon_booking.exception.ResourceNotFoundException;
 import com.example.salon_booking.models.Salon;
-import com.example.salon_booking.repositories.SalonRepository;
+import com.example.salon_booking.service.SalonCatalogService;
 
 /**
  * REST Controller for Bridal Salon operations
@@ -24,18 +22,17 @@ import com.example.salon_booking.repositories.SalonRepository;
 public class BridalSalonController {
 
     @Autowired
-    private SalonRepository salonRepository;
+    private SalonCatalogService salonCatalogService;
 
     /**
      * Get all bridal salons
      * GET /api/bridal-salons
      * 
-     * @return List of all bridal salons
+     * @return Summaries of all bridal salons as pre-rendered JSON (304 when If-None-Match matches)
      */
     @GetMapping
-    public ResponseEntity<List<Salon>> getAllBridalSalons() {
-        List<Salon> salons = salonRepository.findByType("bridal-salon");
-        return ResponseEntity.ok(salons);
+    public ResponseEntity<byte[]> getAllBridalSalons() {
+        return salonCatalogService.getSalonsByTypeJson("bridal-salon").toResponse();
     }
 
     /**
@@ -43,11 +40,11 @@ public class BridalSalonController {
      * GET /api/bridal-salons/{id}
      * 
      * @param id The salon ID
-     * @return Single salon object
+     * @return Full salon document
      */
     @GetMapping("/{id}")
     public ResponseEntity<Salon> getBridalSalonById(@PathVariable String id) {
-        Salon salon = salonRepository.findById(id)
+        Salon salon = salonCatalogService.findSalon(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Bridal salon not found with id: " + id));
 
         // Verify it's actually a bridal salon
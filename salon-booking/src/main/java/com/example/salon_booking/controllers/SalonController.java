@@ -1,8 +1,7 @@
 package com.example.salon_booking.controllers;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,11 +12,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.dto.KeysetPage;
+import com.example.salon_booking.dto.SalonSummaryDTO;
 import com.example.salon_booking.models.Salon;
-import com.example.salon_booking.repositories.SalonRepository;
+import com.example.salon_booking.service.KeysetPaginationService;
+import com.example.salon_booking.service.SalonCatalogService;
 
 import jakarta.validation.Valid;
 
@@ -27,59 +29,57 @@ import jakarta.validation.Valid;
 public class SalonController {
 
     @Autowired
-    private SalonRepository salonRepository;
+    private SalonCatalogService salonCatalogService;
+
+    @Autowired
+    private KeysetPaginationService keysetPaginationService;
 
     @PostMapping
     public ResponseEntity<Salon> createSalon(@Valid @RequestBody Salon salon) {
-        Salon savedSalon = salonRepository.save(salon);
+        Salon savedSalon = salonCatalogService.createSalon(salon);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedSalon);
     }
 
+    /**
+     * Get summaries of all salons, served as pre-rendered JSON (304 when If-None-Match matches)
+     * The full document of a salon is served by GET /api/salons/{id}
+     */
     @GetMapping
-    public ResponseEntity<List<Salon>> getAllSalons() {
-        List<Salon> salons = salonRepository.findAll();
-        return ResponseEntity.ok(salons);
+    public ResponseEntity<byte[]> getAllSalons() {
+        return salonCatalogService.getAllSalonsJson().toResponse();
     }
 
+    /**
+     * Get salon summaries one page at a time in id order
+     * GET /api/salons/page?size=20&after={nextToken}
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<SalonSummaryDTO>> getSalonsPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        Query query = new Query();
+        query.fields().include(SalonSummaryDTO.FIELDS.toArray(String[]::new));
+        return ResponseEntity.ok(keysetPaginationService.pageById(query, SalonSummaryDTO.class, "salons",
+                SalonSummaryDTO::getId, after, size));
+    }
+
+    /**
+     * Get the full salon document
+     */
     @GetMapping("/{id}")
     public ResponseEntity<Salon> getSalonById(@PathVariable String id) {
-        Salon salon = salonRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + id));
-        return ResponseEntity.ok(salon);
+        return ResponseEntity.ok(salonCatalogService.getSalon(id));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Salon> updateSalon(@PathVariable String id, @Valid @RequestBody Salon salonDetails) {
-        Salon salon = salonRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + id));
-
-        salon.setName(salonDetails.getName());
-        salon.setType(salonDetails.getType());
-        salon.setDescription(salonDetails.getDescription());
-        salon.setBannerImage(salonDetails.getBannerImage());
-        salon.setImages(salonDetails.getImages());
-        salon.setReviews(salonDetails.getReviews());
-        salon.setAddress(salonDetails.getAddress());
-        salon.setPhone(salonDetails.getPhone());
-        salon.setEmail(salonDetails.getEmail());
-        salon.setServices(salonDetails.getServices());
-        salon.setOpenTime(salonDetails.getOpenTime());
-        salon.setCloseTime(salonDetails.getCloseTime());
-        salon.setAvailable(salonDetails.isAvailable());
-        salon.setManager(salonDetails.getManager());
-        salon.setBookings(salonDetails.getBookings());
-        salon.setSlotsBooked(salonDetails.getSlotsBooked());
-
-        Salon updatedSalon = salonRepository.save(salon);
+        Salon updatedSalon = salonCatalogService.updateSalon(id, salonDetails);
         return ResponseEntity.ok(updatedSalon);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSalon(@PathVariable String id) {
-        if (!salonRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Salon not found with id: " + id);
-        }
-        salonRepository.deleteById(id);
+        salonCatalogService.deleteSalon(id);
         return ResponseEntity.noContent().build();
     }
 }
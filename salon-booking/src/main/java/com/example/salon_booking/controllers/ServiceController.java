@@ -2,6 +2,8 @@ package com.example.salon_booking.controllers;
 
 import java.util.List;
 
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,8 +12,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.models.Service;
 import com.example.salon_booking.repositories.ServiceRepository;
+import com.example.salon_booking.service.KeysetPaginationService;
+import com.example.salon_booking.service.ServiceCatalogService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,16 +33,30 @@ import lombok.extern.slf4j.Slf4j;
 public class ServiceController {
     
     private final ServiceRepository serviceRepository;
+    private final KeysetPaginationService keysetPaginationService;
+    private final ServiceCatalogService serviceCatalogService;
     
     /**
-     * Get all services
+     * Get all services, served as pre-rendered JSON (304 when If-None-Match matches)
      * GET /api/services
      */
     @GetMapping
-    public ResponseEntity<List<Service>> getAllServices() {
+    public ResponseEntity<byte[]> getAllServices() {
         log.info("Fetching all services");
-        List<Service> services = serviceRepository.findByActiveTrue();
-        return ResponseEntity.ok(services);
+        return serviceCatalogService.getActiveServicesJson().toResponse();
+    }
+    
+    /**
+     * Get active services one page at a time in id order
+     * GET /api/services/page?size=20&after={nextToken}
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<Service>> getServicesPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        Query query = new Query(Criteria.where("active").is(true));
+        return ResponseEntity.ok(keysetPaginationService.pageById(query, Service.class, "services",
+                Service::getId, after, size));
     }
     
     /**
@@ -53,14 +72,13 @@ public class ServiceController {
     }
     
     /**
-     * Get services by category
+     * Get services by category, served as pre-rendered JSON (304 when If-None-Match matches)
      * GET /api/services/category/{category}
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Service>> getServicesByCategory(@PathVariable String category) {
+    public ResponseEntity<byte[]> getServicesByCategory(@PathVariable String category) {
         log.info("Fetching services for category: {}", category);
-        List<Service> services = serviceRepository.findByCategoryAndActiveTrue(category);
-        return ResponseEntity.ok(services);
+        return serviceCatalogService.getActiveServicesJson(category).toResponse();
     }
     
     /**
@@ -0,0 +1,40 @@
+package com.example.salon_booking.dto;
+
+import com.example.salon_booking.models.AppointmentTransition;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One status change in a batch request
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchItemDTO {
+    
+    /**
+     * ID of the appointment to change
+     */
+    @NotBlank(message = "Appointment ID is required")
+    private String appointmentId;
+    
+    /**
+     * Transition to apply: CONFIRM, COMPLETE, CANCEL or NO_SHOW
+     */
+    @NotNull(message = "Transition is required")
+    private AppointmentTransition transition;
+    
+    /**
+     * Cancellation reason (CANCEL only, optional)
+     */
+    private String reason;
+}
@@ -0,0 +1,45 @@
+package com.example.salon_booking.dto;
+
+import com.example.salon_booking.models.AppointmentTransition;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request
+ * Status and code match what the single-appointment endpoint would have returned
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchItemResult {
+    
+    private String appointmentId;
+    private AppointmentTransition transition;
+    
+    /**
+     * HTTP status of this item: 200, 404 or 409
+     */
+    private Integer status;
+    
+    /**
+     * OK, NOT_FOUND or INVALID_STATE_TRANSITION
+     */
+    private String code;
+    
+    /**
+     * Reason the item was rejected (null on success)
+     */
+    private String message;
+    
+    /**
+     * Appointment after the batch; on a 409 this is its current state
+     */
+    private AppointmentResponseDTO appointment;
+}
@@ -0,0 +1,31 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for batch appointment status changes
+ * Each appointment may appear at most once per batch
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchRequestDTO {
+    
+    /**
+     * Status changes to apply, in any order
+     */
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    private List<AppointmentBatchItemDTO> items;
+}
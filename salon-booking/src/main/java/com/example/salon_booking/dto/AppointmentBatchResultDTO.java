@@ -0,0 +1,35 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a batch of appointment status changes
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentBatchResultDTO {
+    
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    
+    /**
+     * Time slots freed by the cancellations in the batch
+     */
+    private Integer slotsReleased;
+    
+    /**
+     * Per-item outcomes, in request order
+     */
+    private List<AppointmentBatchItemResult> results;
+}
@@ -0,0 +1,55 @@
+package com.example.salon_booking.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.salon_booking.models.AppointmentSnapshot;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.mongodb.DBRef;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result class for appointment list reads
+ * Holds the fields shown in appointment lists and keeps the four references as
+ * unresolved DBRefs, so they can be fetched in one batch per collection
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentRefResult {
+    
+    private String id;
+    private String appointmentNumber;
+    private String confirmationCode;
+    private AppointmentStatus status;
+    private LocalDateTime bookingDate;
+    private LocalDateTime updatedAt;
+    private String customerNotes;
+    private String assignedStaff;
+    private String cancellationReason;
+    
+    /**
+     * Last batch that changed the status (only read by batch transitions)
+     */
+    private String batchId;
+    
+    /**
+     * Unresolved references
+     */
+    private DBRef customer;
+    private DBRef service;
+    private DBRef timeSlot;
+    private DBRef salon;
+    
+    /**
+     * Embedded copy of the referenced fields, if the appointment has one
+     */
+    private AppointmentSnapshot snapshot;
+}
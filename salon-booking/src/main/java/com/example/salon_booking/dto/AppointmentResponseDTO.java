@@ -25,6 +25,7 @@ import lombok.NoArgsConstructor;
 public class AppointmentResponseDTO {
     
     private String id;
+    private String appointmentNumber;
     private String confirmationCode;
     
     // Customer details
@@ -0,0 +1,44 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of comparing embedded appointment snapshots with the referenced documents
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSnapshotReport {
+    
+    /**
+     * Number of appointments checked
+     */
+    private Long scanned;
+    
+    /**
+     * Number of appointments without a snapshot
+     */
+    private Long missing;
+    
+    /**
+     * Number of snapshots that no longer match the referenced documents
+     */
+    private Long drifted;
+    
+    /**
+     * Number of snapshots written (0 for a report-only run)
+     */
+    private Long repaired;
+    
+    /**
+     * Time taken in milliseconds
+     */
+    private Long elapsedMs;
+}
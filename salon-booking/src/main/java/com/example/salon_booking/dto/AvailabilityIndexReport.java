@@ -0,0 +1,39 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of checking the in-memory availability index against the time_slots collection
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityIndexReport {
+    
+    /**
+     * Number of salon-days held by the index after the check
+     */
+    private Integer indexedDays;
+    
+    /**
+     * Number of stored slots compared
+     */
+    private Integer checkedSlots;
+    
+    /**
+     * Number of salon-days that differed from the database and were repaired
+     */
+    private Integer mismatchedDays;
+    
+    /**
+     * Time taken by the check in milliseconds
+     */
+    private Long elapsedMs;
+}
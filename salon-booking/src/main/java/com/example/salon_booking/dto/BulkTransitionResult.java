@@ -0,0 +1,32 @@
+package com.example.salon_booking.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Internal result of a bulk transition write
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransitionResult {
+    
+    /**
+     * Appointments whose transition was applied by this write
+     */
+    private Set<String> applied;
+    
+    /**
+     * State after the write of every requested appointment that exists, by ID
+     */
+    private Map<String, AppointmentRefResult> rows;
+}
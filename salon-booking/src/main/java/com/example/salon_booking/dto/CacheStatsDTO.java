@@ -0,0 +1,49 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit / miss / eviction counters of an in-memory cache
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    
+    /**
+     * Cache name
+     */
+    private String name;
+    
+    /**
+     * Current number of entries
+     */
+    private Long size;
+    
+    /**
+     * Lookups served from the cache
+     */
+    private Long hits;
+    
+    /**
+     * Lookups that had to load from the database
+     */
+    private Long misses;
+    
+    /**
+     * Share of lookups served from the cache (0.0 - 1.0)
+     */
+    private Double hitRate;
+    
+    /**
+     * Entries removed because of size or expiry (explicit invalidations are not counted)
+     */
+    private Long evictions;
+}
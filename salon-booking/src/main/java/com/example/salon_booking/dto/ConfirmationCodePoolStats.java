@@ -0,0 +1,59 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the pre-generated confirmation code pool
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmationCodePoolStats {
+
+    /**
+     * Codes ready to be taken
+     */
+    private Integer available;
+
+    /**
+     * Capacity of the pool
+     */
+    private Integer poolSize;
+
+    /**
+     * Codes handed out to new appointments
+     */
+    private Long taken;
+
+    /**
+     * Codes generated on the booking path because the pool was empty
+     */
+    private Long generatedInline;
+
+    /**
+     * Background refills
+     */
+    private Long refills;
+
+    /**
+     * Refills that failed (the pool is refilled on the next request)
+     */
+    private Long refillFailures;
+
+    /**
+     * Codes generated by refills
+     */
+    private Long codesGenerated;
+
+    /**
+     * Generated codes dropped because an appointment already used them
+     */
+    private Long collisions;
+}
@@ -0,0 +1,37 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result class for customers whose emails are equal once trimmed and lower-cased
+ * Used by the email migration to normalize emails and merge duplicate customers
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerEmailGroup {
+    
+    /**
+     * Trimmed, lower-cased email
+     */
+    private String email;
+    
+    /**
+     * Customer IDs with this email, oldest first
+     */
+    private List<String> customerIds;
+    
+    /**
+     * Stored emails in the same order
+     */
+    private List<String> storedEmails;
+}
@@ -0,0 +1,69 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the write-behind buffer for review helpful votes
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HelpfulVoteBufferStats {
+
+    /**
+     * Whether votes are buffered (false: every vote is written directly)
+     */
+    private Boolean enabled;
+
+    /**
+     * Votes waiting to be written
+     */
+    private Long bufferedDelta;
+
+    /**
+     * Reviews with buffered votes
+     */
+    private Integer bufferedReviews;
+
+    /**
+     * Votes accepted into the buffer
+     */
+    private Long votesRecorded;
+
+    /**
+     * Votes written to the database
+     */
+    private Long votesFlushed;
+
+    /**
+     * Flushes with at least one buffered vote
+     */
+    private Long flushes;
+
+    /**
+     * Flushes that failed (their votes are put back into the buffer)
+     */
+    private Long flushFailures;
+
+    /**
+     * Duration of the most recent flush in milliseconds
+     */
+    private Long lastFlushMs;
+
+    /**
+     * Longest flush in milliseconds
+     */
+    private Long maxFlushMs;
+
+    /**
+     * Average flush duration in milliseconds
+     */
+    private Double averageFlushMs;
+}
@@ -0,0 +1,26 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response of an idempotent request and whether it was replayed from the store
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResult<T> {
+    
+    private T body;
+    
+    /**
+     * True if the body is the stored response of an earlier request
+     */
+    private boolean replayed;
+}
@@ -0,0 +1,51 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset (seek) paginated list
+ * Pass nextToken back as the "after" parameter to get the following page.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    
+    /**
+     * Items on this page
+     */
+    private List<T> items;
+    
+    /**
+     * Opaque continuation token, null on the last page
+     */
+    private String nextToken;
+    
+    /**
+     * Whether more items follow
+     */
+    private Boolean hasMore;
+    
+    /**
+     * Number of items on this page
+     */
+    private Integer size;
+    
+    /**
+     * Same page position with converted items
+     * @param converted Items converted one-to-one, in order
+     * @return Page carrying the converted items
+     */
+    public <R> KeysetPage<R> withItems(List<R> converted) {
+        return new KeysetPage<>(converted, nextToken, hasMore, converted.size());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the optimistic locking retry policy
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimisticRetryStats {
+
+    /**
+     * Retried operations started
+     */
+    private Long executions;
+
+    /**
+     * Attempts that lost to a concurrent write
+     */
+    private Long conflicts;
+
+    /**
+     * Operations that succeeded after at least one conflict
+     */
+    private Long recovered;
+
+    /**
+     * Operations that ran out of attempts and were reported as a conflict
+     */
+    private Long exhausted;
+
+    /**
+     * Conflicts per attempt (0.0 - 1.0)
+     */
+    private Double conflictRate;
+}
@@ -0,0 +1,65 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latency counters of one Mongo query shape
+ * A shape is a collection, command and filter with every value replaced by "?"
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryShapeStats {
+
+    /**
+     * Collection queried
+     */
+    private String collection;
+
+    /**
+     * Command name, e.g. find, aggregate, update
+     */
+    private String command;
+
+    /**
+     * Filter with values replaced by "?", e.g. {"salon.$id": ?, "status": {"$in": [?]}}
+     */
+    private String shape;
+
+    /**
+     * Repository method that last issued it ("template" for MongoTemplate calls)
+     */
+    private String method;
+
+    /**
+     * Commands with this shape
+     */
+    private Long count;
+
+    /**
+     * Commands with this shape over the slow-query threshold
+     */
+    private Long slowCount;
+
+    /**
+     * Average duration in milliseconds
+     */
+    private Double averageMs;
+
+    /**
+     * Longest duration in milliseconds
+     */
+    private Double maxMs;
+
+    /**
+     * Average number of documents returned or affected
+     */
+    private Double averageDocuments;
+}
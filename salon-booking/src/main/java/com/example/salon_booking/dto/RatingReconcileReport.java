@@ -0,0 +1,41 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of recomputing salon rating aggregates from the reviews
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingReconcileReport {
+    
+    /**
+     * Number of salons checked
+     */
+    private Integer salonsChecked;
+    
+    /**
+     * Number of salons whose aggregate differed from the reviews and was corrected
+     */
+    private Integer driftedSalons;
+    
+    /**
+     * IDs of the drifted salons (first 100)
+     */
+    private List<String> driftedSalonIds;
+    
+    /**
+     * Time taken in milliseconds
+     */
+    private Long elapsedMs;
+}
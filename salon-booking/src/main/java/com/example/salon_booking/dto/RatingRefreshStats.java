@@ -0,0 +1,59 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the background salon rating refresher
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingRefreshStats {
+    
+    /**
+     * Salons currently waiting for a refresh
+     */
+    private Integer queueDepth;
+    
+    /**
+     * Refresh requests received
+     */
+    private Long requested;
+    
+    /**
+     * Requests folded into an already pending refresh
+     */
+    private Long coalesced;
+    
+    /**
+     * Refreshes run inline because the queue was full
+     */
+    private Long rejected;
+    
+    /**
+     * Refreshes executed
+     */
+    private Long executed;
+    
+    /**
+     * Refreshes that failed
+     */
+    private Long failed;
+    
+    /**
+     * Share of requests that did not cause a refresh of their own (0.0 - 1.0)
+     */
+    private Double coalescingRatio;
+    
+    /**
+     * Average time to copy a salon's aggregate into the salon, in milliseconds
+     */
+    private Double averageRefreshMs;
+}
@@ -0,0 +1,61 @@
+package com.example.salon_booking.dto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import lombok.Getter;
+
+/**
+ * A response body serialized to UTF-8 JSON once, with a strong ETag of its bytes
+ * Returned as a ResponseEntity, Spring answers If-None-Match with 304 and
+ * otherwise writes the bytes as they are.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Getter
+public class RenderedJson {
+    
+    /**
+     * Serialized JSON (shared, do not modify)
+     */
+    private final byte[] body;
+    
+    /**
+     * Quoted strong ETag derived from the body
+     */
+    private final String etag;
+    
+    private RenderedJson(byte[] body, String etag) {
+        this.body = body;
+        this.etag = etag;
+    }
+    
+    /**
+     * Wrap serialized JSON and compute its ETag
+     * @param body UTF-8 JSON bytes
+     * @return Rendered body
+     */
+    public static RenderedJson of(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new RenderedJson(body, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * @return 200 response with the JSON body and its ETag (304 if the client has it)
+     */
+    public ResponseEntity<byte[]> toResponse() {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.salon_booking.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Salon fields shown on list pages
+ * Read with a field projection, so the unbounded arrays of the salon document
+ * (images, reviews, bookings, slotsBooked) are never loaded for lists.
+ * The full document is served by the salon detail endpoints.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalonSummaryDTO {
+    
+    /**
+     * Fields read from the salons collection
+     */
+    public static final List<String> FIELDS = List.of(
+            "name", "type", "bannerImage", "address", "phone",
+            "openTime", "closeTime", "available", "averageRating", "totalReviews");
+    
+    private String id;
+    private String name;
+    private String type;
+    private String bannerImage;
+    private String address;
+    private String phone;
+    private String openTime;
+    private String closeTime;
+    private boolean available;
+    private Double averageRating;
+    private Long totalReviews;
+}
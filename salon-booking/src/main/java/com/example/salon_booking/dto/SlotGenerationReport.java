@@ -0,0 +1,60 @@
+package com.example.salon_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a slot generation run
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotGenerationReport {
+    
+    /**
+     * Number of salons processed
+     */
+    private Integer salons;
+    
+    /**
+     * Number of days requested per salon
+     */
+    private Integer days;
+    
+    /**
+     * Number of slots written
+     */
+    private Long slotsCreated;
+    
+    /**
+     * Number of salon-days skipped because they already had slots
+     */
+    private Long daysSkipped;
+    
+    /**
+     * Number of slots rejected as duplicates by the unique index
+     * (another run wrote them first)
+     */
+    private Long duplicatesSkipped;
+    
+    /**
+     * Number of salons whose generation failed
+     */
+    private Integer failedSalons;
+    
+    /**
+     * Time taken by the run in milliseconds
+     */
+    private Long elapsedMs;
+    
+    /**
+     * Write throughput of the run
+     */
+    private Double slotsPerSecond;
+}
@@ -0,0 +1,37 @@
+package com.example.salon_booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.mongodb.DBRef;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result class for lightweight time slot reads
+ * Mirrors a time_slots document but keeps the salon as an unresolved DBRef,
+ * so loading many slots does not fetch the salon once per slot
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotRefResult {
+    
+    private String id;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Boolean isAvailable;
+    
+    /**
+     * Unresolved reference to the owning salon
+     */
+    private DBRef salon;
+}
@@ -0,0 +1,18 @@
+package com.example.salon_booking.exception;
+
+/**
+ * Exception thrown when a request arrives while the first request with the same idempotency key is still running
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+    
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+    
+    public IdempotencyKeyInUseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
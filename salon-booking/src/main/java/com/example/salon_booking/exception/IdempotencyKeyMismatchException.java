@@ -0,0 +1,18 @@
+package com.example.salon_booking.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused with a different request body
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+    
+    public IdempotencyKeyMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.salon_booking.exception;
+
+/**
+ * Exception thrown when a pagination continuation token cannot be decoded
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public class InvalidPageTokenException extends RuntimeException {
+    
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.salon_booking.exception;
+
+/**
+ * Exception thrown when a status change is not allowed from the current status
+ * Usually the appointment was changed concurrently (e.g. cancelled while being confirmed)
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public class InvalidStateTransitionException extends RuntimeException {
+    
+    public InvalidStateTransitionException(String message) {
+        super(message);
+    }
+    
+    public InvalidStateTransitionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -45,8 +46,10 @@ import lombok.NoArgsConstructor;
     @CompoundIndex(name = "salon_date_idx", def = "{'salon.$id': 1, 'timeSlot.date': 1}"),
     @CompoundIndex(name = "salon_status_idx", def = "{'salon.$id': 1, 'status': 1}"),
     @CompoundIndex(name = "salon_date_status_idx", def = "{'salon.$id': 1, 'timeSlot.date': 1, 'status': 1}"),
-    @CompoundIndex(name = "customer_booking_idx", def = "{'customer.$id': 1, 'bookingDate': -1}"),
-    @CompoundIndex(name = "timeslot_status_idx", def = "{'timeSlot.$id': 1, 'status': 1}")
+    @CompoundIndex(name = "customer_booking_seek_idx", def = "{'customer.$id': 1, 'bookingDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "salon_booking_seek_idx", def = "{'salon.$id': 1, 'bookingDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "timeslot_status_idx", def = "{'timeSlot.$id': 1, 'status': 1}"),
+    @CompoundIndex(name = "service_idx", def = "{'service.$id': 1}")
 })
 public class Appointment {
     
@@ -61,10 +64,11 @@ public class Appointment {
     /**
      * Human-readable appointment number for easy reference
      * Format: APT00001, APT00002, etc.
-     * Auto-generated on creation
+     * Assigned on creation by AppointmentNumberAllocator; appointments booked
+     * before that have none
      */
     @NotBlank(message = "Appointment number is required")
-    @Indexed(unique = true)
+    @Indexed(name = "appointment_number_idx", unique = true, sparse = true)
     private String appointmentNumber;
     
     // ==================== RELATIONSHIPS ====================
@@ -97,6 +101,13 @@ public class Appointment {
     @NotNull(message = "Salon is required")
     private Salon salon;
     
+    /**
+     * Embedded copy of the referenced customer, service, slot and salon fields
+     * used to display the appointment without resolving the references
+     * Missing on appointments created before it was introduced until backfilled
+     */
+    private AppointmentSnapshot snapshot;
+    
     // ==================== STATUS MANAGEMENT ====================
     
     /**
@@ -132,6 +143,12 @@ public class Appointment {
      */
     private LocalDateTime cancelledAt;
     
+    /**
+     * Timestamp when the customer was marked as not having shown up
+     * Set when status changes to NO_SHOW
+     */
+    private LocalDateTime noShowAt;
+    
     // ==================== CANCELLATION INFORMATION ====================
     
     /**
@@ -220,6 +237,7 @@ public class Appointment {
      * Confirmation code for appointment verification
      * Can be used for check-in or verification purposes
      */
+    @Indexed(name = "confirmation_code_idx", unique = true, sparse = true)
     private String confirmationCode;
     
     // ==================== NOTIFICATION TRACKING ====================
@@ -257,6 +275,19 @@ public class Appointment {
     @LastModifiedDate
     private LocalDateTime updatedAt;
     
+    /**
+     * Optimistic locking version, incremented by every write
+     * A save carrying a stale version fails instead of overwriting a newer change
+     */
+    @Version
+    private Long version;
+    
+    /**
+     * ID of the last batch request that changed the status
+     * Lets a batch tell the appointments it changed from ones it could not
+     */
+    private String batchId;
+    
     /**
      * User ID of person who created the appointment
      * Can be customer ID, admin ID, or staff ID
@@ -347,7 +378,7 @@ public class Appointment {
      * @return true if appointment is pending and can be confirmed
      */
     public boolean isConfirmable() {
-        return status == AppointmentStatus.PENDING;
+        return AppointmentTransition.CONFIRM.isAllowedFrom(status);
     }
     
     /**
@@ -357,7 +388,7 @@ public class Appointment {
      * @return true if appointment is confirmed and can be completed
      */
     public boolean isCompletable() {
-        return status == AppointmentStatus.CONFIRMED;
+        return AppointmentTransition.COMPLETE.isAllowedFrom(status);
     }
     
     /**
@@ -367,7 +398,7 @@ public class Appointment {
      * @return true if appointment can be marked as no-show
      */
     public boolean canMarkAsNoShow() {
-        return status == AppointmentStatus.CONFIRMED;
+        return AppointmentTransition.NO_SHOW.isAllowedFrom(status);
     }
     
     /**
@@ -0,0 +1,52 @@
+package com.example.salon_booking.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Denormalized copy of the referenced documents an appointment is displayed with
+ * Embedded in Appointment so a read needs no DBRef resolution.
+ * Kept in sync when the salon, service or customer changes.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSnapshot {
+    
+    // ==================== CUSTOMER ====================
+    
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    
+    // ==================== SERVICE ====================
+    
+    private String serviceName;
+    
+    // ==================== TIME SLOT ====================
+    
+    private LocalDate appointmentDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    
+    // ==================== SALON ====================
+    
+    private String salonName;
+    private String salonAddress;
+    private String salonPhone;
+    
+    /**
+     * When the snapshot was last written
+     */
+    private LocalDateTime refreshedAt;
+}
@@ -14,6 +14,8 @@ package com.example.salon_booking.models;
  * - CANCELLED → (final state, cannot change)
  * - NO_SHOW → (final state, cannot change)
  * 
+ * The table itself is AppointmentTransition
+ * 
  * @author Salon Booking System
  * @version 1.0
  */
@@ -75,6 +77,15 @@ public enum AppointmentStatus {
      * @return true if status is PENDING or CONFIRMED
      */
     public boolean isCancellable() {
-        return this == PENDING || this == CONFIRMED;
+        return AppointmentTransition.CANCEL.isAllowedFrom(this);
+    }
+    
+    /**
+     * Check if the transition table allows moving to a status
+     * @param target Target status
+     * @return true if a transition from this status to the target exists
+     */
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return AppointmentTransition.between(this, target).isPresent();
     }
 }
@@ -0,0 +1,105 @@
+package com.example.salon_booking.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Transition table of the appointment lifecycle
+ * Every status change is one of these; each names the statuses it may start
+ * from, the status it ends in and the timestamp field it sets. Anything not
+ * listed here (e.g. CANCELLED -> CONFIRMED) is rejected.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public enum AppointmentTransition {
+
+    /**
+     * Salon confirms a pending booking
+     */
+    CONFIRM(EnumSet.of(AppointmentStatus.PENDING), AppointmentStatus.CONFIRMED, "confirmedAt", "confirmed"),
+
+    /**
+     * Service was provided
+     */
+    COMPLETE(EnumSet.of(AppointmentStatus.CONFIRMED), AppointmentStatus.COMPLETED, "completedAt", "completed"),
+
+    /**
+     * Customer or salon cancels before the appointment
+     */
+    CANCEL(EnumSet.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED), AppointmentStatus.CANCELLED,
+            "cancelledAt", "cancelled"),
+
+    /**
+     * Customer did not arrive for a confirmed appointment
+     */
+    NO_SHOW(EnumSet.of(AppointmentStatus.CONFIRMED), AppointmentStatus.NO_SHOW, "noShowAt", "marked as no-show");
+
+    private final Set<AppointmentStatus> from;
+    private final AppointmentStatus to;
+    private final String timestampField;
+    private final String action;
+
+    AppointmentTransition(Set<AppointmentStatus> from, AppointmentStatus to, String timestampField, String action) {
+        this.from = Collections.unmodifiableSet(from);
+        this.to = to;
+        this.timestampField = timestampField;
+        this.action = action;
+    }
+
+    /**
+     * Statuses this transition may start from
+     * @return Source statuses
+     */
+    public Set<AppointmentStatus> getFrom() {
+        return from;
+    }
+
+    /**
+     * Status this transition ends in
+     * @return Target status
+     */
+    public AppointmentStatus getTo() {
+        return to;
+    }
+
+    /**
+     * Appointment field set to the time of the transition
+     * @return Field name
+     */
+    public String getTimestampField() {
+        return timestampField;
+    }
+
+    /**
+     * Past participle for messages (e.g. "confirmed")
+     * @return Action text
+     */
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * Check if this transition may start from a status
+     * @param status Current status
+     * @return true if allowed
+     */
+    public boolean isAllowedFrom(AppointmentStatus status) {
+        return status != null && from.contains(status);
+    }
+
+    /**
+     * Find the transition between two statuses
+     * @param current Current status
+     * @param target Target status
+     * @return Transition, or empty if the table has none
+     */
+    public static Optional<AppointmentTransition> between(AppointmentStatus current, AppointmentStatus target) {
+        return Arrays.stream(values())
+                .filter(transition -> transition.to == target && transition.isAllowedFrom(current))
+                .findFirst();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.salon_booking.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Named sequence in the counters collection
+ * Only ever changed with an atomic $inc, so every instance that increments it
+ * gets a distinct range.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Document(collection = "counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Counter {
+    
+    /**
+     * Sequence name, e.g. "appointmentNumber"
+     */
+    @Id
+    private String id;
+    
+    /**
+     * Highest value handed out so far
+     */
+    private Long seq;
+}
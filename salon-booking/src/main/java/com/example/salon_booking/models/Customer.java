@@ -28,6 +28,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Customer {
     
+    /**
+     * Collation of the email index (case-insensitive)
+     * Queries by email use it too, so they ignore case and can use the index
+     */
+    public static final String EMAIL_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+    
     /**
      * Unique identifier for the customer
      */
@@ -41,11 +47,13 @@ public class Customer {
     private String name;
     
     /**
-     * Customer's email address (unique)
+     * Customer's email address (unique, ignoring case)
+     * Stored trimmed and lower-cased; the index compares case-insensitively so
+     * emails stored before that still match and cannot be duplicated by casing
      */
     @Email(message = "Invalid email format")
     @NotBlank(message = "Email is required")
-    @Indexed(unique = true)
+    @Indexed(name = "customer_email_idx", unique = true, collation = Customer.EMAIL_COLLATION)
     private String email;
     
     /**
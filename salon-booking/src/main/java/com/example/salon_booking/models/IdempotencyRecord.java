@@ -0,0 +1,72 @@
+package com.example.salon_booking.models;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header
+ * Keyed by scope and client key, so a retry is answered from one _id lookup.
+ * Records are removed by a TTL index once expiresAt has passed.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    /**
+     * Scope and client key, e.g. "create-appointment:3f2c..."
+     */
+    @Id
+    private String id;
+    
+    /**
+     * SHA-256 of the request body; a key may only be reused with the same body
+     */
+    private String requestHash;
+    
+    /**
+     * Token of the request that currently owns the key; completing or giving
+     * up the key only succeeds for the owner
+     */
+    private String owner;
+    
+    /**
+     * Id of the resource the request creates, chosen before it runs, so a
+     * retry taking over a stale claim can find out whether it was created
+     */
+    private String resourceId;
+    
+    /**
+     * False while the first request is still running
+     */
+    private boolean completed;
+    
+    /**
+     * Response body of the first request as JSON (set once completed)
+     */
+    private String responseBody;
+    
+    /**
+     * When the first request started (or a stale one was taken over)
+     */
+    private LocalDateTime startedAt;
+    
+    /**
+     * When MongoDB may delete the record
+     */
+    @Indexed(name = "idempotency_expiry_ttl_idx", expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -3,6 +3,7 @@ package com.example.salon_booking.models;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -51,7 +52,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Document(collection = "reviews")
 @CompoundIndexes({
-    @CompoundIndex(name = "salon_date_idx", def = "{'salon': 1, 'reviewDate': -1}"),
+    @CompoundIndex(name = "salon_date_seek_idx", def = "{'salon': 1, 'reviewDate': -1, '_id': -1}"),
     @CompoundIndex(name = "salon_user_unique_idx", def = "{'salon': 1, 'user': 1}", unique = true, sparse = true)
 })
 public class Review {
@@ -62,6 +63,12 @@ public class Review {
     @Id
     private String id;
     
+    /**
+     * Optimistic locking version, incremented by every write
+     */
+    @Version
+    private Long version;
+    
     /**
      * Reference to the salon being reviewed
      * Required field - every review must be associated with a salon
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "salons")
@@ -33,9 +34,8 @@ public class Salon {
 
     private String manager; // manager ID or name
 
-    private List<String> bookings = new ArrayList<>(); // list of booking IDs
-
-    private List<String> slotsBooked = new ArrayList<>(); // list of booked slot IDs or timestamps
+    // Bookings and booked slots are not embedded: they grow without bound and
+    // are queried from the appointments and time_slots collections by salon
 
     // ==================== RATING CACHE FIELDS ====================
     // These fields are updated automatically when reviews are added/modified
@@ -55,6 +55,13 @@ public class Salon {
      */
     private Long totalReviews = 0L;
 
+    /**
+     * Optimistic locking version, incremented by every write
+     * An update that sends the version it read is rejected if the salon changed since
+     */
+    @Version
+    private Long version;
+
     // Getters and Setters
 
     public String getId() {
@@ -177,22 +184,6 @@ public class Salon {
         this.manager = manager;
     }
 
-    public List<String> getBookings() {
-        return bookings;
-    }
-
-    public void setBookings(List<String> bookings) {
-        this.bookings = bookings;
-    }
-
-    public List<String> getSlotsBooked() {
-        return slotsBooked;
-    }
-
-    public void setSlotsBooked(List<String> slotsBooked) {
-        this.slotsBooked = slotsBooked;
-    }
-
     public Double getAverageRating() {
         return averageRating;
     }
@@ -208,4 +199,12 @@ public class Salon {
     public void setTotalReviews(Long totalReviews) {
         this.totalReviews = totalReviews;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,93 @@
+package com.example.salon_booking.models;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running rating totals for one salon
+ * Maintained with atomic $inc on every change to a visible review, so rating
+ * summaries and the salon rating cache never need to rescan reviews.
+ * Only visible reviews are counted.
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Document(collection = "salon_rating_aggregates")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalonRatingAggregate {
+    
+    /**
+     * ID of the salon (one aggregate per salon)
+     */
+    @Id
+    private String salonId;
+    
+    /**
+     * Number of visible reviews
+     */
+    @Builder.Default
+    private Long reviewCount = 0L;
+    
+    /**
+     * Sum of the ratings of visible reviews
+     */
+    @Builder.Default
+    private Long ratingSum = 0L;
+    
+    // ==================== DISTRIBUTION ====================
+    
+    @Builder.Default
+    private Long oneStar = 0L;
+    
+    @Builder.Default
+    private Long twoStars = 0L;
+    
+    @Builder.Default
+    private Long threeStars = 0L;
+    
+    @Builder.Default
+    private Long fourStars = 0L;
+    
+    @Builder.Default
+    private Long fiveStars = 0L;
+    
+    /**
+     * Last time the aggregate changed
+     */
+    private LocalDateTime updatedAt;
+    
+    /**
+     * Field holding the count for a star rating
+     * @param rating Rating 1-5
+     * @return Field name
+     */
+    public static String starField(int rating) {
+        return switch (rating) {
+            case 1 -> "oneStar";
+            case 2 -> "twoStars";
+            case 3 -> "threeStars";
+            case 4 -> "fourStars";
+            case 5 -> "fiveStars";
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5: " + rating);
+        };
+    }
+    
+    /**
+     * Average rating rounded to one decimal, 0.0 without reviews
+     */
+    public double getAverageRating() {
+        return reviewCount != null && reviewCount > 0
+                ? Math.round(ratingSum * 10.0 / reviewCount) / 10.0
+                : 0.0;
+    }
+}
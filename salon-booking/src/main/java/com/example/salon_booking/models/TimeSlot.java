@@ -1,6 +1,7 @@
 package com.example.salon_booking.models;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 import org.springframework.data.annotation.Id;
@@ -59,6 +60,17 @@ public class TimeSlot {
     @Builder.Default
     private Boolean isAvailable = true;
     
+    /**
+     * Token of the reservation currently holding this slot
+     * Set by the atomic claim in SlotReservationService, cleared on release
+     */
+    private String reservationToken;
+    
+    /**
+     * Timestamp when the slot was last claimed
+     */
+    private LocalDateTime reservedAt;
+    
     /**
      * Reference to the salon this slot belongs to
      */
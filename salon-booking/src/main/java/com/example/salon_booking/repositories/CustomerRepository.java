@@ -3,9 +3,13 @@ package com.example.salon_booking.repositories;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.salon_booking.dto.CustomerEmailGroup;
 import com.example.salon_booking.models.Customer;
 
 /**
@@ -19,17 +23,19 @@ import com.example.salon_booking.models.Customer;
 public interface CustomerRepository extends MongoRepository<Customer, String> {
     
     /**
-     * Find customer by email address
+     * Find customer by email address (case-insensitive)
      * @param email Customer's email
      * @return Optional containing customer if found
      */
+    @Query(value = "{ 'email': ?0 }", collation = Customer.EMAIL_COLLATION)
     Optional<Customer> findByEmail(String email);
     
     /**
-     * Check if customer exists with given email
+     * Check if customer exists with given email (case-insensitive)
      * @param email Email to check
      * @return true if customer exists
      */
+    @Query(value = "{ 'email': ?0 }", exists = true, collation = Customer.EMAIL_COLLATION)
     Boolean existsByEmail(String email);
     
     /**
@@ -45,4 +51,26 @@ public interface CustomerRepository extends MongoRepository<Customer, String> {
      * @return Optional containing customer if found
      */
     Optional<Customer> findByPhone(String phone);
+    
+    /**
+     * Find customers whose email is not normalized or is shared, once
+     * normalized, with other customers
+     * @return One group per normalized email, customers oldest first
+     */
+    @Meta(allowDiskUse = true)
+    @Aggregation(pipeline = {
+        "{ '$match': { 'email': { '$type': 'string' } } }",
+        "{ '$sort': { 'createdAt': 1, '_id': 1 } }",
+        "{ '$group': { " +
+        "  '_id': { '$toLower': { '$trim': { 'input': '$email' } } }, " +
+        "  'customerIds': { '$push': '$_id' }, " +
+        "  'storedEmails': { '$push': '$email' } " +
+        "} }",
+        "{ '$match': { '$expr': { '$or': [ " +
+        "  { '$gt': [ { '$size': '$customerIds' }, 1 ] }, " +
+        "  { '$ne': [ { '$arrayElemAt': [ '$storedEmails', 0 ] }, '$_id' ] } " +
+        "] } } }",
+        "{ '$project': { '_id': 0, 'email': '$_id', 'customerIds': 1, 'storedEmails': 1 } }"
+    })
+    List<CustomerEmailGroup> findEmailGroupsToNormalize();
 }
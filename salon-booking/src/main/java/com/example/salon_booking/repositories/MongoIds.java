@@ -0,0 +1,47 @@
+package com.example.salon_booking.repositories;
+
+import org.bson.types.ObjectId;
+
+import com.mongodb.DBRef;
+
+/**
+ * Helpers for building queries against @DBRef fields
+ * Referenced ids are stored as ObjectId when they look like one (e.g. generated ids)
+ * and as plain strings otherwise (e.g. "salon1" from the data initializer)
+ * 
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public final class MongoIds {
+
+    private MongoIds() {
+    }
+
+    /**
+     * Convert an entity id to the value stored in a DBRef's $id
+     * @param id Entity ID
+     * @return ObjectId if the id is a valid hex ObjectId, otherwise the id itself
+     */
+    public static Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Build a DBRef matching the stored reference to an entity
+     * @param collection Referenced collection name
+     * @param id Entity ID
+     * @return DBRef usable in equality queries
+     */
+    public static DBRef dbRef(String collection, String id) {
+        return new DBRef(collection, toStoredId(id));
+    }
+
+    /**
+     * Read the referenced entity id from a DBRef
+     * @param ref DBRef (nullable)
+     * @return Referenced id as string, or null
+     */
+    public static String idOf(DBRef ref) {
+        return ref != null ? ref.getId().toString() : null;
+    }
+}
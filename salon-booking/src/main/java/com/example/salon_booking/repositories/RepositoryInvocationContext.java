@@ -0,0 +1,52 @@
+package com.example.salon_booking.repositories;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Name of the repository method running on the current thread
+ * Set by an interceptor added to every repository proxy, so a Mongo command
+ * listener (which runs on the calling thread) can attribute a command to e.g.
+ * "AppointmentRepository.findByConfirmationCode". Commands issued through
+ * MongoTemplate directly have no repository method.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+public final class RepositoryInvocationContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryInvocationContext() {
+    }
+
+    /**
+     * @return Repository method being invoked on this thread, or null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Interceptor for the proxy of one repository interface
+     * @param repositoryInterface Repository interface
+     * @return Interceptor recording the invoked method for the duration of the call
+     */
+    public static MethodInterceptor interceptorFor(Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return (MethodInvocation invocation) -> {
+            String outer = CURRENT.get();
+            CURRENT.set(repository + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                // Restore the outer method (a default method calling another query method)
+                if (outer == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(outer);
+                }
+            }
+        };
+    }
+}
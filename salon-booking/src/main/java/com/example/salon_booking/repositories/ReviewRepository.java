@@ -240,7 +240,7 @@ public interface ReviewRepository extends MongoRepository<Review, String> {
      *   <li>Project into distribution format</li>
      * </ol>
      * 
-     * @param salonId Salon ID
+     * @param salonId Salon ID as stored in the DBRef (see MongoIds.toStoredId)
      * @return RatingStatisticsDTO with full distribution
      */
     @Aggregation(pipeline = {
@@ -305,7 +305,7 @@ public interface ReviewRepository extends MongoRepository<Review, String> {
         "    }" +
         "} }"
     })
-    Optional<RatingStatisticsDTO> getRatingDistribution(String salonId);
+    Optional<RatingStatisticsDTO> getRatingDistribution(Object salonId);
     
     // ==================== CUSTOM QUERIES ====================
     
@@ -0,0 +1,208 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.repositories.MongoIds;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class for streaming appointment exports
+ * Appointments are read from a Mongo cursor, converted chunk by chunk and written
+ * to the response as they arrive, so memory use does not grow with the export size.
+ * Supports a JSON array, newline-delimited JSON and CSV.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentExportService {
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "id", "confirmationCode", "status", "appointmentDate", "startTime", "endTime",
+            "customerName", "customerEmail", "customerPhone", "serviceName",
+            "salonName", "assignedStaff", "bookingDate", "notes", "cancellationReason");
+
+    /**
+     * First characters that make a spreadsheet read a field as a formula
+     */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final AppointmentListAssembler appointmentListAssembler;
+    private final ObjectMapper objectMapper;
+
+    @Value("${salon.export.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Export formats
+     */
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON, "json"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Query for all appointments, oldest booking first
+     */
+    public Query allAppointments() {
+        return new Query().with(Sort.by(Sort.Direction.ASC, "bookingDate"));
+    }
+
+    /**
+     * Query for a salon's appointments, oldest booking first
+     * @param salonId Salon ID
+     */
+    public Query salonAppointments(String salonId) {
+        return new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salonId)))
+                .with(Sort.by(Sort.Direction.ASC, "bookingDate"));
+    }
+
+    /**
+     * Query for appointments in a status, oldest booking first
+     * @param status Appointment status
+     */
+    public Query appointmentsByStatus(AppointmentStatus status) {
+        return new Query(Criteria.where("status").is(status))
+                .with(Sort.by(Sort.Direction.ASC, "bookingDate"));
+    }
+
+    // ==================== EXPORT ====================
+
+    /**
+     * Stream the appointments matching a query to an output stream
+     * @param query Appointment query
+     * @param format Output format
+     * @param out Response body stream (not closed)
+     */
+    public void export(Query query, Format format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long count;
+        try {
+            count = switch (format) {
+                case JSON -> writeJsonArray(query, out);
+                case NDJSON -> writeNdjson(query, out);
+                case CSV -> writeCsv(query, out);
+            };
+        } catch (UncheckedIOException e) {
+            // Client went away or the connection broke mid-export
+            throw e.getCause();
+        }
+        log.info("Exported {} appointments as {} in {} ms", count, format, System.currentTimeMillis() - started);
+    }
+
+    private long writeJsonArray(Query query, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        long count = appointmentListAssembler.streamResponseDTOs(query, chunkSize, chunk -> {
+            try {
+                for (AppointmentResponseDTO dto : chunk) {
+                    objectMapper.writeValue(generator, dto);
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        generator.close();
+        return count;
+    }
+
+    private long writeNdjson(Query query, OutputStream out) {
+        return appointmentListAssembler.streamResponseDTOs(query, chunkSize, chunk -> {
+            try {
+                for (AppointmentResponseDTO dto : chunk) {
+                    out.write(objectMapper.writeValueAsBytes(dto));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private long writeCsv(Query query, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        long count = appointmentListAssembler.streamResponseDTOs(query, chunkSize, chunk -> {
+            try {
+                for (AppointmentResponseDTO dto : chunk) {
+                    writer.write(csvRow(dto));
+                    writer.write("\r\n");
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return count;
+    }
+
+    private String csvRow(AppointmentResponseDTO dto) {
+        return Stream.of(dto.getId(), dto.getConfirmationCode(), dto.getStatus(),
+                        dto.getAppointmentDate(), dto.getStartTime(), dto.getEndTime(),
+                        dto.getCustomerName(), dto.getCustomerEmail(), dto.getCustomerPhone(),
+                        dto.getServiceName(), dto.getSalonName(), dto.getAssignedStaff(),
+                        dto.getBookingDate(), dto.getNotes(), dto.getCancellationReason())
+                .map(value -> csvField(Objects.toString(value, "")))
+                .collect(Collectors.joining(","));
+    }
+
+    private String csvField(String value) {
+        if (value.isEmpty()) {
+            return value;
+        }
+        // Quote fields with separators and neutralise spreadsheet formulas: a
+        // leading =, +, -, @, tab or carriage return starts one in Excel
+        String escaped = FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (escaped.contains(",") || escaped.contains("\"") || escaped.contains("\n") || escaped.contains("\r")) {
+            return "\"" + escaped.replace("\"", "\"\"") + "\"";
+        }
+        return escaped;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.TimeSlotRefResult;
+import com.example.salon_booking.models.AppointmentSnapshot;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.repositories.MongoIds;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class for assembling appointment lists
+ * Loads appointments with their references left unresolved. Appointments that
+ * carry an embedded snapshot are converted directly; for the rest the referenced
+ * ids are collected per collection and each collection is fetched once with $in,
+ * so a list costs at most five queries regardless of its size instead of four
+ * extra document reads per appointment.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentListAssembler {
+
+    private static final String APPOINTMENTS = "appointments";
+    private static final String CUSTOMERS = "customers";
+    private static final String SERVICES = "services";
+    private static final String TIME_SLOTS = "time_slots";
+    private static final String SALONS = "salons";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Load appointments matching a query and convert them to response DTOs
+     * @param query Appointment query (criteria, sort and paging)
+     * @return Response DTOs in query order
+     */
+    public List<AppointmentResponseDTO> findResponseDTOs(Query query) {
+        List<AppointmentRefResult> rows = mongoTemplate.find(withListFields(query), AppointmentRefResult.class, APPOINTMENTS);
+        log.debug("Assembling {} appointments", rows.size());
+        return assemble(rows);
+    }
+
+    /**
+     * Read appointments matching a query from a cursor and hand them over chunk by chunk
+     * Only one chunk of rows and DTOs is held in memory at a time.
+     * @param query Appointment query (criteria and sort)
+     * @param chunkSize Number of appointments per chunk
+     * @param consumer Receives each converted chunk in query order
+     * @return Number of appointments streamed
+     */
+    public long streamResponseDTOs(Query query, int chunkSize, Consumer<List<AppointmentResponseDTO>> consumer) {
+        withListFields(query).cursorBatchSize(chunkSize);
+        long count = 0;
+        try (Stream<AppointmentRefResult> stream = mongoTemplate.stream(query, AppointmentRefResult.class, APPOINTMENTS)) {
+            Iterator<AppointmentRefResult> rows = stream.iterator();
+            List<AppointmentRefResult> chunk = new ArrayList<>(chunkSize);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == chunkSize || !rows.hasNext()) {
+                    consumer.accept(assemble(chunk));
+                    count += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Convert a batch of appointment rows to response DTOs
+     * Rows with a snapshot need no further reads; the others are resolved together.
+     * @param rows Appointment rows with unresolved references
+     * @return Response DTOs in row order
+     */
+    public List<AppointmentResponseDTO> assemble(List<AppointmentRefResult> rows) {
+        List<AppointmentRefResult> unresolved = rows.stream()
+                .filter(row -> row.getSnapshot() == null)
+                .collect(Collectors.toList());
+        Map<String, AppointmentResponseDTO> resolved = assembleFromReferences(unresolved).stream()
+                .collect(Collectors.toMap(AppointmentResponseDTO::getId, Function.identity()));
+
+        return rows.stream()
+                .map(row -> row.getSnapshot() != null ? fromSnapshot(row) : resolved.get(row.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Convert a batch of appointment rows to response DTOs from the referenced documents,
+     * ignoring any snapshot. Each referenced collection is read once for the whole batch.
+     * @param rows Appointment rows with unresolved references
+     * @return Response DTOs in row order
+     */
+    public List<AppointmentResponseDTO> assembleFromReferences(List<AppointmentRefResult> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Customer> customers = fetch(rows, AppointmentRefResult::getCustomer,
+                Customer.class, CUSTOMERS, Customer::getId, "name", "email", "phone");
+        Map<String, com.example.salon_booking.models.Service> services = fetch(rows, AppointmentRefResult::getService,
+                com.example.salon_booking.models.Service.class, SERVICES,
+                com.example.salon_booking.models.Service::getId, "name");
+        Map<String, TimeSlotRefResult> timeSlots = fetch(rows, AppointmentRefResult::getTimeSlot,
+                TimeSlotRefResult.class, TIME_SLOTS, TimeSlotRefResult::getId, "date", "startTime", "endTime");
+        Map<String, Salon> salons = fetch(rows, AppointmentRefResult::getSalon,
+                Salon.class, SALONS, Salon::getId, "name", "address", "phone");
+
+        return rows.stream()
+                .map(row -> toResponseDTO(row, customers, services, timeSlots, salons))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Restrict a query to the fields needed for AppointmentRefResult rows
+     * @param query Appointment query
+     * @return The same query
+     */
+    Query withListFields(Query query) {
+        query.fields().include("appointmentNumber", "confirmationCode", "status", "bookingDate", "updatedAt",
+                "customerNotes", "assignedStaff", "cancellationReason",
+                "customer", "service", "timeSlot", "salon", "snapshot");
+        return query;
+    }
+
+    private AppointmentResponseDTO fromSnapshot(AppointmentRefResult row) {
+        AppointmentSnapshot snapshot = row.getSnapshot();
+        return baseDTO(row)
+                .customerName(snapshot.getCustomerName())
+                .customerEmail(snapshot.getCustomerEmail())
+                .customerPhone(snapshot.getCustomerPhone())
+                .serviceName(snapshot.getServiceName())
+                .appointmentDate(snapshot.getAppointmentDate())
+                .startTime(snapshot.getStartTime())
+                .endTime(snapshot.getEndTime())
+                .salonName(snapshot.getSalonName())
+                .salonAddress(snapshot.getSalonAddress())
+                .salonPhone(snapshot.getSalonPhone())
+                .build();
+    }
+
+    private AppointmentResponseDTO toResponseDTO(AppointmentRefResult row,
+                                                 Map<String, Customer> customers,
+                                                 Map<String, com.example.salon_booking.models.Service> services,
+                                                 Map<String, TimeSlotRefResult> timeSlots,
+                                                 Map<String, Salon> salons) {
+        AppointmentResponseDTO.AppointmentResponseDTOBuilder dto = baseDTO(row);
+
+        // A reference to a deleted document leaves its fields empty
+        Customer customer = customers.get(MongoIds.idOf(row.getCustomer()));
+        if (customer != null) {
+            dto.customerName(customer.getName())
+                    .customerEmail(customer.getEmail())
+                    .customerPhone(customer.getPhone());
+        }
+        com.example.salon_booking.models.Service service = services.get(MongoIds.idOf(row.getService()));
+        if (service != null) {
+            dto.serviceName(service.getName());
+        }
+        TimeSlotRefResult timeSlot = timeSlots.get(MongoIds.idOf(row.getTimeSlot()));
+        if (timeSlot != null) {
+            dto.appointmentDate(timeSlot.getDate())
+                    .startTime(timeSlot.getStartTime())
+                    .endTime(timeSlot.getEndTime());
+        }
+        Salon salon = salons.get(MongoIds.idOf(row.getSalon()));
+        if (salon != null) {
+            dto.salonName(salon.getName())
+                    .salonAddress(salon.getAddress())
+                    .salonPhone(salon.getPhone());
+        }
+        return dto.build();
+    }
+
+    private AppointmentResponseDTO.AppointmentResponseDTOBuilder baseDTO(AppointmentRefResult row) {
+        return AppointmentResponseDTO.builder()
+                .id(row.getId())
+                .appointmentNumber(row.getAppointmentNumber())
+                .confirmationCode(row.getConfirmationCode())
+                .customerId(MongoIds.idOf(row.getCustomer()))
+                .serviceId(MongoIds.idOf(row.getService()))
+                .timeSlotId(MongoIds.idOf(row.getTimeSlot()))
+                .salonId(MongoIds.idOf(row.getSalon()))
+                .status(row.getStatus())
+                .bookingDate(row.getBookingDate())
+                .lastModifiedDate(row.getUpdatedAt())
+                .notes(row.getCustomerNotes())
+                .assignedStaff(row.getAssignedStaff())
+                .cancellationReason(row.getCancellationReason());
+    }
+
+    /**
+     * Fetch all documents referenced by one DBRef field of the rows in a single query
+     */
+    private <T> Map<String, T> fetch(List<AppointmentRefResult> rows, Function<AppointmentRefResult, DBRef> ref,
+                                     Class<T> type, String collection, Function<T, String> idGetter,
+                                     String... fields) {
+        // Stored ids are kept as-is, so ObjectId and string ids both match
+        Set<Object> ids = rows.stream()
+                .map(ref)
+                .filter(Objects::nonNull)
+                .map(DBRef::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include(fields);
+        return mongoTemplate.find(query, type, collection).stream()
+                .collect(Collectors.toMap(idGetter, Function.identity(), (first, second) -> first));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.models.Counter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class for allocating appointment numbers (APT00001, APT00002, ...)
+ * Numbers are leased in blocks: one upserting $inc on the counters collection
+ * reserves the next block for this instance, and numbers are then handed out
+ * from memory. Booking only waits for a round trip when a block runs out.
+ *
+ * Blocks never overlap, so numbers are unique across instances. They are not
+ * gap-free: numbers left in a block when an instance stops are never used,
+ * and with several instances numbers are not in booking order.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentNumberAllocator {
+
+    static final String SEQUENCE = "appointmentNumber";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${salon.appointments.number.block-size:1000}")
+    private long blockSize;
+
+    /**
+     * Next number to hand out and the last number of the current block
+     * (next > last means no block is leased)
+     */
+    private long next = 1;
+    private long last = 0;
+
+    /**
+     * Allocate the next appointment number
+     * @return Appointment number, e.g. APT00042
+     */
+    public String next() {
+        return format(nextValue());
+    }
+
+    synchronized long nextValue() {
+        if (next > last) {
+            lease();
+        }
+        return next++;
+    }
+
+    private void lease() {
+        Counter counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(SEQUENCE)),
+                new Update().inc("seq", blockSize),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Counter.class);
+        last = counter.getSeq();
+        next = last - blockSize + 1;
+        log.info("Leased appointment numbers {} to {}", format(next), format(last));
+    }
+
+    static String format(long value) {
+        return String.format("APT%05d", value);
+    }
+}
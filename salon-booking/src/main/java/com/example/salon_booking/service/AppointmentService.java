@@ -1,29 +1,53 @@
 package com.example.salon_booking.service;
 
+import com.example.salon_booking.dto.AppointmentBatchItemDTO;
+import com.example.salon_booking.dto.AppointmentBatchItemResult;
+import com.example.salon_booking.dto.AppointmentBatchRequestDTO;
+import com.example.salon_booking.dto.AppointmentBatchResultDTO;
+import com.example.salon_booking.dto.AppointmentRefResult;
 import com.example.salon_booking.dto.AppointmentRequestDTO;
 import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.BulkTransitionResult;
 import com.example.salon_booking.dto.CustomerDTO;
-import com.example.salon_booking.exception.DoubleBookingException;
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.exception.InvalidAppointmentException;
+import com.example.salon_booking.exception.InvalidStateTransitionException;
 import com.example.salon_booking.exception.ResourceNotFoundException;
 import com.example.salon_booking.exception.TimeSlotNotAvailableException;
 import com.example.salon_booking.models.*;
 import com.example.salon_booking.repositories.AppointmentRepository;
-import com.example.salon_booking.repositories.SalonRepository;
+import com.example.salon_booking.repositories.MongoIds;
 import com.example.salon_booking.repositories.ServiceRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing appointment operations
- * Handles appointment booking, cancellation, and rescheduling with transaction management
+ * Handles appointment booking, cancellation, and rescheduling
+ * Slot claims go through SlotReservationService so concurrent bookings cannot double-book
+ * Appointments are versioned; the one read-modify-save path (reschedule) retries on conflict
  * 
  * @author Salon Booking System
  * @version 1.0
@@ -35,197 +59,347 @@ public class AppointmentService {
     
     private final AppointmentRepository appointmentRepository;
     private final CustomerService customerService;
-    private final TimeSlotService timeSlotService;
-    private final SalonRepository salonRepository;
+    private final SlotReservationService slotReservationService;
+    private final SalonCatalogService salonCatalogService;
     private final ServiceRepository serviceRepository;
+    private final AppointmentListAssembler appointmentListAssembler;
+    private final AppointmentSnapshotService appointmentSnapshotService;
+    private final KeysetPaginationService keysetPaginationService;
+    private final AppointmentTransitionExecutor appointmentTransitionExecutor;
+    private final OptimisticRetry optimisticRetry;
+    private final ConfirmationCodeGenerator confirmationCodeGenerator;
+    private final ConfirmationCodePool confirmationCodePool;
+    private final AppointmentNumberAllocator appointmentNumberAllocator;
+    private final BookingMetrics bookingMetrics;
+    
+    @Value("${salon.appointments.batch.max-items:500}")
+    private int maxBatchItems;
     
     /**
      * Create a new appointment
-     * This method handles the entire booking flow with transaction management
+     * The time slot is claimed first with a single atomic write, which replaces the
+     * separate availability check, double-booking check and slot update.
+     * If any later step fails the claim is released again.
+     * The booking and each of its steps are timed (see BookingMetrics).
      * 
      * @param request Appointment request data
      * @return Created appointment
-     * @throws TimeSlotNotAvailableException if time slot is not available
-     * @throws DoubleBookingException if time slot is already booked
+     * @throws TimeSlotNotAvailableException if time slot is not available or already booked
      */
     @Transactional
     public Appointment createAppointment(AppointmentRequestDTO request) {
+        return createAppointment(request, null);
+    }
+    
+    /**
+     * Create a new appointment with a given id
+     * Used when the id must be known before booking (idempotent retries look
+     * the appointment up by it). Saving a second appointment with the same id
+     * fails on the unique _id.
+     * 
+     * @param request Appointment request data
+     * @param appointmentId Id for the new appointment (null to generate one)
+     * @return Created appointment
+     * @throws TimeSlotNotAvailableException if time slot is not available or already booked
+     */
+    @Transactional
+    public Appointment createAppointment(AppointmentRequestDTO request, String appointmentId) {
         log.info("Creating appointment for customer: {} at salon: {}", 
                 request.getCustomerEmail(), request.getSalonId());
         
-        // 1. Verify time slot is available
-        timeSlotService.verifySlotAvailability(request.getTimeSlotId());
-        
-        // 2. Check for double booking
-        Boolean isBooked = appointmentRepository.existsByTimeSlotIdAndStatusNot(
-                request.getTimeSlotId(), AppointmentStatus.CANCELLED);
-        if (isBooked) {
-            throw new DoubleBookingException("This time slot is already booked");
+        Timer.Sample booking = bookingMetrics.start();
+        try {
+            Appointment savedAppointment = book(request, appointmentId);
+            bookingMetrics.stop(booking, request.getSalonId(), null);
+            return savedAppointment;
+        } catch (RuntimeException e) {
+            bookingMetrics.stop(booking, request.getSalonId(), e);
+            throw e;
         }
+    }
+    
+    private Appointment book(AppointmentRequestDTO request, String appointmentId) {
+        String salonId = request.getSalonId();
         
-        // 3. Get or create customer
-        CustomerDTO customerDTO = CustomerDTO.builder()
-                .name(request.getCustomerName())
-                .email(request.getCustomerEmail())
-                .phone(request.getCustomerPhone())
-                .preferredContact(request.getPreferredContact())
-                .build();
-        Customer customer = customerService.createOrGetCustomer(customerDTO);
-        
-        // 4. Fetch related entities
-        TimeSlot timeSlot = timeSlotService.getTimeSlotById(request.getTimeSlotId());
-        Salon salon = salonRepository.findById(request.getSalonId())
-                .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + request.getSalonId()));
-        com.example.salon_booking.models.Service service = serviceRepository.findById(request.getServiceId())
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + request.getServiceId()));
-        
-        // 5. Generate confirmation code
-        String confirmationCode = generateConfirmationCode();
-        
-        // 6. Create appointment
-        Appointment appointment = Appointment.builder()
-                .customer(customer)
-                .service(service)
-                .timeSlot(timeSlot)
-                .salon(salon)
-                .bookingDate(LocalDateTime.now())
-                .status(AppointmentStatus.PENDING)
-                .customerNotes(request.getNotes())
-                .confirmationCode(confirmationCode)
-                .build();
-        
-        // 7. Save appointment
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-        
-        // 8. Mark time slot as unavailable
-        timeSlotService.markSlotAsUnavailable(request.getTimeSlotId());
+        // 1. Look up the salon (cached); this also decides the salon tag of every step
+        Salon salon = bookingMetrics.salonFetch(salonId, () -> salonCatalogService.getSalon(salonId));
         
-        log.info("Created appointment with ID: {} and confirmation code: {}", 
-                savedAppointment.getId(), confirmationCode);
+        // 2. Claim the time slot (fails fast if it is taken)
+        TimeSlot timeSlot = bookingMetrics.step("slot_reserve", salonId,
+                () -> slotReservationService.reserve(request.getTimeSlotId()));
         
-        return savedAppointment;
+        try {
+            // 3. Get or create customer
+            CustomerDTO customerDTO = CustomerDTO.builder()
+                    .name(request.getCustomerName())
+                    .email(request.getCustomerEmail())
+                    .phone(request.getCustomerPhone())
+                    .preferredContact(request.getPreferredContact())
+                    .build();
+            Customer customer = bookingMetrics.step("customer_upsert", salonId,
+                    () -> customerService.createOrGetCustomer(customerDTO));
+            
+            // 4. Fetch the service
+            com.example.salon_booking.models.Service service = bookingMetrics.step("service_fetch", salonId,
+                    () -> serviceRepository.findById(request.getServiceId())
+                            .orElseThrow(() -> new ResourceNotFoundException(
+                                    "Service not found with id: " + request.getServiceId())));
+            
+            // 5. Take a pre-generated confirmation code and the next appointment number
+            String confirmationCode = bookingMetrics.step("confirmation_code", salonId, confirmationCodePool::take);
+            String appointmentNumber = bookingMetrics.step("appointment_number", salonId,
+                    appointmentNumberAllocator::next);
+            
+            // 6. Create appointment
+            Appointment appointment = Appointment.builder()
+                    .id(appointmentId)
+                    .appointmentNumber(appointmentNumber)
+                    .customer(customer)
+                    .service(service)
+                    .timeSlot(timeSlot)
+                    .salon(salon)
+                    .bookingDate(LocalDateTime.now())
+                    .status(AppointmentStatus.PENDING)
+                    .customerNotes(request.getNotes())
+                    .confirmationCode(confirmationCode)
+                    .snapshot(appointmentSnapshotService.snapshotOf(customer, service, timeSlot, salon))
+                    .build();
+            
+            // 7. Save appointment
+            Appointment savedAppointment = bookingMetrics.step("save", salonId,
+                    () -> appointmentRepository.save(appointment));
+            
+            log.info("Created appointment {} with ID: {} and confirmation code: {}", 
+                    savedAppointment.getAppointmentNumber(), savedAppointment.getId(), confirmationCode);
+            
+            return savedAppointment;
+        } catch (RuntimeException e) {
+            bookingMetrics.step("slot_release", salonId,
+                    () -> slotReservationService.release(timeSlot.getId(), timeSlot.getReservationToken()));
+            throw e;
+        }
     }
     
     /**
      * Cancel an appointment
-     * Frees up the time slot for other bookings
+     * Frees up the time slot for other bookings. A single guarded update: only
+     * a PENDING or CONFIRMED appointment is cancelled, so concurrent cancels or
+     * a cancel racing a completion cannot both win.
      * 
      * @param appointmentId Appointment ID
      * @param reason Cancellation reason
      * @return Updated appointment
-     * @throws InvalidAppointmentException if appointment cannot be cancelled
+     * @throws ResourceNotFoundException if appointment not found
+     * @throws InvalidStateTransitionException if appointment cannot be cancelled
      */
-    @Transactional
-    public Appointment cancelAppointment(String appointmentId, String reason) {
+    public AppointmentResponseDTO cancelAppointment(String appointmentId, String reason) {
         log.info("Cancelling appointment: {}", appointmentId);
         
-        Appointment appointment = getAppointmentById(appointmentId);
-        
-        // Check if appointment can be cancelled
-        if (!appointment.isCancellable()) {
-            throw new InvalidAppointmentException(
-                    "Appointment with status " + appointment.getStatus() + " cannot be cancelled");
-        }
-        
-        // Update appointment status
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        appointment.setCancellationReason(reason);
-        appointment.setCancelledAt(LocalDateTime.now());
-        
-        Appointment updated = appointmentRepository.save(appointment);
+        AppointmentRefResult cancelled = appointmentTransitionExecutor.apply(appointmentId,
+                AppointmentTransition.CANCEL, new Update().set("cancellationReason", reason));
         
         // Free up the time slot
-        timeSlotService.markSlotAsAvailable(appointment.getTimeSlot().getId());
+        if (cancelled.getTimeSlot() != null) {
+            slotReservationService.release(MongoIds.idOf(cancelled.getTimeSlot()));
+        }
         
         log.info("Cancelled appointment: {}", appointmentId);
-        return updated;
+        return appointmentListAssembler.assemble(List.of(cancelled)).get(0);
     }
     
     /**
      * Reschedule an appointment to a new time slot
+     * The new slot is claimed once; moving the appointment onto it is a versioned
+     * save. If a concurrent write (cancel, confirm, another reschedule) wins, the
+     * appointment is re-read and the move retried on the new version, so a cancel
+     * is never overwritten. The slot released is the one held by the version that
+     * was actually replaced.
      * 
      * @param appointmentId Appointment ID
      * @param newTimeSlotId New time slot ID
      * @return Updated appointment
      * @throws InvalidAppointmentException if appointment cannot be rescheduled
-     * @throws TimeSlotNotAvailableException if new time slot is not available
+     * @throws TimeSlotNotAvailableException if new time slot is not available or already booked
+     * @throws OptimisticLockingFailureException if every attempt lost to a concurrent write
      */
     @Transactional
     public Appointment rescheduleAppointment(String appointmentId, String newTimeSlotId) {
         log.info("Rescheduling appointment {} to time slot {}", appointmentId, newTimeSlotId);
         
-        Appointment appointment = getAppointmentById(appointmentId);
+        // Check before claiming anything; the first attempt reuses this read
+        AtomicReference<Appointment> firstRead = new AtomicReference<>(getAppointmentById(appointmentId));
+        ensureReschedulable(firstRead.get());
         
-        // Check if appointment can be rescheduled
-        if (!appointment.isReschedulable()) {
-            throw new InvalidAppointmentException(
-                    "Appointment with status " + appointment.getStatus() + " cannot be rescheduled");
-        }
-        
-        // Verify new time slot is available
-        timeSlotService.verifySlotAvailability(newTimeSlotId);
+        // Claim the new time slot before letting go of the old one
+        TimeSlot newTimeSlot = slotReservationService.reserve(newTimeSlotId);
+        AtomicReference<String> oldTimeSlotId = new AtomicReference<>();
         
-        // Check for double booking on new slot
-        Boolean isBooked = appointmentRepository.existsByTimeSlotIdAndStatusNot(
-                newTimeSlotId, AppointmentStatus.CANCELLED);
-        if (isBooked) {
-            throw new DoubleBookingException("The new time slot is already booked");
+        Appointment updated;
+        try {
+            updated = optimisticRetry.run("Reschedule of appointment " + appointmentId, () -> {
+                Appointment appointment = firstRead.getAndSet(null);
+                if (appointment == null) {
+                    appointment = getAppointmentById(appointmentId);
+                    ensureReschedulable(appointment);
+                }
+                oldTimeSlotId.set(appointment.getTimeSlot().getId());
+                appointment.setTimeSlot(newTimeSlot);
+                appointment.setSnapshot(appointmentSnapshotService.snapshotOf(appointment));
+                // updatedAt is auto-updated by @LastModifiedDate
+                return appointmentRepository.save(appointment);
+            });
+        } catch (RuntimeException e) {
+            slotReservationService.release(newTimeSlotId, newTimeSlot.getReservationToken());
+            throw e;
         }
         
         // Free up old time slot
-        String oldTimeSlotId = appointment.getTimeSlot().getId();
-        timeSlotService.markSlotAsAvailable(oldTimeSlotId);
-        
-        // Get new time slot
-        TimeSlot newTimeSlot = timeSlotService.getTimeSlotById(newTimeSlotId);
-        
-        // Update appointment
-        appointment.setTimeSlot(newTimeSlot);
-        // updatedAt is auto-updated by @LastModifiedDate
-        
-        Appointment updated = appointmentRepository.save(appointment);
-        
-        // Mark new time slot as unavailable
-        timeSlotService.markSlotAsUnavailable(newTimeSlotId);
+        slotReservationService.release(oldTimeSlotId.get());
         
         log.info("Rescheduled appointment: {}", appointmentId);
         return updated;
     }
     
+    private void ensureReschedulable(Appointment appointment) {
+        if (!appointment.isReschedulable()) {
+            throw new InvalidAppointmentException(
+                    "Appointment with status " + appointment.getStatus() + " cannot be rescheduled");
+        }
+    }
+    
     /**
      * Confirm an appointment (change status to CONFIRMED)
+     * Only a PENDING appointment is confirmed; status and timestamp are set in place
      * 
      * @param appointmentId Appointment ID
      * @return Updated appointment
+     * @throws ResourceNotFoundException if appointment not found
+     * @throws InvalidStateTransitionException if appointment is not pending
      */
-    @Transactional
-    public Appointment confirmAppointment(String appointmentId) {
+    public AppointmentResponseDTO confirmAppointment(String appointmentId) {
         log.info("Confirming appointment: {}", appointmentId);
-        
-        Appointment appointment = getAppointmentById(appointmentId);
-        appointment.setStatus(AppointmentStatus.CONFIRMED);
-        appointment.setConfirmedAt(LocalDateTime.now());
-        // updatedAt is auto-updated by @LastModifiedDate
-        
-        return appointmentRepository.save(appointment);
+        return applyTransition(appointmentId, AppointmentTransition.CONFIRM);
     }
     
     /**
      * Complete an appointment (change status to COMPLETED)
+     * Only a CONFIRMED appointment is completed; status and timestamp are set in place
      * 
      * @param appointmentId Appointment ID
      * @return Updated appointment
+     * @throws ResourceNotFoundException if appointment not found
+     * @throws InvalidStateTransitionException if appointment is not confirmed
      */
-    @Transactional
-    public Appointment completeAppointment(String appointmentId) {
+    public AppointmentResponseDTO completeAppointment(String appointmentId) {
         log.info("Completing appointment: {}", appointmentId);
+        return applyTransition(appointmentId, AppointmentTransition.COMPLETE);
+    }
+    
+    /**
+     * Mark an appointment as a no-show (change status to NO_SHOW)
+     * Only a CONFIRMED appointment can be a no-show; the time slot stays consumed
+     * 
+     * @param appointmentId Appointment ID
+     * @return Updated appointment
+     * @throws ResourceNotFoundException if appointment not found
+     * @throws InvalidStateTransitionException if appointment is not confirmed
+     */
+    public AppointmentResponseDTO markNoShow(String appointmentId) {
+        log.info("Marking appointment as no-show: {}", appointmentId);
+        return applyTransition(appointmentId, AppointmentTransition.NO_SHOW);
+    }
+    
+    /**
+     * Apply a batch of status changes, e.g. a front desk closing out the day
+     * All transitions go out as one bulk write and the slots of the cancelled
+     * appointments are freed with one update. Items are independent: one that
+     * is not allowed (or not found) is reported in its result and does not stop
+     * the others.
+     * 
+     * @param request Batch of appointment IDs and transitions
+     * @return Per-item results in request order
+     * @throws InvalidAppointmentException if the batch is empty or too large, has an item
+     *         without an appointment ID or transition, or names an appointment twice
+     */
+    public AppointmentBatchResultDTO applyBatch(AppointmentBatchRequestDTO request) {
+        List<AppointmentBatchItemDTO> items = request.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new InvalidAppointmentException("At least one item is required");
+        }
+        log.info("Applying batch of {} appointment transitions", items.size());
+        if (items.size() > maxBatchItems) {
+            throw new InvalidAppointmentException(
+                    "A batch may contain at most " + maxBatchItems + " items, got " + items.size());
+        }
+        Set<String> seen = new HashSet<>();
+        for (AppointmentBatchItemDTO item : items) {
+            if (item == null || item.getAppointmentId() == null || item.getAppointmentId().isBlank()) {
+                throw new InvalidAppointmentException("Appointment ID is required for every item");
+            }
+            if (item.getTransition() == null) {
+                throw new InvalidAppointmentException(
+                        "Transition is required for appointment " + item.getAppointmentId());
+            }
+            if (!seen.add(item.getAppointmentId())) {
+                throw new InvalidAppointmentException(
+                        "Appointment " + item.getAppointmentId() + " appears more than once in the batch");
+            }
+        }
         
-        Appointment appointment = getAppointmentById(appointmentId);
-        appointment.setStatus(AppointmentStatus.COMPLETED);
-        appointment.setCompletedAt(LocalDateTime.now());
-        // updatedAt is auto-updated by @LastModifiedDate
+        BulkTransitionResult bulk = appointmentTransitionExecutor.applyAll(items);
+        Map<String, AppointmentRefResult> rows = bulk.getRows();
         
-        return appointmentRepository.save(appointment);
+        // Free the slots of everything this batch cancelled
+        List<String> releasedSlots = items.stream()
+                .filter(item -> item.getTransition() == AppointmentTransition.CANCEL)
+                .filter(item -> bulk.getApplied().contains(item.getAppointmentId()))
+                .map(item -> MongoIds.idOf(rows.get(item.getAppointmentId()).getTimeSlot()))
+                .filter(Objects::nonNull)
+                .toList();
+        slotReservationService.releaseAll(releasedSlots);
+        
+        // References of all rows are resolved in one pass
+        List<AppointmentRefResult> found = new ArrayList<>(rows.values());
+        List<AppointmentResponseDTO> dtos = appointmentListAssembler.assemble(found);
+        Map<String, AppointmentResponseDTO> dtoById = new HashMap<>();
+        for (int i = 0; i < found.size(); i++) {
+            dtoById.put(found.get(i).getId(), dtos.get(i));
+        }
+        
+        List<AppointmentBatchItemResult> results = new ArrayList<>(items.size());
+        for (AppointmentBatchItemDTO item : items) {
+            String id = item.getAppointmentId();
+            AppointmentBatchItemResult.AppointmentBatchItemResultBuilder result = AppointmentBatchItemResult.builder()
+                    .appointmentId(id)
+                    .transition(item.getTransition())
+                    .appointment(dtoById.get(id));
+            if (bulk.getApplied().contains(id)) {
+                result.status(HttpStatus.OK.value()).code("OK");
+            } else if (!rows.containsKey(id)) {
+                result.status(HttpStatus.NOT_FOUND.value()).code("NOT_FOUND")
+                        .message("Appointment not found with id: " + id);
+            } else {
+                result.status(HttpStatus.CONFLICT.value()).code("INVALID_STATE_TRANSITION")
+                        .message("Appointment with status " + rows.get(id).getStatus()
+                                + " cannot be " + item.getTransition().getAction());
+            }
+            results.add(result.build());
+        }
+        
+        int succeeded = bulk.getApplied().size();
+        log.info("Batch applied {} of {} transitions, released {} slots", succeeded, items.size(), releasedSlots.size());
+        return AppointmentBatchResultDTO.builder()
+                .requested(items.size())
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .slotsReleased(releasedSlots.size())
+                .results(results)
+                .build();
+    }
+    
+    private AppointmentResponseDTO applyTransition(String appointmentId, AppointmentTransition transition) {
+        AppointmentRefResult updated = appointmentTransitionExecutor.apply(appointmentId, transition);
+        return appointmentListAssembler.assemble(List.of(updated)).get(0);
     }
     
     /**
@@ -250,7 +424,56 @@ public class AppointmentService {
      */
     public Appointment getAppointmentByConfirmationCode(String confirmationCode) {
         log.info("Fetching appointment with confirmation code: {}", confirmationCode);
-        return appointmentRepository.findByConfirmationCode(confirmationCode)
+        String code = confirmationCodeGenerator.normalize(confirmationCode);
+        return (confirmationCodeGenerator.isPlausible(code)
+                        ? appointmentRepository.findByConfirmationCode(code) : Optional.<Appointment>empty())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Appointment not found with confirmation code: " + confirmationCode));
+    }
+    
+    /**
+     * Get appointment by ID as response DTO
+     * A single document read when the appointment carries a snapshot
+     * 
+     * @param id Appointment ID
+     * @return Appointment DTO
+     * @throws ResourceNotFoundException if appointment not found
+     */
+    public AppointmentResponseDTO getAppointmentDTOById(String id) {
+        log.info("Fetching appointment view with ID: {}", id);
+        return findAppointmentDTOById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
+    }
+    
+    /**
+     * Find an appointment by ID as response DTO
+     * 
+     * @param id Appointment ID
+     * @return Appointment DTO, empty if there is no such appointment
+     */
+    public Optional<AppointmentResponseDTO> findAppointmentDTOById(String id) {
+        return appointmentListAssembler.findResponseDTOs(new Query(Criteria.where("_id").is(id))).stream()
+                .findFirst();
+    }
+    
+    /**
+     * Get appointment by confirmation code as response DTO
+     * A single indexed read when the appointment carries a snapshot; a code
+     * with a wrong check character is rejected without a read
+     * 
+     * @param confirmationCode Confirmation code
+     * @return Appointment DTO
+     * @throws ResourceNotFoundException if appointment not found
+     */
+    public AppointmentResponseDTO getAppointmentDTOByConfirmationCode(String confirmationCode) {
+        log.info("Fetching appointment view with confirmation code: {}", confirmationCode);
+        String code = confirmationCodeGenerator.normalize(confirmationCode);
+        if (!confirmationCodeGenerator.isPlausible(code)) {
+            throw new ResourceNotFoundException("Appointment not found with confirmation code: " + confirmationCode);
+        }
+        return appointmentListAssembler.findResponseDTOs(
+                        new Query(Criteria.where("confirmationCode").is(code))).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Appointment not found with confirmation code: " + confirmationCode));
     }
@@ -298,6 +521,93 @@ public class AppointmentService {
         return appointmentRepository.findAll();
     }
     
+    /**
+     * Get all appointments for a customer as response DTOs
+     * References are resolved in one batch per collection
+     * 
+     * @param customerId Customer ID
+     * @return List of appointment DTOs, newest booking first
+     */
+    public List<AppointmentResponseDTO> getCustomerAppointmentDTOs(String customerId) {
+        log.info("Fetching appointment list for customer: {}", customerId);
+        Query query = new Query(Criteria.where("customer.$id").is(MongoIds.toStoredId(customerId)))
+                .with(Sort.by(Sort.Direction.DESC, "bookingDate"));
+        return appointmentListAssembler.findResponseDTOs(query);
+    }
+    
+    /**
+     * Get all appointments for a salon as response DTOs
+     * References are resolved in one batch per collection
+     * 
+     * @param salonId Salon ID
+     * @return List of appointment DTOs
+     */
+    public List<AppointmentResponseDTO> getSalonAppointmentDTOs(String salonId) {
+        log.info("Fetching appointment list for salon: {}", salonId);
+        Query query = new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salonId)));
+        return appointmentListAssembler.findResponseDTOs(query);
+    }
+    
+    /**
+     * Get appointments by status as response DTOs
+     * References are resolved in one batch per collection
+     * 
+     * @param status Appointment status
+     * @return List of appointment DTOs
+     */
+    public List<AppointmentResponseDTO> getAppointmentDTOsByStatus(AppointmentStatus status) {
+        log.info("Fetching appointment list with status: {}", status);
+        return appointmentListAssembler.findResponseDTOs(new Query(Criteria.where("status").is(status)));
+    }
+    
+    /**
+     * Get all appointments as response DTOs
+     * References are resolved in one batch per collection
+     * 
+     * @return List of all appointment DTOs
+     */
+    public List<AppointmentResponseDTO> getAllAppointmentDTOs() {
+        log.info("Fetching appointment list");
+        return appointmentListAssembler.findResponseDTOs(new Query());
+    }
+    
+    /**
+     * Get one page of a salon's appointments, newest booking first
+     * Keyset paginated on (bookingDate, _id) using salon_booking_seek_idx
+     * 
+     * @param salonId Salon ID
+     * @param after Continuation token from the previous page (null for the first page)
+     * @param size Page size
+     * @return Page of appointment DTOs
+     */
+    public KeysetPage<AppointmentResponseDTO> getSalonAppointmentsPage(String salonId, String after, int size) {
+        log.info("Fetching appointment page for salon: {}", salonId);
+        Query query = new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salonId)));
+        return appointmentPage(query, after, size);
+    }
+    
+    /**
+     * Get one page of a customer's appointments, newest booking first
+     * Keyset paginated on (bookingDate, _id) using customer_booking_seek_idx
+     * 
+     * @param customerId Customer ID
+     * @param after Continuation token from the previous page (null for the first page)
+     * @param size Page size
+     * @return Page of appointment DTOs
+     */
+    public KeysetPage<AppointmentResponseDTO> getCustomerAppointmentsPage(String customerId, String after, int size) {
+        log.info("Fetching appointment page for customer: {}", customerId);
+        Query query = new Query(Criteria.where("customer.$id").is(MongoIds.toStoredId(customerId)));
+        return appointmentPage(query, after, size);
+    }
+    
+    private KeysetPage<AppointmentResponseDTO> appointmentPage(Query query, String after, int size) {
+        KeysetPage<AppointmentRefResult> page = keysetPaginationService.pageByDateDesc(
+                appointmentListAssembler.withListFields(query), AppointmentRefResult.class, "appointments",
+                "bookingDate", AppointmentRefResult::getBookingDate, AppointmentRefResult::getId, after, size);
+        return page.withItems(appointmentListAssembler.assemble(page.getItems()));
+    }
+    
     /**
      * Convert Appointment entity to response DTO
      * 
@@ -307,6 +617,7 @@ public class AppointmentService {
     public AppointmentResponseDTO convertToResponseDTO(Appointment appointment) {
         return AppointmentResponseDTO.builder()
                 .id(appointment.getId())
+                .appointmentNumber(appointment.getAppointmentNumber())
                 .confirmationCode(appointment.getConfirmationCode())
                 .customerId(appointment.getCustomer().getId())
                 .customerName(appointment.getCustomer().getName())
@@ -342,13 +653,4 @@ public class AppointmentService {
                 .map(this::convertToResponseDTO)
                 .collect(Collectors.toList());
     }
-    
-    /**
-     * Generate a unique confirmation code
-     * 
-     * @return Confirmation code
-     */
-    private String generateConfirmationCode() {
-        return "APT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
 }
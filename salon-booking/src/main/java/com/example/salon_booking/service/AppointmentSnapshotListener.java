@@ -0,0 +1,42 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.models.Salon;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps embedded appointment snapshots in sync with salons, services and customers
+ * Reacts to repository / template saves; a failed refresh is logged and left
+ * for the snapshot drift check to repair.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentSnapshotListener extends AbstractMongoEventListener<Object> {
+
+    private final AppointmentSnapshotService appointmentSnapshotService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        try {
+            if (source instanceof Salon salon) {
+                appointmentSnapshotService.refreshSalon(salon);
+            } else if (source instanceof com.example.salon_booking.models.Service service) {
+                appointmentSnapshotService.refreshService(service);
+            } else if (source instanceof Customer customer) {
+                appointmentSnapshotService.refreshCustomer(customer);
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh appointment snapshots after saving {}: {}",
+                    source.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+}
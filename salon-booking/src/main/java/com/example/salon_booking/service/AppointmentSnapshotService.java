@@ -0,0 +1,244 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.AppointmentSnapshotReport;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.AppointmentSnapshot;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.TimeSlot;
+import com.example.salon_booking.repositories.MongoIds;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Service class for the embedded appointment snapshots
+ * Builds snapshots when appointments are written, pushes salon, service and
+ * customer changes into the affected snapshots, and backfills / checks
+ * snapshots against the referenced documents.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentSnapshotService {
+
+    private static final String APPOINTMENTS = "appointments";
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentListAssembler appointmentListAssembler;
+
+    /**
+     * Build a snapshot from the referenced documents
+     * @return Snapshot; fields of missing documents are left empty
+     */
+    public AppointmentSnapshot snapshotOf(Customer customer, com.example.salon_booking.models.Service service,
+                                          TimeSlot timeSlot, Salon salon) {
+        AppointmentSnapshot.AppointmentSnapshotBuilder snapshot = AppointmentSnapshot.builder()
+                .refreshedAt(LocalDateTime.now());
+        if (customer != null) {
+            snapshot.customerName(customer.getName())
+                    .customerEmail(customer.getEmail())
+                    .customerPhone(customer.getPhone());
+        }
+        if (service != null) {
+            snapshot.serviceName(service.getName());
+        }
+        if (timeSlot != null) {
+            snapshot.appointmentDate(timeSlot.getDate())
+                    .startTime(timeSlot.getStartTime())
+                    .endTime(timeSlot.getEndTime());
+        }
+        if (salon != null) {
+            snapshot.salonName(salon.getName())
+                    .salonAddress(salon.getAddress())
+                    .salonPhone(salon.getPhone());
+        }
+        return snapshot.build();
+    }
+
+    /**
+     * Build a snapshot for an appointment from its (resolved) references
+     * @param appointment Appointment entity
+     * @return Snapshot
+     */
+    public AppointmentSnapshot snapshotOf(Appointment appointment) {
+        return snapshotOf(appointment.getCustomer(), appointment.getService(),
+                appointment.getTimeSlot(), appointment.getSalon());
+    }
+
+    // ==================== CHANGE PROPAGATION ====================
+
+    /**
+     * Copy a salon's displayed fields into the snapshots that reference it
+     * Only snapshots that actually differ are written.
+     * @param salon Changed salon
+     * @return Number of appointments updated
+     */
+    public long refreshSalon(Salon salon) {
+        Query query = new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salon.getId()))
+                .and("snapshot").exists(true)
+                .orOperator(
+                        Criteria.where("snapshot.salonName").ne(salon.getName()),
+                        Criteria.where("snapshot.salonAddress").ne(salon.getAddress()),
+                        Criteria.where("snapshot.salonPhone").ne(salon.getPhone())));
+        Update update = new Update()
+                .set("snapshot.salonName", salon.getName())
+                .set("snapshot.salonAddress", salon.getAddress())
+                .set("snapshot.salonPhone", salon.getPhone())
+                .set("snapshot.refreshedAt", LocalDateTime.now());
+        return apply(query, update, "salon", salon.getId());
+    }
+
+    /**
+     * Copy a service's displayed fields into the snapshots that reference it
+     * @param service Changed service
+     * @return Number of appointments updated
+     */
+    public long refreshService(com.example.salon_booking.models.Service service) {
+        Query query = new Query(Criteria.where("service.$id").is(MongoIds.toStoredId(service.getId()))
+                .and("snapshot").exists(true)
+                .and("snapshot.serviceName").ne(service.getName()));
+        Update update = new Update()
+                .set("snapshot.serviceName", service.getName())
+                .set("snapshot.refreshedAt", LocalDateTime.now());
+        return apply(query, update, "service", service.getId());
+    }
+
+    /**
+     * Copy a customer's contact fields into the snapshots that reference it
+     * @param customer Changed customer
+     * @return Number of appointments updated
+     */
+    public long refreshCustomer(Customer customer) {
+        Query query = new Query(Criteria.where("customer.$id").is(MongoIds.toStoredId(customer.getId()))
+                .and("snapshot").exists(true)
+                .orOperator(
+                        Criteria.where("snapshot.customerName").ne(customer.getName()),
+                        Criteria.where("snapshot.customerEmail").ne(customer.getEmail()),
+                        Criteria.where("snapshot.customerPhone").ne(customer.getPhone())));
+        Update update = new Update()
+                .set("snapshot.customerName", customer.getName())
+                .set("snapshot.customerEmail", customer.getEmail())
+                .set("snapshot.customerPhone", customer.getPhone())
+                .set("snapshot.refreshedAt", LocalDateTime.now());
+        return apply(query, update, "customer", customer.getId());
+    }
+
+    private long apply(Query query, Update update, String type, String id) {
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Appointment.class);
+        if (result.getModifiedCount() > 0) {
+            log.info("Refreshed {} appointment snapshots for {} {}", result.getModifiedCount(), type, id);
+        }
+        return result.getModifiedCount();
+    }
+
+    // ==================== BACKFILL & DRIFT ====================
+
+    /**
+     * Compare every appointment's snapshot with the referenced documents
+     * References are resolved in batches, one query per collection per batch.
+     * @param repair true to write missing and drifted snapshots (backfill),
+     *               false to only report
+     * @return Drift report
+     */
+    public AppointmentSnapshotReport reconcile(boolean repair) {
+        log.info("Checking appointment snapshots (repair: {})", repair);
+        long started = System.nanoTime();
+
+        Query query = new Query();
+        query.fields().include("customer", "service", "timeSlot", "salon", "snapshot");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long[] counts = new long[4]; // scanned, missing, drifted, repaired
+        try (Stream<AppointmentRefResult> stream = mongoTemplate.stream(query, AppointmentRefResult.class, APPOINTMENTS)) {
+            Iterator<AppointmentRefResult> rows = stream.iterator();
+            List<AppointmentRefResult> batch = new ArrayList<>(BATCH_SIZE);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == BATCH_SIZE || !rows.hasNext()) {
+                    reconcileBatch(batch, repair, counts);
+                    batch.clear();
+                }
+            }
+        }
+
+        AppointmentSnapshotReport report = AppointmentSnapshotReport.builder()
+                .scanned(counts[0])
+                .missing(counts[1])
+                .drifted(counts[2])
+                .repaired(counts[3])
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .build();
+        log.info("Appointment snapshot check finished: {}", report);
+        return report;
+    }
+
+    private void reconcileBatch(List<AppointmentRefResult> batch, boolean repair, long[] counts) {
+        List<AppointmentResponseDTO> current = appointmentListAssembler.assembleFromReferences(batch);
+        BulkOperations bulk = repair ? mongoTemplate.bulkOps(BulkMode.UNORDERED, Appointment.class) : null;
+        int writes = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            AppointmentSnapshot existing = batch.get(i).getSnapshot();
+            AppointmentSnapshot fresh = snapshotOf(current.get(i));
+            counts[0]++;
+
+            if (existing == null) {
+                counts[1]++;
+            } else {
+                fresh.setRefreshedAt(existing.getRefreshedAt());
+                if (fresh.equals(existing)) {
+                    continue;
+                }
+                counts[2]++;
+            }
+
+            if (repair) {
+                fresh.setRefreshedAt(LocalDateTime.now());
+                bulk.updateOne(new Query(Criteria.where("_id").is(batch.get(i).getId())),
+                        new Update().set("snapshot", fresh));
+                writes++;
+            }
+        }
+
+        if (writes > 0) {
+            bulk.execute();
+            counts[3] += writes;
+        }
+    }
+
+    private AppointmentSnapshot snapshotOf(AppointmentResponseDTO dto) {
+        return AppointmentSnapshot.builder()
+                .customerName(dto.getCustomerName())
+                .customerEmail(dto.getCustomerEmail())
+                .customerPhone(dto.getCustomerPhone())
+                .serviceName(dto.getServiceName())
+                .appointmentDate(dto.getAppointmentDate())
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .salonName(dto.getSalonName())
+                .salonAddress(dto.getSalonAddress())
+                .salonPhone(dto.getSalonPhone())
+                .build();
+    }
+}
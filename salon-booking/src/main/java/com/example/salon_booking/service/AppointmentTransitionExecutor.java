@@ -0,0 +1,157 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.AppointmentBatchItemDTO;
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.BulkTransitionResult;
+import com.example.salon_booking.exception.InvalidStateTransitionException;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.AppointmentTransition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Executes appointment status transitions from AppointmentTransition
+ * A transition is one findAndModify filtered on the appointment id and the
+ * transition's source statuses, so the precondition check and the write are a
+ * single round trip with no read before it. Two racing transitions (e.g.
+ * confirm and cancel) cannot both match; the loser gets a 409.
+ * Batches use the same guarded updates in one unordered bulk write.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentTransitionExecutor {
+
+    private static final String APPOINTMENTS = "appointments";
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentListAssembler appointmentListAssembler;
+
+    /**
+     * Apply a transition
+     * @param appointmentId Appointment ID
+     * @param transition Transition to apply
+     * @return Updated appointment row with unresolved references
+     * @throws ResourceNotFoundException if the appointment does not exist
+     * @throws InvalidStateTransitionException if the appointment is not in a source status
+     */
+    public AppointmentRefResult apply(String appointmentId, AppointmentTransition transition) {
+        return apply(appointmentId, transition, new Update());
+    }
+
+    /**
+     * Apply a transition, setting extra fields in the same write
+     * @param appointmentId Appointment ID
+     * @param transition Transition to apply
+     * @param extra Additional fields to set (e.g. cancellation reason)
+     * @return Updated appointment row with unresolved references
+     * @throws ResourceNotFoundException if the appointment does not exist
+     * @throws InvalidStateTransitionException if the appointment is not in a source status
+     */
+    public AppointmentRefResult apply(String appointmentId, AppointmentTransition transition, Update extra) {
+        Query query = guard(appointmentId, transition);
+        appointmentListAssembler.withListFields(query);
+        AppointmentRefResult updated = mongoTemplate.findAndModify(query,
+                transitionUpdate(transition, extra, LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), AppointmentRefResult.class, APPOINTMENTS);
+        if (updated != null) {
+            log.debug("Appointment {} {}", appointmentId, transition.getAction());
+            return updated;
+        }
+        throw rejection(appointmentId, transition);
+    }
+
+    /**
+     * Apply many transitions with one unordered bulk write
+     * Each item is the same guarded update as {@link #apply}; items that do not
+     * match are simply not applied. Every applied update also stamps the
+     * appointment with an ID unique to this batch, and one read afterwards
+     * returns the state of every appointment: the ones carrying this batch's
+     * ID are the ones it changed, so no per-item read is needed to tell
+     * winners from conflicts.
+     * @param items Transitions to apply, at most one per appointment
+     * @return Applied appointment IDs and the post-write rows
+     */
+    public BulkTransitionResult applyAll(List<AppointmentBatchItemDTO> items) {
+        if (items.isEmpty()) {
+            return BulkTransitionResult.builder().applied(Set.of()).rows(Map.of()).build();
+        }
+        String batchId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Appointment.class, APPOINTMENTS);
+        for (AppointmentBatchItemDTO item : items) {
+            Update extra = new Update().set("batchId", batchId);
+            if (item.getTransition() == AppointmentTransition.CANCEL) {
+                extra.set("cancellationReason", item.getReason());
+            }
+            bulk.updateOne(guard(item.getAppointmentId(), item.getTransition()),
+                    transitionUpdate(item.getTransition(), extra, now));
+        }
+        int matched = bulk.execute().getMatchedCount();
+
+        List<String> ids = items.stream().map(AppointmentBatchItemDTO::getAppointmentId).toList();
+        Query query = appointmentListAssembler.withListFields(new Query(Criteria.where("_id").in(ids)));
+        query.fields().include("batchId");
+        Map<String, AppointmentRefResult> rows = new HashMap<>();
+        for (AppointmentRefResult row : mongoTemplate.find(query, AppointmentRefResult.class, APPOINTMENTS)) {
+            rows.put(row.getId(), row);
+        }
+
+        Set<String> applied = new HashSet<>();
+        for (AppointmentBatchItemDTO item : items) {
+            AppointmentRefResult row = rows.get(item.getAppointmentId());
+            if (row != null && batchId.equals(row.getBatchId())) {
+                applied.add(item.getAppointmentId());
+            }
+        }
+        log.info("Bulk transition of {} appointments: {} applied", items.size(), matched);
+        return BulkTransitionResult.builder().applied(applied).rows(rows).build();
+    }
+
+    private Query guard(String appointmentId, AppointmentTransition transition) {
+        return new Query(Criteria.where("_id").is(appointmentId).and("status").in(transition.getFrom()));
+    }
+
+    private Update transitionUpdate(AppointmentTransition transition, Update extra, LocalDateTime now) {
+        // The version is bumped so a versioned save based on the previous state
+        // fails instead of undoing the transition
+        return extra
+                .set("status", transition.getTo())
+                .set(transition.getTimestampField(), now)
+                .set("updatedAt", now)
+                .inc("version", 1);
+    }
+
+    private RuntimeException rejection(String appointmentId, AppointmentTransition transition) {
+        // Only reached when the write matched nothing: either no such appointment
+        // or it is in another status
+        Query current = new Query(Criteria.where("_id").is(appointmentId));
+        current.fields().include("status");
+        AppointmentRefResult existing = mongoTemplate.findOne(current, AppointmentRefResult.class, APPOINTMENTS);
+        if (existing == null) {
+            return new ResourceNotFoundException("Appointment not found with id: " + appointmentId);
+        }
+        return new InvalidStateTransitionException(
+                "Appointment with status " + existing.getStatus() + " cannot be " + transition.getAction());
+    }
+}
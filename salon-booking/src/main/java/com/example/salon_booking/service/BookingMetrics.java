@@ -0,0 +1,142 @@
+package com.example.salon_booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer timers for the booking pipeline
+ * salon.booking times a whole booking (tagged by outcome), salon.booking.step
+ * each step of it. Only salon.booking publishes a percentile histogram; the
+ * step timer is tagged by step as well, and buckets for every step would
+ * multiply its series.
+ *
+ * Both are tagged by salon. To keep the number of series bounded, only the
+ * first salon.metrics.max-salon-tags salons that were found get their own tag
+ * value; others (including ids that match no salon) are reported as "other".
+ * A booking looks its salon up first (salonFetch), so the tag is decided
+ * before any step is recorded and all steps of a booking share it.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingMetrics {
+
+    static final String BOOKING_TIMER = "salon.booking";
+    static final String STEP_TIMER = "salon.booking.step";
+    static final String OTHER_SALONS = "other";
+    static final String SALON_FETCH_STEP = "salon_fetch";
+    static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${salon.metrics.max-salon-tags:100}")
+    private int maxSalonTags;
+
+    private final Set<String> taggedSalons = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Start timing a booking
+     * @return Sample to pass to {@link #stop}
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Record a finished booking
+     * @param sample Sample from {@link #start}
+     * @param salonId Salon booked
+     * @param error Exception the booking failed with, or null
+     */
+    public void stop(Timer.Sample sample, String salonId, Throwable error) {
+        sample.stop(Timer.builder(BOOKING_TIMER)
+                .description("Appointment booking latency")
+                .tag("salon", salonTag(salonId))
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Time one step of a booking
+     * @param step Step name, e.g. "customer_upsert"
+     * @param salonId Salon booked
+     * @param action The step
+     * @return Result of the step
+     */
+    public <T> T step(String step, String salonId, Supplier<T> action) {
+        return stepTimer(step, salonId).record(action);
+    }
+
+    /**
+     * Time one step of a booking that returns nothing
+     * @param step Step name, e.g. "slot_release"
+     * @param salonId Salon booked
+     * @param action The step
+     */
+    public void step(String step, String salonId, Runnable action) {
+        stepTimer(step, salonId).record(action);
+    }
+
+    /**
+     * Look up the booked salon, timed as the salon_fetch step
+     * The first step of a booking: once the salon is found it may get its own
+     * tag, and the step is recorded with the tag the later steps will use.
+     * @param salonId Salon booked
+     * @param lookup Finds the salon, throwing if it does not exist
+     * @return The salon
+     */
+    public <T> T salonFetch(String salonId, Supplier<T> lookup) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T salon = lookup.get();
+            salonFound(salonId);
+            return salon;
+        } finally {
+            sample.stop(stepTimer(SALON_FETCH_STEP, salonId));
+        }
+    }
+
+    private Timer stepTimer(String step, String salonId) {
+        return Timer.builder(STEP_TIMER)
+                .description("Latency of one appointment booking step")
+                .tag("step", step)
+                .tag("salon", salonTag(salonId))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Give a salon its own tag value, if the limit allows
+     * Called once the salon has been loaded, so ids that match no salon never
+     * use up the limit.
+     * @param salonId ID of an existing salon
+     */
+    void salonFound(String salonId) {
+        if (salonId == null || taggedSalons.contains(salonId)) {
+            return;
+        }
+        synchronized (taggedSalons) {
+            if (taggedSalons.size() < maxSalonTags) {
+                taggedSalons.add(salonId);
+            }
+        }
+    }
+
+    /**
+     * Tag value for a salon: its id if it has its own tag, otherwise "other"
+     */
+    String salonTag(String salonId) {
+        return salonId != null && taggedSalons.contains(salonId) ? salonId : OTHER_SALONS;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.salon_booking.service;
+
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Generates appointment confirmation codes
+ * A code is "APT-" followed by 12 Crockford base32 characters: 5 for the
+ * minute it was generated (since 2025-01-01 UTC), 6 random, and a Luhn mod 32
+ * check character. Codes are time-ordered, so new codes land at the end of the
+ * unique index instead of at random pages, and the check character lets a
+ * mistyped code be rejected without a database lookup. Crockford's alphabet
+ * has no I, L, O or U, so codes read out over the phone are unambiguous.
+ *
+ * Codes made within the same minute differ only in their 30 random bits; the
+ * unique index on confirmationCode is what guarantees uniqueness.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+public class ConfirmationCodeGenerator {
+
+    static final String PREFIX = "APT-";
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int BASE = ALPHABET.length();
+    private static final int TIME_CHARS = 5;
+    private static final int RANDOM_CHARS = 6;
+    private static final int CODE_LENGTH = PREFIX.length() + TIME_CHARS + RANDOM_CHARS + 1;
+    private static final long EPOCH_MINUTE =
+            LocalDate.of(2025, 1, 1).atStartOfDay(ZoneOffset.UTC).toEpochSecond() / 60;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Generate a new code
+     * @return Confirmation code, e.g. APT-0M4XR7K2QH9C
+     */
+    public String next() {
+        long minute = Math.floorMod(Instant.now().getEpochSecond() / 60 - EPOCH_MINUTE, 1L << (5 * TIME_CHARS));
+        long randomBits = random.nextInt(1 << (5 * RANDOM_CHARS));
+
+        StringBuilder payload = new StringBuilder(TIME_CHARS + RANDOM_CHARS + 1);
+        encode(payload, minute, TIME_CHARS);
+        encode(payload, randomBits, RANDOM_CHARS);
+        payload.append(ALPHABET.charAt(checkValue(payload)));
+        return PREFIX + payload;
+    }
+
+    /**
+     * Whether a code could have been issued by this generator
+     * Codes in the old "APT-" + 8 hex format are not checked and pass.
+     * @param code Normalized code
+     * @return false if the code has this generator's length but a wrong check character
+     */
+    public boolean isPlausible(String code) {
+        if (code == null || code.length() != CODE_LENGTH || !code.startsWith(PREFIX)) {
+            return true;
+        }
+        String body = code.substring(PREFIX.length());
+        for (int i = 0; i < body.length(); i++) {
+            if (ALPHABET.indexOf(body.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        CharSequence payload = body.subSequence(0, body.length() - 1);
+        return ALPHABET.charAt(checkValue(payload)) == body.charAt(body.length() - 1);
+    }
+
+    /**
+     * Normalize a code typed by a customer
+     * Upper-cases it and maps the characters Crockford base32 treats as
+     * look-alikes (O to 0, I and L to 1).
+     * @param code Code as entered
+     * @return Normalized code
+     */
+    public String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String upper = code.trim().toUpperCase(Locale.ROOT);
+        if (!upper.startsWith(PREFIX)) {
+            return upper;
+        }
+        return PREFIX + upper.substring(PREFIX.length())
+                .replace('O', '0')
+                .replace('I', '1')
+                .replace('L', '1');
+    }
+
+    private static void encode(StringBuilder target, long value, int chars) {
+        for (int shift = 5 * (chars - 1); shift >= 0; shift -= 5) {
+            target.append(ALPHABET.charAt((int) ((value >>> shift) & (BASE - 1))));
+        }
+    }
+
+    /**
+     * Luhn mod N check value: catches every single-character error and most
+     * transpositions of adjacent characters
+     */
+    private static int checkValue(CharSequence payload) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int addend = factor * ALPHABET.indexOf(payload.charAt(i));
+            sum += addend / BASE + addend % BASE;
+            factor = factor == 2 ? 1 : 2;
+        }
+        return (BASE - sum % BASE) % BASE;
+    }
+}
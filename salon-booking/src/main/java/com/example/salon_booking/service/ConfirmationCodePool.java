@@ -0,0 +1,171 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.ConfirmationCodePoolStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service class for the per-instance pool of pre-generated confirmation codes
+ * Booking takes a code from the pool without any I/O. When the pool drops
+ * below the refill threshold a background thread generates a batch, drops
+ * every code already used by an appointment (one $in query per batch) and adds
+ * the rest. If the pool is ever empty a code is generated inline, which is
+ * still cheap; the unique index on confirmationCode guards that path.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmationCodePool {
+
+    private static final String APPOINTMENTS = "appointments";
+    private static final int MAX_REFILL_ROUNDS = 3;
+
+    private final ConfirmationCodeGenerator confirmationCodeGenerator;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${salon.appointments.confirmation-codes.pool-size:512}")
+    private int poolSize;
+
+    @Value("${salon.appointments.confirmation-codes.refill-threshold:128}")
+    private int refillThreshold;
+
+    private BlockingQueue<String> codes;
+    private ExecutorService refiller;
+    private final AtomicBoolean refillRequested = new AtomicBoolean();
+
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder generatedInline = new LongAdder();
+    private final AtomicLong refills = new AtomicLong();
+    private final AtomicLong refillFailures = new AtomicLong();
+    private final AtomicLong codesGenerated = new AtomicLong();
+    private final AtomicLong collisions = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        codes = new ArrayBlockingQueue<>(poolSize);
+        refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "confirmation-code-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        requestRefill();
+        log.info("Confirmation code pool of {} codes (refill below {})", poolSize, refillThreshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * Take a code for a new appointment
+     * Never blocks: falls back to generating a code when the pool is empty.
+     * @return Confirmation code
+     */
+    public String take() {
+        taken.increment();
+        String code = codes.poll();
+        if (codes.size() < refillThreshold) {
+            requestRefill();
+        }
+        if (code == null) {
+            generatedInline.increment();
+            return confirmationCodeGenerator.next();
+        }
+        return code;
+    }
+
+    /**
+     * Fill the pool up to its size
+     * Codes dropped as already used are replaced by another batch, for a few
+     * rounds at most.
+     * @return Number of codes added
+     */
+    public synchronized int refill() {
+        refillRequested.set(false);
+        int added = 0;
+        for (int round = 0; round < MAX_REFILL_ROUNDS && codes.size() < poolSize; round++) {
+            added += addBatch(poolSize - codes.size());
+        }
+        if (added > 0) {
+            refills.incrementAndGet();
+            log.debug("Added {} confirmation codes to the pool", added);
+        }
+        return added;
+    }
+
+    private int addBatch(int wanted) {
+        Set<String> batch = new LinkedHashSet<>();
+        while (batch.size() < wanted) {
+            batch.add(confirmationCodeGenerator.next());
+        }
+        codesGenerated.addAndGet(batch.size());
+
+        Query query = new Query(Criteria.where("confirmationCode").in(batch));
+        for (String used : mongoTemplate.findDistinct(query, "confirmationCode", APPOINTMENTS, String.class)) {
+            batch.remove(used);
+            collisions.incrementAndGet();
+        }
+
+        int added = 0;
+        for (String code : batch) {
+            if (!codes.offer(code)) {
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    private void requestRefill() {
+        if (!refiller.isShutdown() && refillRequested.compareAndSet(false, true)) {
+            refiller.execute(this::refillQuietly);
+        }
+    }
+
+    private void refillQuietly() {
+        try {
+            refill();
+        } catch (Exception e) {
+            refillFailures.incrementAndGet();
+            log.error("Confirmation code refill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pool counters
+     * @return Current statistics
+     */
+    public ConfirmationCodePoolStats getStats() {
+        return ConfirmationCodePoolStats.builder()
+                .available(codes.size())
+                .poolSize(poolSize)
+                .taken(taken.sum())
+                .generatedInline(generatedInline.sum())
+                .refills(refills.get())
+                .refillFailures(refillFailures.get())
+                .codesGenerated(codesGenerated.get())
+                .collisions(collisions.get())
+                .build();
+    }
+}
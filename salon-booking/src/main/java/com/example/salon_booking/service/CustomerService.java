@@ -1,21 +1,45 @@
 package com.example.salon_booking.service;
 
+import com.example.salon_booking.dto.CacheStatsDTO;
 import com.example.salon_booking.dto.CustomerDTO;
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.exception.CustomerNotFoundException;
 import com.example.salon_booking.models.Customer;
 import com.example.salon_booking.repositories.CustomerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Service class for managing customer operations
  * Handles customer creation, retrieval, and updates
  * 
+ * Emails are stored trimmed and lower-cased, and matched with the
+ * case-insensitive collation of the email index, so a customer stored with
+ * other casing (before CustomerEmailMigration has run) is found rather than
+ * duplicated. Customers looked up by booking are kept in a small cache by
+ * email, so a repeat booker costs no round trip; entries are dropped when the
+ * customer is updated or deleted through this service, and expire after the
+ * TTL otherwise.
+ * 
  * @author Salon Booking System
  * @version 1.0
  */
@@ -24,34 +48,63 @@ import java.util.List;
 @Slf4j
 public class CustomerService {
     
+    private static final Collation EMAIL_COLLATION = Collation.parse(Customer.EMAIL_COLLATION);
+    
     private final CustomerRepository customerRepository;
+    private final KeysetPaginationService keysetPaginationService;
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${salon.customers.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    @Value("${salon.customers.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    private Cache<String, Customer> byEmail;
+    
+    @PostConstruct
+    void createCache() {
+        byEmail = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+    }
     
     /**
      * Create a new customer or return existing one by email
+     * One findAndModify upsert with $setOnInsert: an existing customer is
+     * returned unchanged, a new one is inserted in the same round trip. Two
+     * concurrent first bookings with the same email both get the one customer.
      * @param dto Customer data
      * @return Customer entity
      */
-    @Transactional
     public Customer createOrGetCustomer(CustomerDTO dto) {
-        log.info("Creating or getting customer with email: {}", dto.getEmail());
+        String email = normalizeEmail(dto.getEmail());
+        Customer cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("Creating or getting customer with email: {}", email);
         
-        // Check if customer already exists
-        return customerRepository.findByEmail(dto.getEmail())
-                .orElseGet(() -> {
-                    log.info("Customer not found, creating new customer");
-                    Customer newCustomer = Customer.builder()
-                            .name(dto.getName())
-                            .email(dto.getEmail())
-                            .phone(dto.getPhone())
-                            .preferredContact(dto.getPreferredContact())
-                            .notes(dto.getNotes())
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    
-                    Customer saved = customerRepository.save(newCustomer);
-                    log.info("Created new customer with ID: {}", saved.getId());
-                    return saved;
-                });
+        Query query = new Query(Criteria.where("email").is(email)).collation(EMAIL_COLLATION);
+        Update update = new Update()
+                .setOnInsert("name", dto.getName())
+                .setOnInsert("phone", dto.getPhone())
+                .setOnInsert("preferredContact", dto.getPreferredContact())
+                .setOnInsert("notes", dto.getNotes())
+                .setOnInsert("createdAt", LocalDateTime.now());
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        
+        Customer customer;
+        try {
+            customer = mongoTemplate.findAndModify(query, update, options, Customer.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent upsert inserted the customer first; this one now matches it
+            customer = mongoTemplate.findAndModify(query, update, options, Customer.class);
+        }
+        byEmail.put(email, customer);
+        return customer;
     }
     
     /**
@@ -74,7 +127,7 @@ public class CustomerService {
      */
     public Customer getCustomerByEmail(String email) {
         log.info("Fetching customer with email: {}", email);
-        return customerRepository.findByEmail(email)
+        return customerRepository.findByEmail(normalizeEmail(email))
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found with email: " + email));
     }
     
@@ -87,6 +140,18 @@ public class CustomerService {
         return customerRepository.findAll();
     }
     
+    /**
+     * Get one page of customers in id order
+     * @param after Continuation token from the previous page (null for the first page)
+     * @param size Page size
+     * @return Page of customers
+     */
+    public KeysetPage<Customer> getCustomersPage(String after, int size) {
+        log.info("Fetching customer page");
+        return keysetPaginationService.pageById(new Query(), Customer.class, "customers",
+                Customer::getId, after, size);
+    }
+    
     /**
      * Search customers by name
      * @param name Name to search for
@@ -124,6 +189,7 @@ public class CustomerService {
         }
         
         Customer updated = customerRepository.save(customer);
+        byEmail.invalidate(normalizeEmail(updated.getEmail()));
         log.info("Updated customer: {}", updated.getId());
         return updated;
     }
@@ -137,11 +203,30 @@ public class CustomerService {
     public void deleteCustomer(String id) {
         log.info("Deleting customer with ID: {}", id);
         
-        if (!customerRepository.existsById(id)) {
-            throw new CustomerNotFoundException("Customer not found with id: " + id);
-        }
+        Customer customer = getCustomerById(id);
         
         customerRepository.deleteById(id);
+        byEmail.invalidate(normalizeEmail(customer.getEmail()));
         log.info("Deleted customer: {}", id);
     }
+    
+    /**
+     * Counters of the customer cache
+     * @return Cache statistics
+     */
+    public CacheStatsDTO getStats() {
+        CacheStats stats = byEmail.stats();
+        return CacheStatsDTO.builder()
+                .name("customersByEmail")
+                .size(byEmail.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+    
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,345 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.HelpfulVoteBufferStats;
+import com.example.salon_booking.models.Review;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Service class for write-behind buffering of review helpful votes
+ * When enabled, votes are counted per review and written as one unordered
+ * bulk of $inc updates every flush interval, or sooner once the flush
+ * threshold of buffered votes is reached. Reads add the buffered delta to the
+ * stored count, so a voter sees their own vote immediately. Such reads run
+ * through {@link #read}, which keeps the stored counts and the pending votes
+ * from straddling a flush.
+ *
+ * Buffered votes are lost if the process dies without shutting down; they are
+ * flushed on a normal shutdown. A review's counter is removed when a flush
+ * takes its votes, so only reviews voted on since the last flush hold one.
+ *
+ * The buffered delta, vote counts and flush latency are published as
+ * salon.reviews.helpful.* meters and returned by getStats.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HelpfulVoteBuffer implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${salon.reviews.helpful.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${salon.reviews.helpful.write-behind.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${salon.reviews.helpful.write-behind.flush-threshold:1000}")
+    private long flushThreshold;
+
+    /**
+     * Buffered votes per review
+     * Plain counts merged per key rather than a LongAdder per review: drain()
+     * must take a review's votes and drop its entry in one step, and a vote
+     * added to a LongAdder just after it was summed and removed would be lost.
+     * The map's per-bin locking already spreads contention across reviews.
+     */
+    private final Map<String, Long> buffered = new ConcurrentHashMap<>();
+    private final LongAdder bufferedTotal = new LongAdder();
+
+    /**
+     * Votes taken out of the buffer whose write has not completed yet
+     */
+    private Map<String, Long> inFlight = Map.of();
+
+    /**
+     * Guards moving votes between buffered and inFlight, so pendingDelta never
+     * sees a vote in both or in neither
+     */
+    private final Object pendingLock = new Object();
+
+    /**
+     * Number of flushes that have taken votes, guarded by pendingLock
+     */
+    private long flushGeneration;
+
+    private static final int MAX_READ_ATTEMPTS = 3;
+    private static final long MAX_READ_WAIT_MS = 500;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final LongAdder votesRecorded = new LongAdder();
+    private final AtomicLong votesFlushed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "helpful-vote-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Helpful vote write-behind enabled (interval {} ms, threshold {} votes)",
+                flushIntervalMs, flushThreshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return true if helpful votes are buffered
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffer one helpful vote
+     * @param reviewId Review ID (must exist)
+     */
+    public void record(String reviewId) {
+        buffered.merge(reviewId, 1L, Long::sum);
+        bufferedTotal.increment();
+        votesRecorded.increment();
+
+        if (bufferedTotal.sum() >= flushThreshold && !executor.isShutdown()
+                && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Votes for a review that are not in the stored count yet
+     * @param reviewId Review ID
+     * @return Buffered and in-flight votes
+     */
+    public long pendingDelta(String reviewId) {
+        synchronized (pendingLock) {
+            return buffered.getOrDefault(reviewId, 0L) + inFlight.getOrDefault(reviewId, 0L);
+        }
+    }
+
+    /**
+     * Run a read of stored helpful counts that adds pendingDelta to them
+     * A flush writing while the counts are read may or may not be visible to
+     * the read, so its votes could be counted twice or not at all. The read
+     * starts once no flush is in flight and is repeated if a flush took votes
+     * before it finished; the pending votes it adds are then exactly those not
+     * yet stored. After a bounded wait and number of attempts the last result
+     * is returned as is, off by at most the votes of the flushes it overlapped.
+     * @param read Reads the stored counts and adds the pending votes
+     * @return Result of the read
+     */
+    public <T> T read(Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            long generation = awaitNoFlushInFlight();
+            T result = read.get();
+            synchronized (pendingLock) {
+                if (generation == flushGeneration) {
+                    return result;
+                }
+            }
+            if (attempt == MAX_READ_ATTEMPTS) {
+                log.debug("Helpful counts read across a flush after {} attempts", attempt);
+                return result;
+            }
+        }
+    }
+
+    private long awaitNoFlushInFlight() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_READ_WAIT_MS);
+        synchronized (pendingLock) {
+            long remaining;
+            while (!inFlight.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(pendingLock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return flushGeneration;
+        }
+    }
+
+    /**
+     * Write all buffered votes with one unordered bulk of $inc updates
+     * On failure the votes are put back into the buffer.
+     * @return Number of votes written
+     */
+    public synchronized long flush() {
+        flushRequested.set(false);
+        Map<String, Long> deltas = drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        long votes = deltas.values().stream().mapToLong(Long::longValue).sum();
+        long started = System.nanoTime();
+        boolean written = false;
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Review.class);
+            deltas.forEach((reviewId, delta) ->
+                    bulk.updateOne(new Query(Criteria.where("_id").is(reviewId)), new Update().inc("helpfulCount", delta)));
+            bulk.execute();
+            votesFlushed.addAndGet(votes);
+            written = true;
+        } catch (Exception e) {
+            flushFailures.incrementAndGet();
+            log.error("Failed to flush {} helpful votes for {} reviews: {}", votes, deltas.size(), e.getMessage());
+            return 0;
+        } finally {
+            settle(deltas, written);
+            recordFlushTime(System.nanoTime() - started);
+        }
+        log.debug("Flushed {} helpful votes for {} reviews", votes, deltas.size());
+        return votes;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Helpful vote flush failed: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> drain() {
+        // remove() takes every vote merged into the counter before it; a vote
+        // recorded afterwards starts a new counter for the next flush
+        Map<String, Long> deltas = new HashMap<>();
+        synchronized (pendingLock) {
+            for (String reviewId : buffered.keySet()) {
+                Long delta = buffered.remove(reviewId);
+                if (delta != null) {
+                    deltas.put(reviewId, delta);
+                    bufferedTotal.add(-delta);
+                }
+            }
+            inFlight = deltas;
+            if (!deltas.isEmpty()) {
+                flushGeneration++;
+            }
+        }
+        return deltas;
+    }
+
+    private void settle(Map<String, Long> deltas, boolean written) {
+        synchronized (pendingLock) {
+            if (!written) {
+                // Put the votes back for the next flush
+                deltas.forEach((reviewId, delta) -> {
+                    buffered.merge(reviewId, delta, Long::sum);
+                    bufferedTotal.add(delta);
+                });
+            }
+            inFlight = Map.of();
+            pendingLock.notifyAll();
+        }
+    }
+
+    private void recordFlushTime(long nanos) {
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Buffer counters
+     * @return Current statistics
+     */
+    public HelpfulVoteBufferStats getStats() {
+        long flushCount = flushes.get();
+        return HelpfulVoteBufferStats.builder()
+                .enabled(enabled)
+                .bufferedDelta(bufferedTotal.sum())
+                .bufferedReviews(buffered.size())
+                .votesRecorded(votesRecorded.sum())
+                .votesFlushed(votesFlushed.get())
+                .flushes(flushCount)
+                .flushFailures(flushFailures.get())
+                .lastFlushMs(TimeUnit.NANOSECONDS.toMillis(lastFlushNanos.get()))
+                .maxFlushMs(TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()))
+                .averageFlushMs(flushCount > 0 ? totalFlushNanos.get() / 1e6 / flushCount : 0.0)
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("salon.reviews.helpful.buffered.delta", bufferedTotal, LongAdder::sum)
+                .description("Helpful votes buffered and not yet taken by a flush")
+                .register(registry);
+        Gauge.builder("salon.reviews.helpful.buffered.reviews", buffered, Map::size)
+                .description("Reviews with buffered helpful votes")
+                .register(registry);
+        FunctionCounter.builder("salon.reviews.helpful.votes", votesRecorded, LongAdder::sum)
+                .description("Helpful votes by state")
+                .tag("state", "recorded")
+                .register(registry);
+        FunctionCounter.builder("salon.reviews.helpful.votes", votesFlushed, AtomicLong::get)
+                .description("Helpful votes by state")
+                .tag("state", "flushed")
+                .register(registry);
+        FunctionCounter.builder("salon.reviews.helpful.flush.failures", flushFailures, AtomicLong::get)
+                .description("Helpful vote flushes that failed and put their votes back")
+                .register(registry);
+        FunctionTimer.builder("salon.reviews.helpful.flush", this,
+                        buffer -> buffer.flushes.get(),
+                        buffer -> buffer.totalFlushNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Latency of one bulk write of buffered helpful votes")
+                .register(registry);
+    }
+}
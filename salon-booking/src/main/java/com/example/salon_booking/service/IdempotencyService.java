@@ -0,0 +1,216 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.IdempotentResult;
+import com.example.salon_booking.exception.IdempotencyKeyInUseException;
+import com.example.salon_booking.exception.IdempotencyKeyMismatchException;
+import com.example.salon_booking.models.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Service class for Idempotency-Key handling
+ * The first request with a key claims it by inserting a record (the unique _id
+ * settles concurrent first attempts), runs, and stores its response. A retry
+ * with the same key and body is answered from that record with one _id lookup
+ * and does not run again. A retry while the first request is still running
+ * gets a 409; one with a different body gets a 422.
+ *
+ * Each claim carries an owner token, and only the owner can complete or give
+ * up the key. A request that fails gives the key up again, so the client can
+ * retry it; nothing was committed. A claim left behind by a crashed or stuck
+ * request can be taken over once it is older than the in-progress timeout.
+ * The id of the resource to create is chosen when the key is claimed, so the
+ * request taking over first checks whether that resource already exists and
+ * answers with it instead of running the action again.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${salon.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${salon.idempotency.in-progress-timeout-seconds:30}")
+    private long inProgressTimeoutSeconds;
+
+    /**
+     * Run an action at most once per key
+     * @param scope Operation the key belongs to (keys of different operations never collide)
+     * @param key Client-supplied idempotency key
+     * @param request Request body, hashed to detect key reuse
+     * @param responseType Type of the stored response
+     * @param action The operation itself, creating the resource with the given id
+     * @param existing Looks up the resource with the given id if a previous attempt created it
+     * @return Response of the first request with this key
+     * @throws IdempotencyKeyInUseException if the first request is still running
+     * @throws IdempotencyKeyMismatchException if the key was used with a different body
+     */
+    public <T> IdempotentResult<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                           Function<String, T> action, Function<String, Optional<T>> existing) {
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+        String owner = UUID.randomUUID().toString();
+
+        String resourceId = new ObjectId().toHexString();
+        IdempotencyRecord record = mongoTemplate.findById(id, IdempotencyRecord.class);
+        if (record == null) {
+            record = claim(id, requestHash, owner, resourceId);
+        }
+        if (record != null) {
+            if (!requestHash.equals(record.getRequestHash())) {
+                throw new IdempotencyKeyMismatchException(
+                        "Idempotency key " + key + " was already used with a different request");
+            }
+            if (record.isCompleted()) {
+                log.info("Replaying stored response for idempotency key {}", key);
+                return IdempotentResult.<T>builder().body(read(record, responseType)).replayed(true).build();
+            }
+            resourceId = takeOver(record, owner);
+            if (resourceId == null) {
+                throw new IdempotencyKeyInUseException(
+                        "A request with idempotency key " + key + " is still being processed");
+            }
+            // The stale attempt may have created the resource and died before completing the key
+            Optional<T> created = existing.apply(resourceId);
+            if (created.isPresent()) {
+                log.info("Recovered response of stale idempotency claim {}", id);
+                complete(id, owner, requestHash, resourceId, created.get());
+                return IdempotentResult.<T>builder().body(created.get()).replayed(true).build();
+            }
+        }
+
+        T response;
+        try {
+            response = action.apply(resourceId);
+        } catch (RuntimeException e) {
+            mongoTemplate.remove(ownedBy(id, owner), IdempotencyRecord.class);
+            throw e;
+        }
+        complete(id, owner, requestHash, resourceId, response);
+        return IdempotentResult.<T>builder().body(response).replayed(false).build();
+    }
+
+    /**
+     * Insert the claim for a key
+     * @return null if this request now owns the key, otherwise the record that beat it
+     */
+    private IdempotencyRecord claim(String id, String requestHash, String owner, String resourceId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .id(id)
+                    .requestHash(requestHash)
+                    .owner(owner)
+                    .resourceId(resourceId)
+                    .completed(false)
+                    .startedAt(now)
+                    .expiresAt(now.plusHours(ttlHours))
+                    .build());
+            return null;
+        } catch (DuplicateKeyException e) {
+            // A concurrent first attempt claimed it between the lookup and the insert
+            return mongoTemplate.findById(id, IdempotencyRecord.class);
+        }
+    }
+
+    /**
+     * Take over a claim whose request has been running longer than the timeout
+     * Guarded on the owner read, so only one retry can take it over
+     * @return Resource id of the claim if it was taken over, otherwise null
+     */
+    private String takeOver(IdempotencyRecord stale, String owner) {
+        if (stale.getStartedAt() == null
+                || stale.getStartedAt().isAfter(LocalDateTime.now().minusSeconds(inProgressTimeoutSeconds))) {
+            return null;
+        }
+        // Claims stored before resource ids were recorded get one now
+        String resourceId = stale.getResourceId() != null ? stale.getResourceId() : new ObjectId().toHexString();
+        Query query = new Query(Criteria.where("_id").is(stale.getId())
+                .and("completed").is(false)
+                .and("owner").is(stale.getOwner()));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("resourceId", resourceId)
+                .set("startedAt", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(query, update, IdempotencyRecord.class).getModifiedCount() == 0) {
+            return null;
+        }
+        log.warn("Took over stale idempotency claim {}", stale.getId());
+        return resourceId;
+    }
+
+    /**
+     * Store the response, provided this request still owns the key
+     * Upserts, so a response is also stored if the key was given up meanwhile
+     * (a request that took over and failed); if another request owns it now,
+     * that request's outcome stands.
+     */
+    private void complete(String id, String owner, String requestHash, String resourceId, Object response) {
+        Update update = new Update()
+                .set("completed", true)
+                .set("responseBody", write(response))
+                .set("expiresAt", LocalDateTime.now().plusHours(ttlHours))
+                .setOnInsert("requestHash", requestHash)
+                .setOnInsert("resourceId", resourceId)
+                .setOnInsert("startedAt", LocalDateTime.now());
+        try {
+            mongoTemplate.upsert(ownedBy(id, owner), update, IdempotencyRecord.class);
+        } catch (DuplicateKeyException e) {
+            log.warn("Idempotency key {} is owned by another request; response not stored", id);
+        }
+    }
+
+    private static Query ownedBy(String id, String owner) {
+        return new Query(Criteria.where("_id").is(id).and("owner").is(owner));
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash request", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    private <T> T read(IdempotencyRecord record, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored response " + record.getId(), e);
+        }
+    }
+}
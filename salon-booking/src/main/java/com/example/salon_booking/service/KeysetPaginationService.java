@@ -0,0 +1,214 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.KeysetPage;
+import com.example.salon_booking.exception.InvalidPageTokenException;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Service class for keyset (seek) pagination
+ * Instead of skipping N documents, each page continues after the sort key of the
+ * last item of the previous page, carried in an opaque token. With an index on
+ * the filter and sort fields every page costs the same as the first.
+ *
+ * Ids are a mix of strings (seeded documents such as "salon1") and ObjectIds
+ * (documents created through the API). MongoDB orders values of different BSON
+ * types by type, all strings before all ObjectIds, and a range operator only
+ * matches values of its own type. The token therefore records the BSON type of
+ * the last id, and the seek continues within that type and then takes every id
+ * of the types that sort after it.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+public class KeysetPaginationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+    private static final char STRING_ID = 's';
+    private static final char OBJECT_ID = 'o';
+
+    /**
+     * Id types in MongoDB sort order, with their token markers
+     */
+    private static final List<Character> ID_TYPES = List.of(STRING_ID, OBJECT_ID);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Page through documents in _id order
+     * @param query Filter criteria (sort and limit are set here)
+     * @param type Result type
+     * @param collection Collection name
+     * @param idOf Reads the id of a result
+     * @param token Token from the previous page, or null for the first page
+     * @param size Requested page size
+     * @return Page of results
+     */
+    public <T> KeysetPage<T> pageById(Query query, Class<T> type, String collection,
+                                      Function<T, String> idOf, String token, int size) {
+        if (token != null && !token.isBlank()) {
+            query.addCriteria(seekAfter(decode(token)));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "_id"));
+        return fetch(query, type, collection, size, item -> encode(idKey(idOf.apply(item))));
+    }
+
+    /**
+     * Page through documents newest first by a date field, ties broken by _id
+     * @param query Filter criteria (sort and limit are set here)
+     * @param type Result type
+     * @param collection Collection name
+     * @param field Date field to sort on
+     * @param dateOf Reads the date field of a result
+     * @param idOf Reads the id of a result
+     * @param token Token from the previous page, or null for the first page
+     * @param size Requested page size
+     * @return Page of results
+     */
+    public <T> KeysetPage<T> pageByDateDesc(Query query, Class<T> type, String collection, String field,
+                                            Function<T, LocalDateTime> dateOf, Function<T, String> idOf,
+                                            String token, int size) {
+        if (token != null && !token.isBlank()) {
+            String[] key = decode(token).split("\\" + SEPARATOR, 2);
+            if (key.length != 2) {
+                throw new InvalidPageTokenException("Invalid page token");
+            }
+            query.addCriteria(seekBefore(field, parseDate(key[0]), key[1]));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, field).and(Sort.by(Sort.Direction.DESC, "_id")));
+        return fetch(query, type, collection, size, item -> {
+            LocalDateTime date = dateOf.apply(item);
+            return encode((date != null ? date.toString() : "") + SEPARATOR + idKey(idOf.apply(item)));
+        });
+    }
+
+    /**
+     * Clamp a requested page size to the supported range
+     * @param size Requested size
+     * @return Size between 1 and MAX_PAGE_SIZE
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private Criteria seekBefore(String field, LocalDateTime date, String idKey) {
+        // Documents without the date sort last; past that point only _id decides
+        if (date == null) {
+            return new Criteria().andOperator(
+                    Criteria.where(field).is(null),
+                    idBefore(idKey));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(date),
+                new Criteria().andOperator(Criteria.where(field).is(date), idBefore(idKey)),
+                Criteria.where(field).is(null));
+    }
+
+    /**
+     * Ids after the given one in ascending order: greater ids of the same type,
+     * then every id of a type that sorts later
+     */
+    private Criteria seekAfter(String idKey) {
+        char idType = idType(idKey);
+        Criteria sameType = Criteria.where("_id").gt(idValue(idKey));
+        List<Character> laterTypes = ID_TYPES.subList(ID_TYPES.indexOf(idType) + 1, ID_TYPES.size());
+        return laterTypes.isEmpty() ? sameType : new Criteria().orOperator(sameType, ofTypes(laterTypes));
+    }
+
+    /**
+     * Ids after the given one in descending order: smaller ids of the same type,
+     * then every id of a type that sorts earlier
+     */
+    private Criteria idBefore(String idKey) {
+        char idType = idType(idKey);
+        Criteria sameType = Criteria.where("_id").lt(idValue(idKey));
+        List<Character> earlierTypes = ID_TYPES.subList(0, ID_TYPES.indexOf(idType));
+        return earlierTypes.isEmpty() ? sameType : new Criteria().orOperator(sameType, ofTypes(earlierTypes));
+    }
+
+    private Criteria ofTypes(List<Character> idTypes) {
+        return Criteria.where("_id").type(idTypes.stream()
+                .map(idType -> idType == OBJECT_ID ? JsonSchemaObject.Type.objectIdType()
+                        : JsonSchemaObject.Type.stringType())
+                .toArray(JsonSchemaObject.Type[]::new));
+    }
+
+    /**
+     * Token form of an id: its BSON type marker followed by the id.
+     * Mapped ids that are valid ObjectId hex strings are stored as ObjectIds.
+     */
+    private String idKey(String id) {
+        return (ObjectId.isValid(id) ? OBJECT_ID : STRING_ID) + id;
+    }
+
+    private char idType(String idKey) {
+        if (idKey.isEmpty() || !ID_TYPES.contains(idKey.charAt(0))
+                || (idKey.charAt(0) == OBJECT_ID && !ObjectId.isValid(idKey.substring(1)))) {
+            throw new InvalidPageTokenException("Invalid page token");
+        }
+        return idKey.charAt(0);
+    }
+
+    private Object idValue(String idKey) {
+        String id = idKey.substring(1);
+        return idKey.charAt(0) == OBJECT_ID ? new ObjectId(id) : id;
+    }
+
+    private <T> KeysetPage<T> fetch(Query query, Class<T> type, String collection, int size,
+                                    Function<T, String> tokenOf) {
+        int pageSize = clampSize(size);
+        // One extra row tells whether another page follows
+        query.limit(pageSize + 1);
+        List<T> rows = mongoTemplate.find(query, type, collection);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return KeysetPage.<T>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextToken(hasMore ? tokenOf.apply(items.get(items.size() - 1)) : null)
+                .size(items.size())
+                .build();
+    }
+
+    private LocalDateTime parseDate(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidPageTokenException("Invalid page token");
+        }
+    }
+
+    private String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decode(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException("Invalid page token");
+        }
+    }
+}
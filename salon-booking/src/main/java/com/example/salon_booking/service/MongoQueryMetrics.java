@@ -0,0 +1,366 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.QueryShapeStats;
+import com.example.salon_booking.repositories.RepositoryInvocationContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mongo command listener measuring queries per collection and repository method
+ * Every command on a collection is timed (salon.repository.commands), and the
+ * documents it returned are recorded, tagged by collection, command and the
+ * repository method that issued it (see RepositoryInvocationContext;
+ * "template" for MongoTemplate calls). Reply bytes are only recorded with
+ * salon.mongo.measure-reply-bytes, since sizing a reply re-encodes it.
+ *
+ * Commands are also grouped by query shape: the filter with every value
+ * replaced by "?", so all lookups by confirmation code are one shape. A
+ * command slower than salon.mongo.slow-query-ms is logged with its shape.
+ * Shapes are kept in memory up to salon.mongo.max-query-shapes.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MongoQueryMetrics implements CommandListener {
+
+    static final String COMMAND_TIMER = "salon.repository.commands";
+    static final String TEMPLATE_METHOD = "template";
+    private static final String NO_FILTER = "-";
+    private static final int MAX_SHAPE_LENGTH = 500;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${salon.mongo.slow-query-ms:100}")
+    private long slowQueryMs;
+
+    @Value("${salon.mongo.max-query-shapes:500}")
+    private int maxQueryShapes;
+
+    @Value("${salon.mongo.measure-reply-bytes:false}")
+    private boolean measureReplyBytes;
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, ShapeCounters> shapes = new ConcurrentHashMap<>();
+    private final LongAdder untrackedShapes = new LongAdder();
+
+    private record Started(String collection, String command, String method, String shape) {
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+        if (collection == null) {
+            // Not a collection command (hello, ping, authentication, ...)
+            return;
+        }
+        String method = RepositoryInvocationContext.current();
+        inFlight.put(event.getRequestId(), new Started(collection, event.getCommandName(),
+                method != null ? method : TEMPLATE_METHOD, shapeOf(event.getCommandName(), event.getCommand())));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        BsonDocument reply = event.getResponse();
+        long documents = documentsOf(started.command(), reply);
+        long bytes = measureReplyBytes && reply != null ? sizeOf(reply) : -1;
+        record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), "success", documents, bytes);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), "failure", 0, -1);
+        }
+    }
+
+    private void record(Started started, long nanos, String status, long documents, long bytes) {
+        Timer.builder(COMMAND_TIMER)
+                .description("Latency of Mongo commands by collection and repository method")
+                .tag("collection", started.collection())
+                .tag("command", started.command())
+                .tag("method", started.method())
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(COMMAND_TIMER + ".documents")
+                .description("Documents returned or affected per Mongo command")
+                .tag("collection", started.collection())
+                .tag("method", started.method())
+                .register(meterRegistry)
+                .record(documents);
+        if (bytes >= 0) {
+            DistributionSummary.builder(COMMAND_TIMER + ".reply.bytes")
+                    .description("Reply size per Mongo command")
+                    .baseUnit("bytes")
+                    .tag("collection", started.collection())
+                    .tag("method", started.method())
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+
+        boolean slow = slowQueryMs > 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        if (slow) {
+            log.warn("Slow query: collection={} command={} method={} status={} durationMs={} documents={} "
+                            + "replyBytes={} shape={}", started.collection(), started.command(), started.method(),
+                    status, TimeUnit.NANOSECONDS.toMillis(nanos), documents, bytes, started.shape());
+        }
+
+        ShapeCounters counters = countersFor(started);
+        if (counters != null) {
+            counters.record(started.method(), nanos, documents, slow);
+        }
+    }
+
+    private ShapeCounters countersFor(Started started) {
+        String key = started.collection() + " " + started.command() + " " + started.shape();
+        ShapeCounters counters = shapes.get(key);
+        if (counters == null) {
+            if (shapes.size() >= maxQueryShapes) {
+                untrackedShapes.increment();
+                return null;
+            }
+            counters = shapes.computeIfAbsent(key, k -> new ShapeCounters(started));
+        }
+        return counters;
+    }
+
+    /**
+     * Slowest query shapes seen since startup (or the last reset)
+     * @param limit Number of shapes to return
+     * @return Shapes by average duration, slowest first
+     */
+    public List<QueryShapeStats> getSlowestShapes(int limit) {
+        return shapes.values().stream()
+                .map(ShapeCounters::toStats)
+                .sorted(Comparator.comparing(QueryShapeStats::getAverageMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Commands whose shape was not tracked because the shape limit was reached
+     * @return Number of commands
+     */
+    public long getUntrackedShapes() {
+        return untrackedShapes.sum();
+    }
+
+    /**
+     * Forget all query shapes
+     */
+    public void resetShapes() {
+        shapes.clear();
+        untrackedShapes.reset();
+        log.info("Query shape statistics cleared");
+    }
+
+    // ==================== COMMAND PARSING ====================
+
+    static String collectionOf(String commandName, BsonDocument command) {
+        if ("getMore".equals(commandName)) {
+            BsonValue collection = command.get("collection");
+            return collection != null && collection.isString() ? collection.asString().getValue() : null;
+        }
+        BsonValue collection = command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    static String shapeOf(String commandName, BsonDocument command) {
+        BsonValue filter = switch (commandName) {
+            case "find" -> command.get("filter");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "update" -> firstStatementField(command.get("updates"), "q");
+            case "delete" -> firstStatementField(command.get("deletes"), "q");
+            case "aggregate" -> pipelineShape(command.get("pipeline"));
+            default -> null;
+        };
+        if (filter == null) {
+            return NO_FILTER;
+        }
+        StringBuilder shape = new StringBuilder();
+        appendShape(filter, shape);
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape.toString();
+    }
+
+    private static BsonValue firstStatementField(BsonValue statements, String field) {
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+            return null;
+        }
+        BsonValue first = statements.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get(field) : null;
+    }
+
+    /**
+     * Pipeline as its stage names, with the filter of $match stages
+     */
+    private static BsonValue pipelineShape(BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) {
+            return null;
+        }
+        BsonArray stages = new BsonArray();
+        for (BsonValue stage : pipeline.asArray()) {
+            if (!stage.isDocument() || stage.asDocument().isEmpty()) {
+                continue;
+            }
+            String name = stage.asDocument().getFirstKey();
+            stages.add("$match".equals(name)
+                    ? new BsonDocument(name, stage.asDocument().get(name))
+                    : new BsonDocument(name, new BsonDocument()));
+        }
+        return stages;
+    }
+
+    private static void appendShape(BsonValue value, StringBuilder out) {
+        if (value.isDocument()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) {
+                    out.append(", ");
+                }
+                first = false;
+                out.append('"').append(entry.getKey()).append("\": ");
+                appendShape(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value.isArray()) {
+            // An array of values is one placeholder however long it is ($in lists)
+            BsonArray array = value.asArray();
+            if (array.stream().noneMatch(element -> element.isDocument() || element.isArray())) {
+                out.append("[?]");
+                return;
+            }
+            out.append('[');
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                appendShape(array.get(i), out);
+            }
+            out.append(']');
+        } else {
+            out.append('?');
+        }
+    }
+
+    static long documentsOf(String commandName, BsonDocument reply) {
+        if (reply == null) {
+            return 0;
+        }
+        switch (commandName) {
+            case "find", "aggregate":
+                return batchSize(reply, "firstBatch");
+            case "getMore":
+                return batchSize(reply, "nextBatch");
+            case "findAndModify":
+                BsonValue value = reply.get("value");
+                return value != null && !value.isNull() ? 1 : 0;
+            case "distinct":
+                BsonValue values = reply.get("values");
+                return values != null && values.isArray() ? values.asArray().size() : 0;
+            default:
+                BsonValue n = reply.get("n");
+                return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+        }
+    }
+
+    private static long batchSize(BsonDocument reply, String batch) {
+        BsonValue cursor = reply.get("cursor");
+        if (cursor == null || !cursor.isDocument()) {
+            return 0;
+        }
+        BsonValue documents = cursor.asDocument().get(batch);
+        return documents != null && documents.isArray() ? documents.asArray().size() : 0;
+    }
+
+    private static long sizeOf(BsonDocument document) {
+        if (document instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.getPosition();
+    }
+
+    /**
+     * Counters of one query shape
+     */
+    private static final class ShapeCounters {
+
+        private final String collection;
+        private final String command;
+        private final String shape;
+        private volatile String method;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalDocuments = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        ShapeCounters(Started started) {
+            this.collection = started.collection();
+            this.command = started.command();
+            this.shape = started.shape();
+            this.method = started.method();
+        }
+
+        void record(String method, long nanos, long documents, boolean slow) {
+            this.method = method;
+            count.increment();
+            totalNanos.add(nanos);
+            totalDocuments.add(documents);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (slow) {
+                slowCount.increment();
+            }
+        }
+
+        QueryShapeStats toStats() {
+            long n = count.sum();
+            return QueryShapeStats.builder()
+                    .collection(collection)
+                    .command(command)
+                    .shape(shape)
+                    .method(method)
+                    .count(n)
+                    .slowCount(slowCount.sum())
+                    .averageMs(n > 0 ? totalNanos.sum() / 1e6 / n : 0.0)
+                    .maxMs(maxNanos.get() / 1e6)
+                    .averageDocuments(n > 0 ? (double) totalDocuments.sum() / n : 0.0)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.OptimisticRetryStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry of operations that lost an optimistic locking race
+ * The operation must re-read what it changes on every attempt, so a retry
+ * applies the change to the winner's version instead of overwriting it.
+ * Attempts are spaced by a jittered, doubling backoff; once they run out the
+ * conflict is rethrown and reported to the client as 409.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@Slf4j
+public class OptimisticRetry {
+
+    @Value("${salon.concurrency.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${salon.concurrency.retry.backoff-ms:5}")
+    private long backoffMs;
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    /**
+     * Run an operation, retrying it when it hits a version conflict
+     * @param operation Name for the log
+     * @param action Operation that reads, changes and saves
+     * @return Result of the first attempt that did not conflict
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public <T> T run(String operation, Supplier<T> action) {
+        executions.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            attempts.incrementAndGet();
+            try {
+                T result = action.get();
+                if (attempt > 1) {
+                    recovered.incrementAndGet();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    log.warn("{} gave up after {} conflicting attempts", operation, attempt);
+                    throw e;
+                }
+                log.debug("{} conflicted on attempt {}, retrying", operation, attempt);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException conflict) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        // Full jitter so the writers that collided do not collide again
+        long ceilingMs = backoffMs << Math.min(attempt - 1, 10);
+        long delayMicros = ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toMicros(ceilingMs) + 1);
+        try {
+            TimeUnit.MICROSECONDS.sleep(delayMicros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    /**
+     * Retry counters
+     * @return Current statistics
+     */
+    public OptimisticRetryStats getStats() {
+        long attemptCount = attempts.get();
+        return OptimisticRetryStats.builder()
+                .executions(executions.get())
+                .conflicts(conflicts.get())
+                .recovered(recovered.get())
+                .exhausted(exhausted.get())
+                .conflictRate(attemptCount > 0 ? (double) conflicts.get() / attemptCount : 0.0)
+                .build();
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.RatingReconcileReport;
+import com.example.salon_booking.dto.RatingStatisticsDTO;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.SalonRatingAggregate;
+import com.example.salon_booking.repositories.MongoIds;
+import com.example.salon_booking.repositories.ReviewRepository;
+import com.example.salon_booking.repositories.SalonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for incremental salon rating aggregates
+ * Every change to a visible review is applied to the salon's aggregate with one
+ * atomic $inc; the salon's cached averageRating / totalReviews are copied from
+ * the aggregate in the background by SalonRatingRefresher. Summaries read a
+ * single document.
+ *
+ * Callers must only report transitions they actually performed (e.g. a hide
+ * that matched a visible review), otherwise the totals double count.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateService {
+
+    private static final int MAX_REPORTED_IDS = 100;
+    private static final int MAX_CORRECTION_ATTEMPTS = 5;
+
+    /**
+     * Stored totals of an aggregate by field name
+     */
+    private static final Map<String, Function<SalonRatingAggregate, Long>> TOTALS = Map.of(
+            "reviewCount", SalonRatingAggregate::getReviewCount,
+            "ratingSum", SalonRatingAggregate::getRatingSum,
+            "oneStar", SalonRatingAggregate::getOneStar,
+            "twoStars", SalonRatingAggregate::getTwoStars,
+            "threeStars", SalonRatingAggregate::getThreeStars,
+            "fourStars", SalonRatingAggregate::getFourStars,
+            "fiveStars", SalonRatingAggregate::getFiveStars);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReviewRepository reviewRepository;
+    private final SalonRepository salonRepository;
+    private final SalonRatingRefresher salonRatingRefresher;
+
+    @Value("${salon.ratings.reconcile.enabled:false}")
+    private boolean scheduledReconcileEnabled;
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    /**
+     * A visible review was created (or restored)
+     */
+    public void reviewAdded(String salonId, int rating) {
+        applyDelta(salonId, null, rating);
+    }
+
+    /**
+     * A visible review was hidden or removed
+     */
+    public void reviewRemoved(String salonId, int rating) {
+        applyDelta(salonId, rating, null);
+    }
+
+    /**
+     * The rating of a visible review changed
+     */
+    public void ratingChanged(String salonId, int oldRating, int newRating) {
+        if (oldRating != newRating) {
+            applyDelta(salonId, oldRating, newRating);
+        }
+    }
+
+    private void applyDelta(String salonId, Integer removed, Integer added) {
+        Update update = new Update()
+                .inc("reviewCount", (added != null ? 1 : 0) - (removed != null ? 1 : 0))
+                .inc("ratingSum", (added != null ? added : 0) - (removed != null ? removed : 0))
+                .set("updatedAt", LocalDateTime.now());
+        if (removed != null) {
+            update.inc(SalonRatingAggregate.starField(removed), -1);
+        }
+        if (added != null) {
+            update.inc(SalonRatingAggregate.starField(added), 1);
+        }
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(salonId)), update, SalonRatingAggregate.class);
+        salonRatingRefresher.requestRefresh(salonId);
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Rating summary for a salon from its aggregate
+     * @param salonId Salon ID
+     * @return Rating statistics
+     * @throws ResourceNotFoundException if the salon does not exist
+     */
+    public RatingStatisticsDTO getSummary(String salonId) {
+        SalonRatingAggregate aggregate = mongoTemplate.findById(salonId, SalonRatingAggregate.class);
+        if (aggregate == null) {
+            // No aggregate yet: either an unknown salon or one without reviews
+            if (!salonRepository.existsById(salonId)) {
+                throw new ResourceNotFoundException("Salon not found with id: " + salonId);
+            }
+            aggregate = SalonRatingAggregate.builder().salonId(salonId).build();
+        }
+
+        return RatingStatisticsDTO.builder()
+                .salonId(salonId)
+                .averageRating(aggregate.getAverageRating())
+                .totalReviews(aggregate.getReviewCount())
+                .fiveStars(aggregate.getFiveStars())
+                .fourStars(aggregate.getFourStars())
+                .threeStars(aggregate.getThreeStars())
+                .twoStars(aggregate.getTwoStars())
+                .oneStar(aggregate.getOneStar())
+                .build();
+    }
+
+    // ==================== RECONCILIATION ====================
+
+    /**
+     * Create aggregates from the reviews for salons that do not have one yet
+     * The aggregate is inserted, never saved over: if a review change created
+     * it in the meantime, it is corrected like in {@link #reconcile()} instead.
+     * Salon rating caches are left untouched.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedMissingAggregates() {
+        try {
+            Set<String> existing = mongoTemplate.findAll(SalonRatingAggregate.class).stream()
+                    .map(SalonRatingAggregate::getSalonId)
+                    .collect(Collectors.toSet());
+            int seeded = 0;
+            for (String salonId : salonIds()) {
+                if (!existing.contains(salonId)) {
+                    try {
+                        mongoTemplate.insert(fromReviews(salonId));
+                        seeded++;
+                    } catch (DuplicateKeyException e) {
+                        correct(salonId);
+                    }
+                }
+            }
+            log.info("Seeded {} salon rating aggregates", seeded);
+        } catch (Exception e) {
+            log.error("Failed to seed salon rating aggregates: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every salon's aggregate from its reviews with the
+     * getRatingDistribution aggregation; drifted aggregates and their salon
+     * caches are corrected. Corrections are applied as $inc guarded on the
+     * totals they were computed from, so review changes made while the
+     * reconciliation runs are not overwritten.
+     * @return Reconciliation report
+     */
+    public RatingReconcileReport reconcile() {
+        log.info("Reconciling salon rating aggregates");
+        long started = System.nanoTime();
+
+        List<String> salonIds = salonIds();
+        List<String> drifted = new ArrayList<>();
+        for (String salonId : salonIds) {
+            if (correct(salonId)) {
+                drifted.add(salonId);
+                salonRatingRefresher.refreshNow(salonId);
+            }
+        }
+
+        RatingReconcileReport report = RatingReconcileReport.builder()
+                .salonsChecked(salonIds.size())
+                .driftedSalons(drifted.size())
+                .driftedSalonIds(drifted.stream().limit(MAX_REPORTED_IDS).collect(Collectors.toList()))
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .build();
+        log.info("Rating reconciliation finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Nightly reconciliation, disabled unless salon.ratings.reconcile.enabled is set
+     */
+    @Scheduled(cron = "${salon.ratings.reconcile.cron:0 0 3 * * *}")
+    public void reconcileNightly() {
+        if (scheduledReconcileEnabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Bring one salon's aggregate in line with its reviews
+     * The stored aggregate is read before the reviews are counted. The
+     * difference is applied with $inc only while the aggregate still holds the
+     * totals that were read; if a review change landed in between, both are
+     * read again.
+     * @return true if the aggregate had drifted
+     */
+    private boolean correct(String salonId) {
+        for (int attempt = 1; attempt <= MAX_CORRECTION_ATTEMPTS; attempt++) {
+            SalonRatingAggregate actual = mongoTemplate.findById(salonId, SalonRatingAggregate.class);
+            SalonRatingAggregate expected = fromReviews(salonId);
+            if (actual != null && sameTotals(expected, actual)) {
+                return false;
+            }
+
+            if (actual == null) {
+                try {
+                    mongoTemplate.insert(expected);
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            } else if (mongoTemplate.updateFirst(unchanged(actual), correction(actual, expected),
+                    SalonRatingAggregate.class).getMatchedCount() == 0) {
+                continue;
+            }
+            log.warn("Rating aggregate drift for salon {}: stored={}, reviews={}", salonId, actual, expected);
+            return true;
+        }
+        log.warn("Rating aggregate for salon {} kept changing, not corrected after {} attempts",
+                salonId, MAX_CORRECTION_ATTEMPTS);
+        return true;
+    }
+
+    private Query unchanged(SalonRatingAggregate actual) {
+        // An aggregate created by an upsert only holds the fields its $inc
+        // touched; the missing ones read as 0
+        Criteria criteria = Criteria.where("_id").is(actual.getSalonId());
+        TOTALS.forEach((field, total) -> {
+            long value = valueOf(total.apply(actual));
+            if (value == 0) {
+                criteria.and(field).in(0L, null);
+            } else {
+                criteria.and(field).is(value);
+            }
+        });
+        return new Query(criteria);
+    }
+
+    private Update correction(SalonRatingAggregate actual, SalonRatingAggregate expected) {
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        TOTALS.forEach((field, total) -> {
+            long delta = valueOf(total.apply(expected)) - valueOf(total.apply(actual));
+            if (delta != 0) {
+                update.inc(field, delta);
+            }
+        });
+        return update;
+    }
+
+    private SalonRatingAggregate fromReviews(String salonId) {
+        RatingStatisticsDTO stats = reviewRepository.getRatingDistribution(MongoIds.toStoredId(salonId))
+                .orElseGet(RatingStatisticsDTO::new);
+        long oneStar = valueOf(stats.getOneStar());
+        long twoStars = valueOf(stats.getTwoStars());
+        long threeStars = valueOf(stats.getThreeStars());
+        long fourStars = valueOf(stats.getFourStars());
+        long fiveStars = valueOf(stats.getFiveStars());
+
+        return SalonRatingAggregate.builder()
+                .salonId(salonId)
+                .reviewCount(oneStar + twoStars + threeStars + fourStars + fiveStars)
+                .ratingSum(oneStar + 2 * twoStars + 3 * threeStars + 4 * fourStars + 5 * fiveStars)
+                .oneStar(oneStar)
+                .twoStars(twoStars)
+                .threeStars(threeStars)
+                .fourStars(fourStars)
+                .fiveStars(fiveStars)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private boolean sameTotals(SalonRatingAggregate a, SalonRatingAggregate b) {
+        return TOTALS.values().stream().allMatch(total -> Objects.equals(total.apply(a), total.apply(b)));
+    }
+
+    private List<String> salonIds() {
+        Query query = new Query();
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Salon.class).stream()
+                .map(Salon::getId)
+                .collect(Collectors.toList());
+    }
+
+    private long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
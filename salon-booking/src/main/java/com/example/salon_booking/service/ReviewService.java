@@ -3,18 +3,26 @@ package com.example.salon_booking.service;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.salon_booking.dto.CreateReviewDTO;
+import com.example.salon_booking.dto.KeysetPage;
 import com.example.salon_booking.dto.RatingStatisticsDTO;
 import com.example.salon_booking.dto.ReviewResponseDTO;
 import com.example.salon_booking.dto.UpdateReviewDTO;
@@ -23,9 +31,12 @@ import com.example.salon_booking.exception.ResourceNotFoundException;
 import com.example.salon_booking.exception.ReviewEditTimeExpiredException;
 import com.example.salon_booking.models.Review;
 import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.repositories.MongoIds;
 import com.example.salon_booking.repositories.ReviewRepository;
 import com.example.salon_booking.repositories.SalonRepository;
 
+import com.mongodb.DBRef;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,7 +46,7 @@ import lombok.extern.slf4j.Slf4j;
  * Handles:
  * - CRUD operations for reviews
  * - Duplicate prevention
- * - Rating calculations and caching
+ * - Rating calculations and caching (incremental per-salon aggregates)
  * - Time-based edit restrictions
  * - Helpful voting and reporting
  */
@@ -46,8 +57,19 @@ public class ReviewService {
     
     private final ReviewRepository reviewRepository;
     private final SalonRepository salonRepository;
+    private final KeysetPaginationService keysetPaginationService;
+    private final RatingAggregateService ratingAggregateService;
+    private final MongoTemplate mongoTemplate;
+    private final HelpfulVoteBuffer helpfulVoteBuffer;
     
     private static final int EDIT_TIME_LIMIT_HOURS = 24;
+    private static final int AUTO_HIDE_REPORT_COUNT = 5;
+    private static final String AUTO_HIDE_NOTES = "Auto-hidden due to multiple reports";
+    
+    /**
+     * reportCount + 1, then hide a visible review once the count reaches the threshold
+     */
+    private static final AggregationUpdate REPORT_UPDATE = reportUpdate();
     
     /**
      * Get paginated reviews for a salon with sorting
@@ -68,61 +90,40 @@ public class ReviewService {
             sort
         );
         
-        // Get reviews
-        Page<Review> reviews = reviewRepository.findBySalon_IdAndIsVisibleTrue(salonId, sortedPageable);
-        
-        // Convert to DTOs
-        return reviews.map(this::convertToDTO);
+        // Get reviews and convert to DTOs
+        return helpfulVoteBuffer.read(() ->
+                reviewRepository.findBySalon_IdAndIsVisibleTrue(salonId, sortedPageable).map(this::convertToDTO));
     }
     
     /**
-     * Get rating statistics for a salon
+     * Get one page of a salon's visible reviews, newest first
+     * Keyset paginated on (reviewDate, _id); matching the whole salon reference
+     * lets the query use salon_date_seek_idx
      */
-    public RatingStatisticsDTO getRatingSummary(String salonId) {
-        log.debug("Getting rating summary for salon: {}", salonId);
+    public KeysetPage<ReviewResponseDTO> getSalonReviewsPage(String salonId, String after, int size) {
+        log.debug("Getting review page for salon: {}", salonId);
         
         // Validate salon exists
         if (!salonRepository.existsById(salonId)) {
             throw new ResourceNotFoundException("Salon not found with id: " + salonId);
         }
         
-        // Get all visible reviews for the salon
-        List<Review> reviews = reviewRepository.findBySalon_IdAndIsVisibleTrue(salonId);
-        
-        if (reviews.isEmpty()) {
-            return RatingStatisticsDTO.builder()
-                    .salonId(salonId)
-                    .averageRating(0.0)
-                    .totalReviews(0L)
-                    .fiveStars(0L)
-                    .fourStars(0L)
-                    .threeStars(0L)
-                    .twoStars(0L)
-                    .oneStar(0L)
-                    .build();
-        }
-        
-        // Calculate statistics
-        long totalReviews = reviews.size();
-        double averageRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        
-        // Count reviews by rating
-        Map<Integer, Long> distribution = reviews.stream()
-                .collect(Collectors.groupingBy(Review::getRating, Collectors.counting()));
-        
-        return RatingStatisticsDTO.builder()
-                .salonId(salonId)
-                .averageRating(Math.round(averageRating * 10.0) / 10.0) // Round to 1 decimal
-                .totalReviews(totalReviews)
-                .fiveStars(distribution.getOrDefault(5, 0L))
-                .fourStars(distribution.getOrDefault(4, 0L))
-                .threeStars(distribution.getOrDefault(3, 0L))
-                .twoStars(distribution.getOrDefault(2, 0L))
-                .oneStar(distribution.getOrDefault(1, 0L))
-                .build();
+        Query query = new Query(Criteria.where("salon").is(MongoIds.dbRef("salons", salonId))
+                .and("isVisible").is(true));
+        return helpfulVoteBuffer.read(() -> {
+            KeysetPage<Review> page = keysetPaginationService.pageByDateDesc(query, Review.class, "reviews",
+                    "reviewDate", Review::getReviewDate, Review::getId, after, size);
+            return page.withItems(page.getItems().stream().map(this::convertToDTO).collect(Collectors.toList()));
+        });
+    }
+    
+    /**
+     * Get rating statistics for a salon
+     * Read from the salon's incrementally maintained rating aggregate
+     */
+    public RatingStatisticsDTO getRatingSummary(String salonId) {
+        log.debug("Getting rating summary for salon: {}", salonId);
+        return ratingAggregateService.getSummary(salonId);
     }
     
     /**
@@ -168,8 +169,8 @@ public class ReviewService {
         review = reviewRepository.save(review);
         log.info("Review created with ID: {}", review.getId());
         
-        // 5. Update salon's cached rating asynchronously
-        updateSalonRatingAsync(dto.getSalonId());
+        // 5. Count the rating in the salon's aggregate
+        ratingAggregateService.reviewAdded(dto.getSalonId(), review.getRating());
         
         // 6. Return DTO
         return convertToDTO(review);
@@ -181,10 +182,8 @@ public class ReviewService {
     public ReviewResponseDTO getReviewById(String reviewId) {
         log.debug("Getting review by ID: {}", reviewId);
         
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
-        
-        return convertToDTO(review);
+        return helpfulVoteBuffer.read(() -> convertToDTO(reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId))));
     }
     
     /**
@@ -207,21 +206,37 @@ public class ReviewService {
             );
         }
         
-        // 3. Update fields
+        // 3. Update fields in place; the previous rating and visibility come back
+        //    from the same write so the aggregate delta matches what was replaced
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("lastModified", now);
         if (dto.getRating() != null) {
-            review.setRating(dto.getRating());
+            update.set("rating", dto.getRating());
         }
         if (dto.getComment() != null && !dto.getComment().isBlank()) {
-            review.setComment(dto.getComment());
+            update.set("comment", dto.getComment());
         }
-        review.setLastModified(LocalDateTime.now());
         
-        // 4. Save
-        review = reviewRepository.save(review);
+        Query query = new Query(Criteria.where("_id").is(reviewId));
+        query.fields().include("rating", "isVisible");
+        Review previous = mongoTemplate.findAndModify(query, update, Review.class);
+        if (previous == null) {
+            throw new ResourceNotFoundException("Review not found with id: " + reviewId);
+        }
         log.info("Review updated: {}", reviewId);
         
-        // 5. Update salon rating cache
-        updateSalonRatingAsync(review.getSalon().getId());
+        // 4. Move the rating within the salon's aggregate
+        if (dto.getRating() != null && Boolean.TRUE.equals(previous.getIsVisible())) {
+            ratingAggregateService.ratingChanged(review.getSalon().getId(), previous.getRating(), dto.getRating());
+        }
+        
+        if (dto.getRating() != null) {
+            review.setRating(dto.getRating());
+        }
+        if (dto.getComment() != null && !dto.getComment().isBlank()) {
+            review.setComment(dto.getComment());
+        }
+        review.setLastModified(now);
         
         return convertToDTO(review);
     }
@@ -236,16 +251,57 @@ public class ReviewService {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
         
-        String salonId = review.getSalon().getId();
-        
         // Soft delete - mark as invisible
-        review.setIsVisible(false);
-        reviewRepository.save(review);
+        if (hideReview(reviewId, review.getSalon().getId(), null)) {
+            log.info("Review marked as invisible: {}", reviewId);
+        }
+    }
+    
+    /**
+     * Restore a hidden review (moderation)
+     */
+    @Transactional
+    public ReviewResponseDTO restoreReview(String reviewId) {
+        log.info("Restoring review: {}", reviewId);
+        
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+        
+        // Only the request that actually flips the flag counts the rating again
+        Query query = new Query(Criteria.where("_id").is(reviewId).and("isVisible").is(false));
+        query.fields().include("rating");
+        Review restored = mongoTemplate.findAndModify(query,
+                new Update().set("isVisible", true).unset("moderatorNotes"), Review.class);
+        if (restored != null) {
+            ratingAggregateService.reviewAdded(review.getSalon().getId(), restored.getRating());
+            log.info("Review restored: {}", reviewId);
+        }
         
-        log.info("Review marked as invisible: {}", reviewId);
+        review.setIsVisible(true);
+        review.setModeratorNotes(null);
+        return convertToDTO(review);
+    }
+    
+    /**
+     * Hide a review if it is still visible and take its rating out of the salon's aggregate
+     * 
+     * @param moderatorNotes Notes to record, or null
+     * @return true if this call hid the review
+     */
+    private boolean hideReview(String reviewId, String salonId, String moderatorNotes) {
+        Query query = new Query(Criteria.where("_id").is(reviewId).and("isVisible").is(true));
+        query.fields().include("rating");
+        Update update = new Update().set("isVisible", false);
+        if (moderatorNotes != null) {
+            update.set("moderatorNotes", moderatorNotes);
+        }
         
-        // Update salon rating cache
-        updateSalonRatingAsync(salonId);
+        Review hidden = mongoTemplate.findAndModify(query, update, Review.class);
+        if (hidden == null) {
+            return false;
+        }
+        ratingAggregateService.reviewRemoved(salonId, hidden.getRating());
+        return true;
     }
     
     /**
@@ -254,11 +310,9 @@ public class ReviewService {
     public List<ReviewResponseDTO> getUserReviews(String userId) {
         log.debug("Getting reviews for user: {}", userId);
         
-        List<Review> reviews = reviewRepository.findByUser_Id(userId);
-        
-        return reviews.stream()
+        return helpfulVoteBuffer.read(() -> reviewRepository.findByUser_Id(userId).stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -272,76 +326,74 @@ public class ReviewService {
      * Get user's review for a specific salon
      */
     public ReviewResponseDTO getUserReviewForSalon(String salonId, String userId) {
-        Review review = reviewRepository.findBySalon_IdAndUser_Id(salonId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Review not found for this user and salon"));
-        
-        return convertToDTO(review);
+        return helpfulVoteBuffer.read(() -> convertToDTO(reviewRepository.findBySalon_IdAndUser_Id(salonId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found for this user and salon"))));
     }
     
     /**
      * Increment helpful count for a review
+     * A single atomic $inc; concurrent votes are never lost. With write-behind
+     * enabled the vote is buffered and the returned count includes pending votes,
+     * read under one flush generation so a concurrent flush is not counted twice.
      */
-    @Transactional
     public Integer incrementHelpfulCount(String reviewId) {
         log.debug("Incrementing helpful count for review: {}", reviewId);
         
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+        Query query = new Query(Criteria.where("_id").is(reviewId));
+        query.fields().include("helpfulCount");
+        
+        if (helpfulVoteBuffer.isEnabled()) {
+            // Recorded once, after the first read found the review; a repeated read counts it as pending
+            AtomicBoolean recorded = new AtomicBoolean();
+            return helpfulVoteBuffer.read(() -> {
+                Review stored = mongoTemplate.findOne(query, Review.class);
+                if (stored == null) {
+                    throw new ResourceNotFoundException("Review not found with id: " + reviewId);
+                }
+                if (recorded.compareAndSet(false, true)) {
+                    helpfulVoteBuffer.record(reviewId);
+                }
+                return helpfulCountOf(stored);
+            });
+        }
         
-        review.incrementHelpfulCount();
-        review = reviewRepository.save(review);
+        Review review = mongoTemplate.findAndModify(query, new Update().inc("helpfulCount", 1),
+                FindAndModifyOptions.options().returnNew(true), Review.class);
+        if (review == null) {
+            throw new ResourceNotFoundException("Review not found with id: " + reviewId);
+        }
         
         return review.getHelpfulCount();
     }
     
     /**
      * Increment report count for a review
+     * The increment and the auto-hide rule run in one pipeline update, so the
+     * review is hidden by exactly the report that reaches the threshold
      */
-    @Transactional
     public Integer incrementReportCount(String reviewId) {
         log.debug("Incrementing report count for review: {}", reviewId);
         
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+        Query query = new Query(Criteria.where("_id").is(reviewId));
+        query.fields().include("reportCount", "isVisible", "rating", "salon");
+        // The document as it was before this report
+        Document previous = mongoTemplate.findAndModify(query, REPORT_UPDATE,
+                FindAndModifyOptions.options().returnNew(false), Document.class, "reviews");
+        if (previous == null) {
+            throw new ResourceNotFoundException("Review not found with id: " + reviewId);
+        }
         
-        review.incrementReportCount();
-        review = reviewRepository.save(review);
+        int reportCount = previous.get("reportCount", Number.class) != null
+                ? previous.get("reportCount", Number.class).intValue() + 1 : 1;
         
-        // Auto-hide review if reported too many times (e.g., 5 times)
-        if (review.getReportCount() >= 5 && review.getIsVisible()) {
-            log.warn("Review {} has been reported {} times, marking as invisible", 
-                    reviewId, review.getReportCount());
-            review.setIsVisible(false);
-            review.setModeratorNotes("Auto-hidden due to multiple reports");
-            reviewRepository.save(review);
+        // Auto-hide review if reported too many times
+        if (Boolean.TRUE.equals(previous.getBoolean("isVisible")) && reportCount >= AUTO_HIDE_REPORT_COUNT) {
+            ratingAggregateService.reviewRemoved(MongoIds.idOf(previous.get("salon", DBRef.class)),
+                    previous.getInteger("rating"));
+            log.warn("Review {} has been reported {} times, marking as invisible", reviewId, reportCount);
         }
         
-        return review.getReportCount();
-    }
-    
-    /**
-     * Update salon's cached rating (async)
-     */
-    @Async
-    protected void updateSalonRatingAsync(String salonId) {
-        try {
-            log.debug("Updating cached rating for salon: {}", salonId);
-            
-            RatingStatisticsDTO stats = getRatingSummary(salonId);
-            
-            Salon salon = salonRepository.findById(salonId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Salon not found"));
-            
-            salon.setAverageRating(stats.getAverageRating());
-            salon.setTotalReviews(stats.getTotalReviews());
-            
-            salonRepository.save(salon);
-            
-            log.info("Updated cached rating for salon {}: avg={}, total={}", 
-                    salonId, stats.getAverageRating(), stats.getTotalReviews());
-        } catch (Exception e) {
-            log.error("Failed to update salon rating cache: {}", e.getMessage(), e);
-        }
+        return reportCount;
     }
     
     /**
@@ -355,6 +407,32 @@ public class ReviewService {
         };
     }
     
+    private static AggregationUpdate reportUpdate() {
+        Document reachedThreshold = new Document("$and", List.of(
+                new Document("$eq", List.of("$isVisible", true)),
+                new Document("$gte", List.of("$reportCount", AUTO_HIDE_REPORT_COUNT))));
+        AggregationOperation increment = context -> new Document("$set", new Document("reportCount",
+                new Document("$add", List.of(new Document("$ifNull", List.of("$reportCount", 0)), 1))));
+        AggregationOperation autoHide = context -> new Document("$set", new Document()
+                .append("isVisible", new Document("$cond", List.of(reachedThreshold, false, "$isVisible")))
+                .append("moderatorNotes", new Document("$cond",
+                        List.of(reachedThreshold, AUTO_HIDE_NOTES, "$moderatorNotes"))));
+        return AggregationUpdate.from(List.of(increment, autoHide));
+    }
+    
+    /**
+     * Stored helpful count plus votes still in the write-behind buffer
+     * Only exact inside HelpfulVoteBuffer.read together with the read of the review
+     */
+    private Integer helpfulCountOf(Review review) {
+        long pending = helpfulVoteBuffer.pendingDelta(review.getId());
+        if (pending == 0) {
+            return review.getHelpfulCount();
+        }
+        int stored = review.getHelpfulCount() != null ? review.getHelpfulCount() : 0;
+        return (int) (stored + pending);
+    }
+    
     /**
      * Convert Review entity to DTO
      */
@@ -370,7 +448,7 @@ public class ReviewService {
                 .reviewDate(review.getReviewDate())
                 .lastModified(review.getLastModified())
                 .isVerified(review.getIsVerified())
-                .helpfulCount(review.getHelpfulCount())
+                .helpfulCount(helpfulCountOf(review))
                 .isGuestReview(review.isGuestReview())
                 .isEditable(review.isEditable())
                 .ownerResponse(review.getOwnerResponse())
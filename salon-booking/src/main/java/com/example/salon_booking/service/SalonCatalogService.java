@@ -0,0 +1,343 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.CacheStatsDTO;
+import com.example.salon_booking.dto.RenderedJson;
+import com.example.salon_booking.dto.SalonSummaryDTO;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.repositories.SalonRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Service class for the salon catalog
+ * Salon-by-id and salons-by-type reads are served from size- and TTL-bounded
+ * in-memory caches. Lists hold projected summaries, not full documents.
+ * Every salon write goes through here (or calls evictSalon) so only the
+ * affected entries are dropped: the salon itself, the list of its type (old
+ * and new type on a type change) and the list of all salons.
+ *
+ * The lists are also kept serialized (JSON bytes plus ETag) so the catalog
+ * endpoints skip Jackson entirely; they are re-rendered only after an eviction.
+ *
+ * Hits, misses, evictions and sizes of the three caches are published as
+ * Micrometer cache.* meters tagged with the cache name.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalonCatalogService implements MeterBinder {
+
+    /**
+     * Key of the all-salons list in the by-type cache
+     */
+    private static final String ALL_TYPES = "*";
+    private static final String SALONS = "salons";
+
+    /**
+     * Fields replaced by updateSalon
+     */
+    private static final Map<String, Function<Salon, Object>> EDITABLE_FIELDS = editableFields();
+
+    private final SalonRepository salonRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final AppointmentSnapshotService appointmentSnapshotService;
+
+    @Value("${salon.catalog.cache.max-salons:10000}")
+    private long maxSalons;
+
+    @Value("${salon.catalog.cache.max-types:64}")
+    private long maxTypes;
+
+    @Value("${salon.catalog.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, Salon> byId;
+    private Cache<String, List<SalonSummaryDTO>> byType;
+    private Cache<String, RenderedJson> renderedByType;
+
+    @PostConstruct
+    void createCaches() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSalons)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        byType = Caffeine.newBuilder()
+                .maximumSize(maxTypes)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        renderedByType = Caffeine.newBuilder()
+                .maximumSize(maxTypes)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Get all salons as summaries
+     * @return Salon summaries (shared cached list, do not modify)
+     */
+    public List<SalonSummaryDTO> getAllSalons() {
+        return byType.get(ALL_TYPES, key -> findSummaries(new Query()));
+    }
+
+    /**
+     * Get salons of a type as summaries
+     * @param type Salon type (e.g. hair-salon)
+     * @return Salon summaries (shared cached list, do not modify)
+     */
+    public List<SalonSummaryDTO> getSalonsByType(String type) {
+        return byType.get(type, key -> findSummaries(new Query(Criteria.where("type").is(key))));
+    }
+
+    private List<SalonSummaryDTO> findSummaries(Query query) {
+        query.fields().include(SalonSummaryDTO.FIELDS.toArray(String[]::new));
+        return List.copyOf(mongoTemplate.find(query, SalonSummaryDTO.class, SALONS));
+    }
+
+    /**
+     * All salons as pre-rendered JSON
+     * @return Serialized list with ETag
+     */
+    public RenderedJson getAllSalonsJson() {
+        return renderedByType.get(ALL_TYPES, key -> render(getAllSalons()));
+    }
+
+    /**
+     * Salons of a type as pre-rendered JSON
+     * @param type Salon type (e.g. hair-salon)
+     * @return Serialized list with ETag
+     */
+    public RenderedJson getSalonsByTypeJson(String type) {
+        return renderedByType.get(type, key -> render(getSalonsByType(key)));
+    }
+
+    /**
+     * Get a salon by ID
+     * @param id Salon ID
+     * @return Salon
+     * @throws ResourceNotFoundException if the salon does not exist
+     */
+    public Salon getSalon(String id) {
+        return findSalon(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + id));
+    }
+
+    /**
+     * Find a salon by ID
+     * Unknown ids are not cached
+     * @param id Salon ID
+     * @return Salon, or empty if it does not exist
+     */
+    public Optional<Salon> findSalon(String id) {
+        return Optional.ofNullable(byId.get(id, key -> salonRepository.findById(key).orElse(null)));
+    }
+
+    // ==================== WRITES ====================
+
+    /**
+     * Create a salon
+     * @param salon New salon
+     * @return Saved salon
+     */
+    public Salon createSalon(Salon salon) {
+        // A client-supplied version would make the save an update of a missing document
+        salon.setVersion(null);
+        Salon saved = salonRepository.save(salon);
+        evictLists(saved.getType());
+        return saved;
+    }
+
+    /**
+     * Update a salon's details
+     * When the details carry the version the client read, the update only applies
+     * to that version; without one the last writer wins as before.
+     * @param id Salon ID
+     * @param salonDetails New values
+     * @return Updated salon
+     * @throws ResourceNotFoundException if the salon does not exist
+     * @throws OptimisticLockingFailureException if the salon changed since the given version
+     */
+    public Salon updateSalon(String id, Salon salonDetails) {
+        // $set of the editable fields only: the write stays the same size however
+        // large the document is, and the rating cache fields are not overwritten.
+        // The version is incremented by MongoTemplate.
+        Update update = new Update();
+        EDITABLE_FIELDS.forEach((field, getter) -> update.set(field, getter.apply(salonDetails)));
+
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (salonDetails.getVersion() != null) {
+            criteria.and("version").is(salonDetails.getVersion());
+        }
+        Query query = new Query(criteria);
+        query.fields().include("type");
+        Salon previous = mongoTemplate.findAndModify(query, update, Salon.class);
+        if (previous == null) {
+            if (salonDetails.getVersion() != null && salonRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException(
+                        "Salon " + id + " was modified since version " + salonDetails.getVersion());
+            }
+            throw new ResourceNotFoundException("Salon not found with id: " + id);
+        }
+
+        byId.invalidate(id);
+        evictLists(previous.getType());
+        if (!Objects.equals(previous.getType(), salonDetails.getType())) {
+            evictLists(salonDetails.getType());
+        }
+        Salon updated = getSalon(id);
+        // A targeted update raises no save event, so push the change into appointment snapshots here
+        appointmentSnapshotService.refreshSalon(updated);
+        return updated;
+    }
+
+    /**
+     * Delete a salon
+     * @param id Salon ID
+     * @throws ResourceNotFoundException if the salon does not exist
+     */
+    public void deleteSalon(String id) {
+        Salon salon = salonRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + id));
+        salonRepository.deleteById(id);
+        byId.invalidate(id);
+        evictLists(salon.getType());
+    }
+
+    /**
+     * Delete every salon
+     * @return Number of salons deleted
+     */
+    public long deleteAllSalons() {
+        long count = salonRepository.count();
+        salonRepository.deleteAll();
+        invalidateAll();
+        return count;
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Drop a salon changed outside this service (e.g. cached rating fields)
+     * @param id Salon ID
+     */
+    public void evictSalon(String id) {
+        Salon cached = byId.asMap().get(id);
+        byId.invalidate(id);
+        if (cached != null && cached.getType() != null) {
+            evictLists(cached.getType());
+        } else {
+            // Type unknown without a read; the lists are few and cheap to reload
+            byType.invalidateAll();
+            renderedByType.invalidateAll();
+        }
+    }
+
+    /**
+     * Drop every cached salon and list
+     */
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byType.invalidateAll();
+        renderedByType.invalidateAll();
+        log.info("Salon catalog cache cleared");
+    }
+
+    private void evictLists(String type) {
+        byType.invalidate(ALL_TYPES);
+        renderedByType.invalidate(ALL_TYPES);
+        if (type != null) {
+            byType.invalidate(type);
+            renderedByType.invalidate(type);
+        }
+    }
+
+    private static Map<String, Function<Salon, Object>> editableFields() {
+        Map<String, Function<Salon, Object>> fields = new LinkedHashMap<>();
+        fields.put("name", Salon::getName);
+        fields.put("type", Salon::getType);
+        fields.put("description", Salon::getDescription);
+        fields.put("bannerImage", Salon::getBannerImage);
+        fields.put("images", Salon::getImages);
+        fields.put("reviews", Salon::getReviews);
+        fields.put("address", Salon::getAddress);
+        fields.put("phone", Salon::getPhone);
+        fields.put("email", Salon::getEmail);
+        fields.put("services", Salon::getServices);
+        fields.put("openTime", Salon::getOpenTime);
+        fields.put("closeTime", Salon::getCloseTime);
+        fields.put("available", Salon::isAvailable);
+        fields.put("manager", Salon::getManager);
+        return fields;
+    }
+
+    private RenderedJson render(List<SalonSummaryDTO> salons) {
+        try {
+            return RenderedJson.of(objectMapper.writeValueAsBytes(salons));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize salons", e);
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    /**
+     * Counters of the catalog caches
+     * @return Salon-by-id, salons-by-type and rendered list statistics
+     */
+    public List<CacheStatsDTO> getStats() {
+        return List.of(statsOf("salonsById", byId), statsOf("salonsByType", byType),
+                statsOf("salonsByTypeJson", renderedByType));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "salonsById");
+        CaffeineCacheMetrics.monitor(registry, byType, "salonsByType");
+        CaffeineCacheMetrics.monitor(registry, renderedByType, "salonsByTypeJson");
+    }
+
+    private CacheStatsDTO statsOf(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .name(name)
+                .size(cache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.RatingRefreshStats;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.SalonRatingAggregate;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class for refreshing the rating fields cached on salons
+ * Review writes only $inc the salon's rating aggregate; copying the totals into
+ * the salon document happens here, off the request thread. Requests for a salon
+ * that is already pending are folded into the pending refresh, so a burst of
+ * reviews within one window costs a single salon write.
+ *
+ * The pending set is bounded; when it is full the refresh runs on the caller's
+ * thread instead of being dropped.
+ *
+ * The counters are published as salon.ratings.refresh.* meters (queue depth,
+ * coalescing ratio, requests by outcome and refresh latency) and returned by
+ * getStats.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalonRatingRefresher implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+    private final SalonCatalogService salonCatalogService;
+
+    @Value("${salon.ratings.refresh.window-ms:500}")
+    private long windowMs;
+
+    @Value("${salon.ratings.refresh.workers:2}")
+    private int workers;
+
+    @Value("${salon.ratings.refresh.max-pending:10000}")
+    private int maxPending;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong totalRefreshNanos = new AtomicLong();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "rating-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Run whatever is still waiting so no salon is left with stale totals
+        List<Runnable> queued = executor.shutdownNow();
+        List<String> remaining = new ArrayList<>(pending);
+        if (!queued.isEmpty() || !remaining.isEmpty()) {
+            log.info("Flushing {} pending salon rating refreshes", remaining.size());
+        }
+        remaining.forEach(this::refresh);
+    }
+
+    /**
+     * Ask for a salon's cached rating to be refreshed from its aggregate
+     * Returns immediately unless the pending set is full.
+     * @param salonId Salon ID
+     */
+    public void requestRefresh(String salonId) {
+        requested.incrementAndGet();
+        if (pending.contains(salonId)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (pending.size() >= maxPending || executor.isShutdown()) {
+            rejected.incrementAndGet();
+            refreshNow(salonId);
+            return;
+        }
+        if (!pending.add(salonId)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        scheduled.incrementAndGet();
+        executor.schedule(() -> refresh(salonId), windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refresh a salon's cached rating on the calling thread
+     * @param salonId Salon ID
+     */
+    public void refreshNow(String salonId) {
+        long started = System.nanoTime();
+        try {
+            copyAggregate(salonId);
+        } finally {
+            refreshes.incrementAndGet();
+            totalRefreshNanos.addAndGet(System.nanoTime() - started);
+        }
+    }
+
+    private void copyAggregate(String salonId) {
+        SalonRatingAggregate aggregate = mongoTemplate.findById(salonId, SalonRatingAggregate.class);
+        if (aggregate == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(salonId)),
+                new Update()
+                        .set("averageRating", aggregate.getAverageRating())
+                        .set("totalReviews", aggregate.getReviewCount()),
+                Salon.class);
+        salonCatalogService.evictSalon(salonId);
+        executed.incrementAndGet();
+        log.debug("Salon {} rating: avg={}, total={}", salonId,
+                aggregate.getAverageRating(), aggregate.getReviewCount());
+    }
+
+    private void refresh(String salonId) {
+        // Leave the pending set before reading, so changes made during the
+        // refresh schedule another one instead of being folded into this one
+        pending.remove(salonId);
+        try {
+            refreshNow(salonId);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Failed to refresh rating of salon {}: {}", salonId, e.getMessage());
+        }
+    }
+
+    /**
+     * Refresher counters
+     * @return Current statistics
+     */
+    public RatingRefreshStats getStats() {
+        return RatingRefreshStats.builder()
+                .queueDepth(pending.size())
+                .requested(requested.get())
+                .coalesced(coalesced.get())
+                .rejected(rejected.get())
+                .executed(executed.get())
+                .failed(failed.get())
+                .coalescingRatio(coalescingRatio())
+                .averageRefreshMs(averageRefreshMs())
+                .build();
+    }
+
+    private double coalescingRatio() {
+        long requestCount = requested.get();
+        return requestCount > 0 ? (double) coalesced.get() / requestCount : 0.0;
+    }
+
+    private double averageRefreshMs() {
+        long refreshCount = refreshes.get();
+        return refreshCount > 0 ? totalRefreshNanos.get() / 1e6 / refreshCount : 0.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("salon.ratings.refresh.queue.depth", pending, Set::size)
+                .description("Salons waiting for a rating refresh")
+                .register(registry);
+        Gauge.builder("salon.ratings.refresh.coalescing.ratio", this, SalonRatingRefresher::coalescingRatio)
+                .description("Share of refresh requests folded into a pending refresh")
+                .register(registry);
+        requestCounter(registry, "coalesced", coalesced);
+        requestCounter(registry, "rejected", rejected);
+        requestCounter(registry, "scheduled", scheduled);
+        FunctionCounter.builder("salon.ratings.refresh.failures", failed, AtomicLong::get)
+                .description("Background rating refreshes that failed")
+                .register(registry);
+        FunctionTimer.builder("salon.ratings.refresh", this,
+                        refresher -> refresher.refreshes.get(),
+                        refresher -> refresher.totalRefreshNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Latency of copying a salon's rating aggregate into the salon")
+                .register(registry);
+    }
+
+    /**
+     * Refresh requests by outcome: scheduled, coalesced into a pending refresh
+     * or rejected (run inline because the queue was full)
+     */
+    private static void requestCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("salon.ratings.refresh.requests", count, AtomicLong::get)
+                .description("Rating refresh requests by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
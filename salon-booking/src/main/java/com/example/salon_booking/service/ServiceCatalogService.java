@@ -0,0 +1,124 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.CacheStatsDTO;
+import com.example.salon_booking.dto.RenderedJson;
+import com.example.salon_booking.models.Service;
+import com.example.salon_booking.repositories.ServiceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Service class for the service catalog
+ * The active service list and the per-category lists are kept serialized
+ * (JSON bytes plus ETag). Services are only written through repositories, so
+ * any save or delete in the services collection drops the rendered lists;
+ * the TTL covers edits made directly in the database.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@org.springframework.stereotype.Service
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceCatalogService {
+
+    /**
+     * Key of the all-active-services list
+     */
+    private static final String ALL_CATEGORIES = "*";
+    private static final String SERVICES = "services";
+
+    private final ServiceRepository serviceRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${salon.catalog.cache.max-types:64}")
+    private long maxCategories;
+
+    @Value("${salon.catalog.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, RenderedJson> renderedByCategory;
+
+    @PostConstruct
+    void createCache() {
+        renderedByCategory = Caffeine.newBuilder()
+                .maximumSize(maxCategories)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Active services as pre-rendered JSON
+     * @return Serialized list with ETag
+     */
+    public RenderedJson getActiveServicesJson() {
+        return renderedByCategory.get(ALL_CATEGORIES, key -> render(serviceRepository.findByActiveTrue()));
+    }
+
+    /**
+     * Active services of a category as pre-rendered JSON
+     * @param category Service category
+     * @return Serialized list with ETag
+     */
+    public RenderedJson getActiveServicesJson(String category) {
+        return renderedByCategory.get(category, key -> render(serviceRepository.findByCategoryAndActiveTrue(key)));
+    }
+
+    /**
+     * Drop the rendered lists after a service is saved or deleted
+     */
+    @EventListener
+    public void onServiceChanged(MongoMappingEvent<?> event) {
+        if ((event instanceof AfterSaveEvent || event instanceof AfterDeleteEvent)
+                && SERVICES.equals(event.getCollectionName())) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Drop every rendered list
+     */
+    public void invalidateAll() {
+        renderedByCategory.invalidateAll();
+        log.debug("Service catalog cache cleared");
+    }
+
+    /**
+     * Counters of the rendered list cache
+     * @return Cache statistics
+     */
+    public CacheStatsDTO getStats() {
+        CacheStats stats = renderedByCategory.stats();
+        return CacheStatsDTO.builder()
+                .name("servicesByCategoryJson")
+                .size(renderedByCategory.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+
+    private RenderedJson render(List<Service> services) {
+        try {
+            return RenderedJson.of(objectMapper.writeValueAsBytes(services));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize services", e);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.AvailabilityIndexReport;
+import com.example.salon_booking.dto.TimeSlotRefResult;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.TimeSlot;
+import com.example.salon_booking.repositories.MongoIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-process availability index for time slots
+ * Keeps each (salon, day) as a bitset over the fixed slot grid so that calendar
+ * reads are answered from memory without touching MongoDB.
+ *
+ * The index is rebuilt on startup, filled lazily for days it has not seen yet and
+ * kept in sync write-through by TimeSlotService and SlotReservationService.
+ * Days whose slots do not line up with the grid are reported as not indexable and
+ * callers fall back to the database. Salons attached to the returned slots are
+ * read through SalonCatalogService, whose cache is evicted on every salon write.
+ *
+ * Write-through only sees this instance's writes. A day is therefore reread
+ * from MongoDB once it is older than salon.availability.index.ttl-seconds, and a
+ * slot booked or freed on another instance can show its old availability for
+ * up to that long. Booking still claims the slot with a conditional update, so
+ * a stale free slot is rejected when booked, never double booked.
+ *
+ * A write that lands while days are being read from MongoDB may not be in the
+ * rows read, and its slot has no grid position yet. While any load is in
+ * flight the latest write per slot is recorded, and a newly installed day
+ * applies the writes recorded after its load started.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotAvailabilityIndex {
+
+    private static final String TIME_SLOTS = "time_slots";
+    private static final int SLOTS_PER_DAY = (24 * 60) / TimeSlotService.SLOT_DURATION_MINUTES;
+    private static final int MAX_RANGE_DAYS = 92;
+
+    private final MongoTemplate mongoTemplate;
+    private final SalonCatalogService salonCatalogService;
+
+    @Value("${salon.availability.index.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final Map<DayKey, DayGrid> days = new ConcurrentHashMap<>();
+    private final Map<String, SlotPosition> positions = new ConcurrentHashMap<>();
+    private volatile LocalDate lastEviction = LocalDate.MIN;
+
+    /**
+     * Latest write per slot while a load is in flight, and the write sequence it got
+     */
+    private final Map<String, SlotWrite> writesDuringLoads = new ConcurrentHashMap<>();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicInteger loadsInFlight = new AtomicInteger();
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Get available slots for a salon on a date from memory
+     * Past slots are excluded when the date is today.
+     * @param salonId Salon ID
+     * @param date Date to check
+     * @return Available slots ordered by start time, or empty if the day is not indexable
+     * @throws ResourceNotFoundException if salon does not exist
+     */
+    public Optional<List<TimeSlot>> getAvailableSlots(String salonId, LocalDate date) {
+        Salon salon = salonCatalogService.getSalon(salonId);
+        DayKey key = new DayKey(salonId, date);
+
+        if (!isCurrent(days.get(key))) {
+            loadRange(salonId, date, date);
+        }
+
+        DayGrid grid = days.get(key);
+        if (grid == null || !grid.aligned) {
+            return Optional.empty();
+        }
+
+        LocalTime after = date.equals(LocalDate.now()) ? LocalTime.now() : null;
+        return Optional.of(grid.availableSlots(date, salon, after));
+    }
+
+    /**
+     * Get available slots for a salon between two dates (inclusive) from memory
+     * @param salonId Salon ID
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Available slots ordered by date and start time, or empty if any day is not indexable
+     * @throws ResourceNotFoundException if salon does not exist
+     */
+    public Optional<List<TimeSlot>> getAvailableSlotsInRange(String salonId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) > MAX_RANGE_DAYS) {
+            return Optional.empty();
+        }
+
+        Salon salon = salonCatalogService.getSalon(salonId);
+
+        boolean missing = startDate.datesUntil(endDate.plusDays(1))
+                .anyMatch(date -> !isCurrent(days.get(new DayKey(salonId, date))));
+        if (missing) {
+            loadRange(salonId, startDate, endDate);
+        }
+
+        List<TimeSlot> slots = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayGrid grid = days.get(new DayKey(salonId, date));
+            if (grid == null || !grid.aligned) {
+                return Optional.empty();
+            }
+            slots.addAll(grid.availableSlots(date, salon, null));
+        }
+        return Optional.of(slots);
+    }
+
+    // ==================== WRITE-THROUGH HOOKS ====================
+
+    /**
+     * Record that a slot became available
+     * @param timeSlotId Time slot ID
+     */
+    public void markAvailable(String timeSlotId) {
+        update(timeSlotId, true);
+    }
+
+    /**
+     * Record that a slot was booked or blocked
+     * @param timeSlotId Time slot ID
+     */
+    public void markUnavailable(String timeSlotId) {
+        update(timeSlotId, false);
+    }
+
+    /**
+     * Drop a day from the index so that it is reloaded on next access
+     * Used after slots are created or removed in bulk
+     * @param salonId Salon ID
+     * @param date Date
+     */
+    public void invalidate(String salonId, LocalDate date) {
+        DayGrid grid = days.remove(new DayKey(salonId, date));
+        if (grid != null) {
+            grid.slotIds().forEach(positions::remove);
+        }
+    }
+
+    private void invalidate(DayKey key, DayGrid grid) {
+        if (days.remove(key, grid)) {
+            grid.slotIds().forEach(positions::remove);
+        }
+    }
+
+    /**
+     * Forget every indexed day
+     */
+    public void clear() {
+        days.clear();
+        positions.clear();
+        log.info("Availability index cleared");
+    }
+
+    // ==================== REBUILD & CONSISTENCY ====================
+
+    /**
+     * Rebuild the index for all slots from today onwards
+     * Runs once the application is ready; a failure leaves the index empty and
+     * it fills lazily instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        long loadStarted = beginLoad();
+        try {
+            long loadedAt = System.nanoTime();
+            Query query = new Query(Criteria.where("date").gte(LocalDate.now()));
+            List<TimeSlotRefResult> rows = mongoTemplate.find(query, TimeSlotRefResult.class, TIME_SLOTS);
+            Map<DayKey, DayGrid> grids = buildGrids(rows, loadedAt);
+
+            clear();
+            grids.forEach((key, grid) -> register(key, grid, loadStarted));
+            lastEviction = LocalDate.now();
+
+            log.info("Availability index rebuilt: {} slots over {} salon-days in {} ms",
+                    rows.size(), grids.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to rebuild availability index: {}", e.getMessage(), e);
+        } finally {
+            endLoad();
+        }
+    }
+
+    /**
+     * Compare every indexed day against the time_slots collection
+     * Days that differ are replaced with the stored state.
+     * @return Report of checked and repaired days
+     */
+    public AvailabilityIndexReport verify() {
+        long started = System.currentTimeMillis();
+        Map<String, List<DayKey>> keysBySalon = days.keySet().stream()
+                .collect(Collectors.groupingBy(DayKey::salonId));
+
+        int checkedSlots = 0;
+        int mismatchedDays = 0;
+
+        for (Map.Entry<String, List<DayKey>> entry : keysBySalon.entrySet()) {
+            LocalDate from = entry.getValue().stream().map(DayKey::date).min(LocalDate::compareTo).orElseThrow();
+            LocalDate to = entry.getValue().stream().map(DayKey::date).max(LocalDate::compareTo).orElseThrow();
+            long loadStarted = beginLoad();
+            try {
+                long loadedAt = System.nanoTime();
+                Map<DayKey, DayGrid> stored = buildGrids(findRows(entry.getKey(), from, to), loadedAt);
+
+                for (DayKey key : entry.getValue()) {
+                    DayGrid indexed = days.get(key);
+                    DayGrid actual = stored.getOrDefault(key, new DayGrid(loadedAt));
+                    checkedSlots += actual.slotIds().size();
+                    if (indexed != null && !indexed.sameState(actual)) {
+                        mismatchedDays++;
+                        log.warn("Availability index drift for salon {} on {}, repairing",
+                                key.salonId(), key.date());
+                        invalidate(key, indexed);
+                        register(key, actual, loadStarted);
+                    }
+                }
+            } finally {
+                endLoad();
+            }
+        }
+
+        return AvailabilityIndexReport.builder()
+                .indexedDays(days.size())
+                .checkedSlots(checkedSlots)
+                .mismatchedDays(mismatchedDays)
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    // ==================== INTERNALS ====================
+
+    private void loadRange(String salonId, LocalDate startDate, LocalDate endDate) {
+        evictPastDays();
+        long loadStarted = beginLoad();
+        try {
+            long loadedAt = System.nanoTime();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                DayKey key = new DayKey(salonId, date);
+                DayGrid indexed = days.get(key);
+                if (indexed != null && !isCurrent(indexed)) {
+                    invalidate(key, indexed);
+                }
+            }
+            Map<DayKey, DayGrid> grids = buildGrids(findRows(salonId, startDate, endDate), loadedAt);
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                DayKey key = new DayKey(salonId, date);
+                DayGrid grid = grids.getOrDefault(key, new DayGrid(loadedAt));
+                if (days.putIfAbsent(key, grid) == null) {
+                    registerPositions(key, grid, loadStarted);
+                }
+            }
+        } finally {
+            endLoad();
+        }
+    }
+
+    /**
+     * Start recording writes for a load
+     * @return Write sequence before the load reads anything
+     */
+    private long beginLoad() {
+        loadsInFlight.incrementAndGet();
+        return writeSequence.get();
+    }
+
+    private void endLoad() {
+        long sequence = writeSequence.get();
+        if (loadsInFlight.decrementAndGet() == 0) {
+            // Loads starting from here on only apply writes after this sequence
+            writesDuringLoads.values().removeIf(write -> write.sequence() <= sequence);
+        }
+    }
+
+    private boolean isCurrent(DayGrid grid) {
+        return grid != null && System.nanoTime() - grid.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    private List<TimeSlotRefResult> findRows(String salonId, LocalDate startDate, LocalDate endDate) {
+        Query query = new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salonId))
+                .and("date").gte(startDate).lte(endDate));
+        return mongoTemplate.find(query, TimeSlotRefResult.class, TIME_SLOTS);
+    }
+
+    private Map<DayKey, DayGrid> buildGrids(List<TimeSlotRefResult> rows, long loadedAt) {
+        Map<DayKey, DayGrid> grids = new HashMap<>();
+        for (TimeSlotRefResult row : rows) {
+            if (row.getSalon() == null || row.getDate() == null || row.getStartTime() == null) {
+                continue;
+            }
+            DayKey key = new DayKey(MongoIds.idOf(row.getSalon()), row.getDate());
+            grids.computeIfAbsent(key, k -> new DayGrid(loadedAt)).put(row);
+        }
+        return grids;
+    }
+
+    private void register(DayKey key, DayGrid grid, long loadStarted) {
+        days.put(key, grid);
+        registerPositions(key, grid, loadStarted);
+    }
+
+    /**
+     * Make an installed day's slots reachable by id, then apply the writes
+     * that may be missing from the rows it was built from
+     */
+    private void registerPositions(DayKey key, DayGrid grid, long loadStarted) {
+        List<String> slotIds = grid.slotIds();
+        slotIds.forEach(slotId -> positions.put(slotId, new SlotPosition(key, grid.indexOf(slotId))));
+        for (String slotId : slotIds) {
+            synchronized (grid) {
+                SlotWrite write = writesDuringLoads.get(slotId);
+                if (write != null && write.sequence() > loadStarted) {
+                    grid.set(grid.indexOf(slotId), write.available());
+                }
+            }
+        }
+    }
+
+    private void update(String timeSlotId, boolean available) {
+        long sequence = writeSequence.incrementAndGet();
+        if (loadsInFlight.get() > 0) {
+            writesDuringLoads.merge(timeSlotId, new SlotWrite(available, sequence),
+                    (recorded, write) -> write.sequence() > recorded.sequence() ? write : recorded);
+        }
+        // Recorded before the position is looked up: a day installed after this
+        // lookup applies the recorded write itself
+        SlotPosition position = positions.get(timeSlotId);
+        if (position == null) {
+            return;
+        }
+        DayGrid grid = days.get(position.key());
+        if (grid != null) {
+            synchronized (grid) {
+                SlotWrite latest = writesDuringLoads.get(timeSlotId);
+                grid.set(position.index(),
+                        latest != null && latest.sequence() > sequence ? latest.available() : available);
+            }
+        }
+    }
+
+    private void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(lastEviction)) {
+            return;
+        }
+        lastEviction = today;
+        days.keySet().stream()
+                .filter(key -> key.date().isBefore(today))
+                .toList()
+                .forEach(key -> invalidate(key.salonId(), key.date()));
+    }
+
+    private static int gridIndex(LocalTime startTime) {
+        int minuteOfDay = startTime.getHour() * 60 + startTime.getMinute();
+        if (startTime.getSecond() != 0 || minuteOfDay % TimeSlotService.SLOT_DURATION_MINUTES != 0) {
+            return -1;
+        }
+        return minuteOfDay / TimeSlotService.SLOT_DURATION_MINUTES;
+    }
+
+    private record DayKey(String salonId, LocalDate date) {
+    }
+
+    private record SlotPosition(DayKey key, int index) {
+    }
+
+    private record SlotWrite(boolean available, long sequence) {
+    }
+
+    /**
+     * One salon-day on the slot grid
+     * Bit i of {@code available} is set when the slot starting at
+     * i * SLOT_DURATION_MINUTES after midnight exists and is free.
+     */
+    private static final class DayGrid {
+
+        private final BitSet available = new BitSet(SLOTS_PER_DAY);
+        private final String[] slotIds = new String[SLOTS_PER_DAY];
+        private final LocalTime[] endTimes = new LocalTime[SLOTS_PER_DAY];
+        private final long loadedAt;
+        private boolean aligned = true;
+
+        /**
+         * @param loadedAt System.nanoTime() before the rows were read
+         */
+        private DayGrid(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private synchronized void put(TimeSlotRefResult row) {
+            int index = gridIndex(row.getStartTime());
+            if (index < 0 || slotIds[index] != null) {
+                aligned = false;
+                return;
+            }
+            slotIds[index] = row.getId();
+            endTimes[index] = row.getEndTime();
+            available.set(index, Boolean.TRUE.equals(row.getIsAvailable()));
+        }
+
+        private synchronized void set(int index, boolean free) {
+            available.set(index, free);
+        }
+
+        private synchronized List<TimeSlot> availableSlots(LocalDate date, Salon salon, LocalTime after) {
+            List<TimeSlot> slots = new ArrayList<>(available.cardinality());
+            for (int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+                LocalTime startTime = LocalTime.MIDNIGHT.plusMinutes((long) i * TimeSlotService.SLOT_DURATION_MINUTES);
+                if (after != null && !startTime.isAfter(after)) {
+                    continue;
+                }
+                slots.add(TimeSlot.builder()
+                        .id(slotIds[i])
+                        .date(date)
+                        .startTime(startTime)
+                        .endTime(endTimes[i])
+                        .isAvailable(true)
+                        .salon(salon)
+                        .build());
+            }
+            return slots;
+        }
+
+        private synchronized List<String> slotIds() {
+            return Arrays.stream(slotIds).filter(id -> id != null).toList();
+        }
+
+        private synchronized int indexOf(String slotId) {
+            for (int i = 0; i < SLOTS_PER_DAY; i++) {
+                if (slotId.equals(slotIds[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private synchronized boolean sameState(DayGrid other) {
+            return aligned == other.aligned
+                    && available.equals(other.available)
+                    && Arrays.equals(slotIds, other.slotIds);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.dto.SlotGenerationReport;
+import com.example.salon_booking.dto.TimeSlotRefResult;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.TimeSlot;
+import com.example.salon_booking.repositories.MongoIds;
+import com.example.salon_booking.repositories.SalonRepository;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for bulk time slot generation
+ * Computes the desired slot grid for N salons x M days, diffs it against the
+ * stored slots with one range query per salon and writes the missing slots with
+ * unordered bulk inserts. Salons are processed in parallel on a bounded pool.
+ *
+ * Runs are idempotent: a salon-day that already has slots is left untouched
+ * (so slots removed on purpose, e.g. a lunch break, are not re-created) and
+ * slots written concurrently by another run are rejected by the unique
+ * date/startTime/salon index and counted as duplicates.
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotGenerationService {
+
+    private static final String TIME_SLOTS = "time_slots";
+    private static final int DUPLICATE_KEY = 11000;
+
+    // Constants for slot generation
+    private static final LocalTime DEFAULT_START_TIME = LocalTime.of(9, 0); // 9:00 AM
+    private static final LocalTime DEFAULT_END_TIME = LocalTime.of(18, 0);  // 6:00 PM
+
+    private final MongoTemplate mongoTemplate;
+    private final SalonRepository salonRepository;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Value("${salon.slots.generation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${salon.slots.generation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${salon.slots.generation.horizon-days:90}")
+    private int horizonDays;
+
+    @Value("${salon.slots.generation.nightly-enabled:false}")
+    private boolean nightlyEnabled;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "slot-generation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Generate slots for every salon
+     * @param startDate First day to generate
+     * @param days Number of days to generate
+     * @return Run report
+     */
+    public SlotGenerationReport generateForAllSalons(LocalDate startDate, int days) {
+        return generate(salonRepository.findAll(), startDate, days);
+    }
+
+    /**
+     * Generate slots for the given salons
+     * Past days are never generated.
+     * @param salons Salons to generate slots for
+     * @param startDate First day to generate
+     * @param days Number of days to generate
+     * @return Run report
+     */
+    public SlotGenerationReport generate(List<Salon> salons, LocalDate startDate, int days) {
+        log.info("Generating slots for {} salons, {} days from {}", salons.size(), days, startDate);
+        long started = System.nanoTime();
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstDate = startDate.isBefore(today) ? today : startDate;
+        LocalDate lastDate = startDate.plusDays(days - 1L);
+
+        List<CompletableFuture<SalonResult>> futures = salons.stream()
+                .map(salon -> CompletableFuture.supplyAsync(
+                        () -> generateForSalon(salon, firstDate, lastDate), executor))
+                .collect(Collectors.toList());
+
+        long created = 0;
+        long daysSkipped = 0;
+        long duplicates = 0;
+        int failed = 0;
+        for (CompletableFuture<SalonResult> future : futures) {
+            SalonResult result = future.join();
+            created += result.created();
+            daysSkipped += result.daysSkipped();
+            duplicates += result.duplicates();
+            if (result.failed()) {
+                failed++;
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        SlotGenerationReport report = SlotGenerationReport.builder()
+                .salons(salons.size())
+                .days(days)
+                .slotsCreated(created)
+                .daysSkipped(daysSkipped)
+                .duplicatesSkipped(duplicates)
+                .failedSalons(failed)
+                .elapsedMs(elapsedMs)
+                .slotsPerSecond(elapsedMs == 0 ? created : created * 1000.0 / elapsedMs)
+                .build();
+
+        log.info("Slot generation finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Nightly top-up of the slot horizon, disabled unless
+     * salon.slots.generation.nightly-enabled is set
+     */
+    @Scheduled(cron = "${salon.slots.generation.cron:0 30 2 * * *}")
+    public void generateNightly() {
+        if (!nightlyEnabled) {
+            return;
+        }
+        generateForAllSalons(LocalDate.now(), horizonDays);
+    }
+
+    private SalonResult generateForSalon(Salon salon, LocalDate firstDate, LocalDate lastDate) {
+        try {
+            Set<LocalDate> existingDates = findDatesWithSlots(salon.getId(), firstDate, lastDate);
+
+            List<TimeSlot> missing = new ArrayList<>();
+            List<LocalDate> createdDates = new ArrayList<>();
+            long daysSkipped = 0;
+            for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                if (existingDates.contains(date)) {
+                    daysSkipped++;
+                    continue;
+                }
+                missing.addAll(buildDay(salon, date));
+                createdDates.add(date);
+            }
+
+            long created = 0;
+            long duplicates = 0;
+            for (int from = 0; from < missing.size(); from += batchSize) {
+                List<TimeSlot> chunk = missing.subList(from, Math.min(from + batchSize, missing.size()));
+                BatchResult batch = insertChunk(chunk);
+                created += batch.inserted();
+                duplicates += batch.duplicates();
+            }
+
+            createdDates.forEach(date -> slotAvailabilityIndex.invalidate(salon.getId(), date));
+            if (created > 0) {
+                log.info("Created {} time slots for salon {}", created, salon.getId());
+            }
+            return new SalonResult(created, daysSkipped, duplicates, false);
+        } catch (Exception e) {
+            log.error("Error generating slots for salon {}: {}", salon.getId(), e.getMessage());
+            return new SalonResult(0, 0, 0, true);
+        }
+    }
+
+    private Set<LocalDate> findDatesWithSlots(String salonId, LocalDate firstDate, LocalDate lastDate) {
+        Query query = new Query(Criteria.where("salon.$id").is(MongoIds.toStoredId(salonId))
+                .and("date").gte(firstDate).lte(lastDate));
+        query.fields().include("date");
+        return mongoTemplate.find(query, TimeSlotRefResult.class, TIME_SLOTS).stream()
+                .map(TimeSlotRefResult::getDate)
+                .collect(Collectors.toSet());
+    }
+
+    private List<TimeSlot> buildDay(Salon salon, LocalDate date) {
+        // Parse salon open/close times or use defaults
+        LocalTime startTime = parseTime(salon.getOpenTime(), DEFAULT_START_TIME);
+        LocalTime endTime = parseTime(salon.getCloseTime(), DEFAULT_END_TIME);
+        int duration = TimeSlotService.SLOT_DURATION_MINUTES;
+
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalTime currentTime = startTime;
+        while (!currentTime.plusMinutes(duration).isAfter(endTime)
+                && currentTime.plusMinutes(duration).isAfter(currentTime)) {
+            slots.add(TimeSlot.builder()
+                    .date(date)
+                    .startTime(currentTime)
+                    .endTime(currentTime.plusMinutes(duration))
+                    .isAvailable(true)
+                    .salon(salon)
+                    .build());
+            currentTime = currentTime.plusMinutes(duration);
+        }
+        return slots;
+    }
+
+    private BatchResult insertChunk(List<TimeSlot> chunk) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TimeSlot.class, TIME_SLOTS);
+        bulk.insert(chunk);
+        try {
+            BulkWriteResult result = bulk.execute();
+            return new BatchResult(result.getInsertedCount(), 0);
+        } catch (BulkOperationException e) {
+            List<BulkWriteError> errors = e.getErrors();
+            long duplicates = errors.stream().filter(error -> error.getCode() == DUPLICATE_KEY).count();
+            if (duplicates < errors.size()) {
+                throw e;
+            }
+            return new BatchResult(e.getResult().getInsertedCount(), duplicates);
+        }
+    }
+
+    private LocalTime parseTime(String timeStr, LocalTime defaultTime) {
+        try {
+            if (timeStr == null || timeStr.isEmpty()) {
+                return defaultTime;
+            }
+            return LocalTime.parse(timeStr);
+        } catch (Exception e) {
+            log.warn("Failed to parse time: {}, using default: {}", timeStr, defaultTime);
+            return defaultTime;
+        }
+    }
+
+    private record SalonResult(long created, long daysSkipped, long duplicates, boolean failed) {
+    }
+
+    private record BatchResult(long inserted, long duplicates) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.salon_booking.service;
+
+import com.example.salon_booking.exception.TimeSlotNotAvailableException;
+import com.example.salon_booking.models.TimeSlot;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Service class for atomic time slot reservation
+ * Claims a slot with a single conditional findAndModify (isAvailable: true -> false)
+ * so that two concurrent bookings for the same slot can never both succeed
+ *
+ * @author Salon Booking System
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotReservationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+
+    /**
+     * Atomically claim a time slot
+     * The availability check, double-booking guard and slot marking happen in one write.
+     * A losing request fails without any additional reads.
+     *
+     * @param timeSlotId Time slot ID
+     * @return Claimed time slot, carrying the reservation token
+     * @throws TimeSlotNotAvailableException if the slot is unknown, already taken or in the past
+     */
+    public TimeSlot reserve(String timeSlotId) {
+        String token = UUID.randomUUID().toString();
+
+        Query query = new Query(Criteria.where("_id").is(timeSlotId)
+                .and("isAvailable").is(true)
+                .and("date").gte(LocalDate.now()));
+        Update update = new Update()
+                .set("isAvailable", false)
+                .set("reservationToken", token)
+                .set("reservedAt", LocalDateTime.now());
+
+        TimeSlot slot = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), TimeSlot.class);
+
+        if (slot == null) {
+            log.info("Slot {} could not be claimed", timeSlotId);
+            slotAvailabilityIndex.markUnavailable(timeSlotId);
+            throw new TimeSlotNotAvailableException("Time slot is not available for booking");
+        }
+
+        // Date is guarded by the query; the start time of today's slots is checked here
+        if (slot.isPast()) {
+            release(timeSlotId, token);
+            throw new TimeSlotNotAvailableException("Cannot book a time slot in the past");
+        }
+
+        slotAvailabilityIndex.markUnavailable(timeSlotId);
+        log.info("Slot {} claimed with reservation {}", timeSlotId, token);
+        return slot;
+    }
+
+    /**
+     * Release a slot only if it is still held by the given reservation
+     * Used to compensate when a booking fails after the slot was claimed
+     *
+     * @param timeSlotId Time slot ID
+     * @param reservationToken Token returned by {@link #reserve(String)}
+     */
+    public void release(String timeSlotId, String reservationToken) {
+        Query query = new Query(Criteria.where("_id").is(timeSlotId)
+                .and("reservationToken").is(reservationToken));
+        UpdateResult result = mongoTemplate.updateFirst(query, releaseUpdate(), TimeSlot.class);
+        if (result.getModifiedCount() > 0) {
+            slotAvailabilityIndex.markAvailable(timeSlotId);
+        }
+        log.info("Released reservation {} on slot {}", reservationToken, timeSlotId);
+    }
+
+    /**
+     * Release a slot regardless of which reservation holds it
+     * Used when an appointment is cancelled or moved to another slot
+     *
+     * @param timeSlotId Time slot ID
+     */
+    public void release(String timeSlotId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(timeSlotId)), releaseUpdate(), TimeSlot.class);
+        slotAvailabilityIndex.markAvailable(timeSlotId);
+        log.info("Released slot {}", timeSlotId);
+    }
+
+    /**
+     * Release many slots with one update, regardless of which reservation holds them
+     * Used when a batch of appointments is cancelled
+     *
+     * @param timeSlotIds Time slot IDs
+     * @return Number of slots that were held and are now free
+     */
+    public long releaseAll(Collection<String> timeSlotIds) {
+        if (timeSlotIds.isEmpty()) {
+            return 0;
+        }
+        UpdateResult result = mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(timeSlotIds)),
+                releaseUpdate(), TimeSlot.class);
+        timeSlotIds.forEach(slotAvailabilityIndex::markAvailable);
+        log.info("Released {} slots", result.getModifiedCount());
+        return result.getModifiedCount();
+    }
+
+    private Update releaseUpdate() {
+        return new Update()
+                .set("isAvailable", true)
+                .unset("reservationToken")
+                .unset("reservedAt");
+    }
+}
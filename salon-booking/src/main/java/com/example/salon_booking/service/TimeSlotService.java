@@ -14,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,14 +31,16 @@ public class TimeSlotService {
     
     private final TimeSlotRepository timeSlotRepository;
     private final SalonRepository salonRepository;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final SlotGenerationService slotGenerationService;
     
-    // Constants for slot generation
-    private static final LocalTime DEFAULT_START_TIME = LocalTime.of(9, 0); // 9:00 AM
-    private static final LocalTime DEFAULT_END_TIME = LocalTime.of(18, 0);  // 6:00 PM
-    private static final int SLOT_DURATION_MINUTES = 30;
+    // Slot length shared by generation and the availability index
+    static final int SLOT_DURATION_MINUTES = 30;
     
     /**
      * Get all available time slots for a salon on a specific date
+     * Served from the in-memory availability index; falls back to the database
+     * for days the index cannot represent
      * @param salonId Salon ID
      * @param date Date to check
      * @return List of available time slots
@@ -47,6 +48,34 @@ public class TimeSlotService {
     public List<TimeSlot> getAvailableSlots(String salonId, LocalDate date) {
         log.info("Fetching available slots for salon {} on {}", salonId, date);
         
+        List<TimeSlot> slots = slotAvailabilityIndex.getAvailableSlots(salonId, date)
+                .orElseGet(() -> findAvailableSlots(salonId, date));
+        
+        log.info("Found {} available slots", slots.size());
+        return slots;
+    }
+    
+    /**
+     * Get available slots for a date range
+     * @param salonId Salon ID
+     * @param startDate Start date
+     * @param endDate End date
+     * @return List of available time slots
+     */
+    public List<TimeSlot> getAvailableSlotsInRange(String salonId, LocalDate startDate, LocalDate endDate) {
+        log.info("Fetching available slots for salon {} from {} to {}", salonId, startDate, endDate);
+        return slotAvailabilityIndex.getAvailableSlotsInRange(salonId, startDate, endDate)
+                .orElseGet(() -> timeSlotRepository.findBySalonIdAndDateBetweenAndIsAvailableTrue(
+                        salonId, startDate, endDate));
+    }
+    
+    /**
+     * Load available slots for a day directly from the database
+     * @param salonId Salon ID
+     * @param date Date to check
+     * @return List of available time slots
+     */
+    private List<TimeSlot> findAvailableSlots(String salonId, LocalDate date) {
         // Verify salon exists
         if (!salonRepository.existsById(salonId)) {
             throw new ResourceNotFoundException("Salon not found with id: " + salonId);
@@ -62,97 +91,31 @@ public class TimeSlotService {
                     .collect(Collectors.toList());
         }
         
-        log.info("Found {} available slots", slots.size());
         return slots;
     }
     
-    /**
-     * Get available slots for a date range
-     * @param salonId Salon ID
-     * @param startDate Start date
-     * @param endDate End date
-     * @return List of available time slots
-     */
-    public List<TimeSlot> getAvailableSlotsInRange(String salonId, LocalDate startDate, LocalDate endDate) {
-        log.info("Fetching available slots for salon {} from {} to {}", salonId, startDate, endDate);
-        return timeSlotRepository.findBySalonIdAndDateBetweenAndIsAvailableTrue(salonId, startDate, endDate);
-    }
-    
     /**
      * Generate time slots for a salon for a specific week
      * @param salonId Salon ID
      * @param startDate Start date of the week
      */
-    @Transactional
     public void generateSlotsForWeek(String salonId, LocalDate startDate) {
         log.info("Generating slots for salon {} starting from {}", salonId, startDate);
         
         Salon salon = salonRepository.findById(salonId)
                 .orElseThrow(() -> new ResourceNotFoundException("Salon not found with id: " + salonId));
         
-        List<TimeSlot> slotsToCreate = new ArrayList<>();
-        
-        // Generate slots for 7 days
-        for (int day = 0; day < 7; day++) {
-            LocalDate date = startDate.plusDays(day);
-            
-            // Skip past dates
-            if (date.isBefore(LocalDate.now())) {
-                continue;
-            }
-            
-            // Check if slots already exist for this date
-            List<TimeSlot> existingSlots = timeSlotRepository.findBySalonIdAndDate(salonId, date);
-            if (!existingSlots.isEmpty()) {
-                log.info("Slots already exist for {} on {}, skipping", salonId, date);
-                continue;
-            }
-            
-            // Parse salon open/close times or use defaults
-            LocalTime startTime = parseTime(salon.getOpenTime(), DEFAULT_START_TIME);
-            LocalTime endTime = parseTime(salon.getCloseTime(), DEFAULT_END_TIME);
-            
-            // Generate slots for this day
-            LocalTime currentTime = startTime;
-            while (currentTime.plusMinutes(SLOT_DURATION_MINUTES).isBefore(endTime) || 
-                   currentTime.plusMinutes(SLOT_DURATION_MINUTES).equals(endTime)) {
-                
-                TimeSlot slot = TimeSlot.builder()
-                        .date(date)
-                        .startTime(currentTime)
-                        .endTime(currentTime.plusMinutes(SLOT_DURATION_MINUTES))
-                        .isAvailable(true)
-                        .salon(salon)
-                        .build();
-                
-                slotsToCreate.add(slot);
-                currentTime = currentTime.plusMinutes(SLOT_DURATION_MINUTES);
-            }
-        }
-        
-        if (!slotsToCreate.isEmpty()) {
-            timeSlotRepository.saveAll(slotsToCreate);
-            log.info("Created {} time slots for salon {}", slotsToCreate.size(), salonId);
-        }
+        slotGenerationService.generate(List.of(salon), startDate, 7);
     }
     
     /**
      * Generate slots for multiple salons
      * @param startDate Start date
      */
-    @Transactional
     public void generateSlotsForAllSalons(LocalDate startDate) {
         log.info("Generating slots for all salons starting from {}", startDate);
         
-        List<Salon> salons = salonRepository.findAll();
-        
-        for (Salon salon : salons) {
-            try {
-                generateSlotsForWeek(salon.getId(), startDate);
-            } catch (Exception e) {
-                log.error("Error generating slots for salon {}: {}", salon.getId(), e.getMessage());
-            }
-        }
+        slotGenerationService.generateForAllSalons(startDate, 7);
         
         log.info("Completed generating slots for all salons");
     }
@@ -170,6 +133,7 @@ public class TimeSlotService {
         
         slot.setIsAvailable(false);
         timeSlotRepository.save(slot);
+        slotAvailabilityIndex.markUnavailable(timeSlotId);
         
         log.info("Slot {} marked as unavailable", timeSlotId);
     }
@@ -187,6 +151,7 @@ public class TimeSlotService {
         
         slot.setIsAvailable(true);
         timeSlotRepository.save(slot);
+        slotAvailabilityIndex.markAvailable(timeSlotId);
         
         log.info("Slot {} marked as available", timeSlotId);
     }
@@ -237,22 +202,4 @@ public class TimeSlotService {
                 .isPast(slot.isPast())
                 .build();
     }
-    
-    /**
-     * Parse time string to LocalTime
-     * @param timeStr Time string (HH:mm format)
-     * @param defaultTime Default time if parsing fails
-     * @return LocalTime
-     */
-    private LocalTime parseTime(String timeStr, LocalTime defaultTime) {
-        try {
-            if (timeStr == null || timeStr.isEmpty()) {
-                return defaultTime;
-            }
-            return LocalTime.parse(timeStr);
-        } catch (Exception e) {
-            log.warn("Failed to parse time: {}, using default: {}", timeStr, defaultTime);
-            return defaultTime;
-        }
-    }
 }
@@ -0,0 +1,360 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.OptimisticRetryStats;
+import com.example.salon_booking.exception.InvalidAppointmentException;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.TimeSlot;
+import com.example.salon_booking.repositories.AppointmentRepository;
+import com.example.salon_booking.repositories.ServiceRepository;
+import com.mongodb.DBRef;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Conflict rate of concurrent reschedules and cancels versus contention
+ * Uses an in-memory stand-in for the appointments collection with a simulated
+ * round trip per call. Saves are checked against the stored version like
+ * Spring Data's @Version, cancels are applied atomically like the guarded
+ * findAndModify. Each appointment gets a burst of reschedules and one cancel;
+ * the number of appointments in flight at once sets the contention.
+ *
+ * The last-writer-wins runs turn the version check off to show what it buys:
+ * a reschedule saved over a cancel silently brings the appointment back.
+ */
+class AppointmentConflictBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int APPOINTMENTS = 128;
+    private static final int RESCHEDULES_PER_APPOINTMENT = 8;
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int[] IN_FLIGHT = { 1, 8, 64 };
+
+    private final Logger retryLogger = (Logger) LoggerFactory.getLogger(OptimisticRetry.class);
+    private Level retryLogLevel;
+
+    @BeforeEach
+    void quietRetryLog() {
+        // Exhausted retries are expected here by the thousand; each would log a WARN
+        retryLogLevel = retryLogger.getLevel();
+        retryLogger.setLevel(Level.ERROR);
+    }
+
+    @AfterEach
+    void restoreRetryLog() {
+        retryLogger.setLevel(retryLogLevel);
+    }
+
+    @Test
+    void conflictRateFallsAsContentionSpreads() throws Exception {
+        double[] conflictRates = new double[IN_FLIGHT.length];
+        int unversionedLostCancels = 0;
+        for (int run = 0; run < IN_FLIGHT.length; run++) {
+            int inFlight = IN_FLIGHT[run];
+            for (int maxAttempts : new int[] { 1, 4 }) {
+                Result result = new Workload(true, maxAttempts).run(inFlight);
+
+                assertEquals(0, result.lostCancels, "a reschedule overwrote a cancel");
+                assertEquals(APPOINTMENTS, result.cancelled, "every cancel must succeed");
+                assertEquals(0, result.heldSlots, "slots still held after every appointment was cancelled");
+                assertEquals(0, result.doubleReleases, "a slot was released twice");
+                assertEquals(APPOINTMENTS * RESCHEDULES_PER_APPOINTMENT,
+                        result.rescheduled + result.rejected + result.exhausted);
+                if (maxAttempts == 1) {
+                    assertEquals(result.stats.getConflicts(), result.exhausted);
+                    conflictRates[run] = result.stats.getConflictRate();
+                }
+            }
+            Result unversioned = new Workload(false, 1).run(inFlight);
+            assertEquals(0, unversioned.stats.getConflicts());
+            unversionedLostCancels += unversioned.lostCancels;
+        }
+
+        // Spreading the same threads over more appointments lowers the contention
+        assertTrue(conflictRates[0] > conflictRates[IN_FLIGHT.length - 1],
+                "conflict rate should fall as more appointments are in flight");
+        assertTrue(unversionedLostCancels > 0, "without the version check a reschedule should overwrite a cancel");
+    }
+
+    @Test
+    void retryRecoversFromConflicts() throws Exception {
+        Result result = new Workload(true, 16).run(1);
+        assertTrue(result.stats.getConflicts() > 0, "the workload should produce conflicts");
+        assertTrue(result.stats.getRecovered() > 0);
+        assertEquals(0, result.exhausted);
+        assertEquals(0, result.lostCancels);
+    }
+
+    // ==================== WORKLOAD ====================
+
+    private static final class Result {
+        int rescheduled;
+        int cancelled;
+        int rejected;
+        int exhausted;
+        int lostCancels;
+        int heldSlots;
+        int doubleReleases;
+        OptimisticRetryStats stats;
+    }
+
+    private static final class Stored {
+        String slotId;
+        AppointmentStatus status = AppointmentStatus.PENDING;
+        long version;
+    }
+
+    /**
+     * One scenario: a fresh service over a fresh in-memory collection
+     */
+    private static final class Workload {
+
+        private final boolean versioned;
+        private final Map<String, Stored> appointments = new HashMap<>();
+        private final Set<String> heldSlots = ConcurrentHashMap.newKeySet();
+        private final AtomicLong slotSequence = new AtomicLong();
+        private final AtomicInteger doubleReleases = new AtomicInteger();
+        private int lostCancels;
+
+        private final OptimisticRetry optimisticRetry = new OptimisticRetry();
+        private final AppointmentService appointmentService;
+
+        Workload(boolean versioned, int maxAttempts) {
+            this.versioned = versioned;
+            ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", maxAttempts);
+            ReflectionTestUtils.setField(optimisticRetry, "backoffMs", 1L);
+
+            AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+            when(appointmentRepository.findById(anyString()))
+                    .thenAnswer(invocation -> Optional.of(read(invocation.getArgument(0))));
+            when(appointmentRepository.save(any(Appointment.class)))
+                    .thenAnswer(invocation -> save(invocation.getArgument(0)));
+
+            MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+            when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                    any(FindAndModifyOptions.class), eq(AppointmentRefResult.class), eq("appointments")))
+                    .thenAnswer(invocation -> cancel(invocation.getArgument(0), invocation.getArgument(1)));
+            when(mongoTemplate.findOne(any(Query.class), eq(AppointmentRefResult.class), eq("appointments")))
+                    .thenAnswer(invocation -> status(invocation.getArgument(0)));
+
+            SlotReservationService slotReservationService = mock(SlotReservationService.class);
+            when(slotReservationService.reserve(anyString()))
+                    .thenAnswer(invocation -> reserve(invocation.getArgument(0)));
+            doAnswer(invocation -> release(invocation.getArgument(0)))
+                    .when(slotReservationService).release(anyString());
+            doAnswer(invocation -> release(invocation.getArgument(0)))
+                    .when(slotReservationService).release(anyString(), any());
+
+            AppointmentListAssembler appointmentListAssembler = mock(AppointmentListAssembler.class);
+            when(appointmentListAssembler.assemble(anyList()))
+                    .thenReturn(List.of(AppointmentResponseDTO.builder().build()));
+
+            appointmentService = new AppointmentService(appointmentRepository, mock(CustomerService.class),
+                    slotReservationService, mock(SalonCatalogService.class), mock(ServiceRepository.class),
+                    appointmentListAssembler, mock(AppointmentSnapshotService.class),
+                    mock(KeysetPaginationService.class),
+                    new AppointmentTransitionExecutor(mongoTemplate, appointmentListAssembler), optimisticRetry,
+                    new ConfirmationCodeGenerator(), mock(ConfirmationCodePool.class),
+                    mock(AppointmentNumberAllocator.class), new BookingMetrics(new SimpleMeterRegistry()));
+        }
+
+        Result run(int inFlight) throws Exception {
+            Result result = new Result();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                for (int first = 0; first < APPOINTMENTS; first += inFlight) {
+                    List<Callable<Void>> tasks = new ArrayList<>();
+                    for (int i = first; i < Math.min(first + inFlight, APPOINTMENTS); i++) {
+                        String id = "appointment-" + i;
+                        seed(id);
+                        for (int r = 0; r < RESCHEDULES_PER_APPOINTMENT; r++) {
+                            tasks.add(() -> {
+                                reschedule(id, result);
+                                return null;
+                            });
+                        }
+                        tasks.add(() -> {
+                            appointmentService.cancelAppointment(id, "Benchmark");
+                            count(result, () -> result.cancelled++);
+                            return null;
+                        });
+                    }
+                    Collections.shuffle(tasks);
+                    runConcurrently(executor, tasks);
+                }
+            } finally {
+                executor.shutdown();
+            }
+            result.lostCancels = lostCancels;
+            result.heldSlots = heldSlots.size();
+            result.doubleReleases = doubleReleases.get();
+            result.stats = optimisticRetry.getStats();
+            return result;
+        }
+
+        private void reschedule(String id, Result result) {
+            try {
+                appointmentService.rescheduleAppointment(id, "slot-" + slotSequence.incrementAndGet());
+                count(result, () -> result.rescheduled++);
+            } catch (InvalidAppointmentException e) {
+                count(result, () -> result.rejected++);
+            } catch (OptimisticLockingFailureException e) {
+                count(result, () -> result.exhausted++);
+            }
+        }
+
+        private static void runConcurrently(ExecutorService executor, List<Callable<Void>> tasks) throws Exception {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        private static void count(Result result, Runnable increment) {
+            synchronized (result) {
+                increment.run();
+            }
+        }
+
+        // ==================== IN-MEMORY STAND-IN ====================
+
+        private synchronized void seed(String id) {
+            Stored stored = new Stored();
+            stored.slotId = "slot-" + slotSequence.incrementAndGet();
+            heldSlots.add(stored.slotId);
+            appointments.put(id, stored);
+        }
+
+        private Appointment read(String id) {
+            roundTrip();
+            synchronized (this) {
+                Stored stored = appointments.get(id);
+                return Appointment.builder()
+                        .id(id)
+                        .status(stored.status)
+                        .version(stored.version)
+                        .timeSlot(TimeSlot.builder().id(stored.slotId).build())
+                        .build();
+            }
+        }
+
+        private Appointment save(Appointment appointment) {
+            roundTrip();
+            synchronized (this) {
+                Stored stored = appointments.get(appointment.getId());
+                if (versioned && appointment.getVersion() != stored.version) {
+                    throw new OptimisticLockingFailureException("Stale version of " + appointment.getId());
+                }
+                if (stored.status == AppointmentStatus.CANCELLED && appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                    lostCancels++;
+                }
+                stored.slotId = appointment.getTimeSlot().getId();
+                stored.status = appointment.getStatus();
+                stored.version++;
+                appointment.setVersion(stored.version);
+                return appointment;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private AppointmentRefResult cancel(Query query, UpdateDefinition update) {
+            Document inc = (Document) update.getUpdateObject().get("$inc");
+            if (inc == null || !inc.containsKey("version")) {
+                throw new IllegalStateException("Status transitions must bump the version");
+            }
+            roundTrip();
+            synchronized (this) {
+                String id = (String) query.getQueryObject().get("_id");
+                Collection<AppointmentStatus> from = (Collection<AppointmentStatus>)
+                        ((Document) query.getQueryObject().get("status")).get("$in");
+                Stored stored = appointments.get(id);
+                if (!from.contains(stored.status)) {
+                    return null;
+                }
+                stored.status = AppointmentStatus.CANCELLED;
+                stored.version++;
+                return AppointmentRefResult.builder()
+                        .id(id)
+                        .status(stored.status)
+                        .timeSlot(new DBRef("time_slots", stored.slotId))
+                        .build();
+            }
+        }
+
+        private synchronized AppointmentRefResult status(Query query) {
+            Stored stored = appointments.get((String) query.getQueryObject().get("_id"));
+            return AppointmentRefResult.builder().status(stored.status).build();
+        }
+
+        private TimeSlot reserve(String slotId) {
+            roundTrip();
+            heldSlots.add(slotId);
+            return TimeSlot.builder().id(slotId).reservationToken(slotId).build();
+        }
+
+        private Void release(String slotId) {
+            roundTrip();
+            if (!heldSlots.remove(slotId)) {
+                doubleReleases.incrementAndGet();
+            }
+            return null;
+        }
+
+        private static void roundTrip() {
+            LockSupport.parkNanos(ROUND_TRIP_NANOS);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for the CSV escaping of AppointmentExportService
+ * Customer-supplied fields must not be read as formulas when the export is
+ * opened in a spreadsheet, and line breaks must stay inside quoted fields.
+ */
+class AppointmentExportServiceTest {
+
+    @Test
+    void formulaPrefixesAreNeutralised() throws Exception {
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", notesField("=HYPERLINK(\"x\")"));
+        assertEquals("'+94771234567", notesField("+94771234567"));
+        assertEquals("'-2+3", notesField("-2+3"));
+        assertEquals("'@SUM(A1)", notesField("@SUM(A1)"));
+        assertEquals("'\tcmd", notesField("\tcmd"));
+        assertEquals("plain notes", notesField("plain notes"));
+    }
+
+    @Test
+    void lineBreaksAreQuoted() throws Exception {
+        assertEquals("\"first\rsecond\"", notesField("first\rsecond"));
+        assertEquals("\"first\nsecond\"", notesField("first\nsecond"));
+        assertEquals("\"'\rleading\"", notesField("\rleading"));
+        assertEquals("\"a, b\"", notesField("a, b"));
+    }
+
+    /**
+     * Export one appointment with the given notes and return its notes field
+     * as written. Only the notes and the ID are set, so the field is the one
+     * between the ID and the empty cancellation reason.
+     */
+    @SuppressWarnings("unchecked")
+    private static String notesField(String notes) throws Exception {
+        AppointmentListAssembler assembler = mock(AppointmentListAssembler.class);
+        when(assembler.streamResponseDTOs(any(Query.class), anyInt(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<List<AppointmentResponseDTO>>>getArgument(2)
+                    .accept(List.of(AppointmentResponseDTO.builder().id("a1").notes(notes).build()));
+            return 1L;
+        });
+        AppointmentExportService service = new AppointmentExportService(assembler, new ObjectMapper());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(new Query(), AppointmentExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        String row = csv.substring(csv.indexOf("\r\n") + 2, csv.lastIndexOf("\r\n"));
+        // a1 followed by 12 empty fields, then the notes and an empty cancellation reason
+        String prefix = "a1" + ",".repeat(13);
+        assertEquals(prefix, row.substring(0, prefix.length()));
+        return row.substring(prefix.length(), row.length() - 1);
+    }
+}
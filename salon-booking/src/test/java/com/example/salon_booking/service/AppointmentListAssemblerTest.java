@@ -0,0 +1,151 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.TimeSlotRefResult;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.Service;
+import com.mongodb.DBRef;
+
+/**
+ * Round-trip test for AppointmentListAssembler
+ * Uses a 10k-appointment fixture behind a stand-in MongoTemplate that counts queries.
+ * Resolving the four @DBRefs per row costs 1 + 4 * N reads; the batched path must stay at 5,
+ * each fetching every referenced id once.
+ */
+class AppointmentListAssemblerTest {
+
+    private static final int APPOINTMENTS = 10_000;
+    private static final int SALONS = 50;
+    private static final int CUSTOMERS = 2_000;
+    private static final int SERVICES = 30;
+
+    private final Map<String, AtomicInteger> queriesPerCollection = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsRequested = new ConcurrentHashMap<>();
+    private List<AppointmentRefResult> fixture;
+    private AppointmentListAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            fixture.add(AppointmentRefResult.builder()
+                    .id("appointment" + i)
+                    .confirmationCode("APT-" + i)
+                    .status(AppointmentStatus.CONFIRMED)
+                    .bookingDate(LocalDateTime.now())
+                    .customer(new DBRef("customers", "customer" + (i % CUSTOMERS)))
+                    .service(new DBRef("services", "service" + (i % SERVICES)))
+                    .timeSlot(new DBRef("time_slots", "slot" + i))
+                    .salon(new DBRef("salons", "salon" + (i % SALONS)))
+                    .build());
+        }
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), ArgumentMatchers.<Class<Object>>any(), anyString()))
+                .thenAnswer(invocation -> find(invocation.getArgument(0), invocation.getArgument(2)));
+        assembler = new AppointmentListAssembler(mongoTemplate);
+    }
+
+    @Test
+    void tenThousandAppointmentsResolveInFiveQueries() {
+        List<AppointmentResponseDTO> dtos = assembler.findResponseDTOs(new Query());
+
+        int queries = queriesPerCollection.values().stream().mapToInt(AtomicInteger::get).sum();
+        assertEquals(APPOINTMENTS, dtos.size());
+        assertEquals(5, queries);
+        for (String collection : List.of("appointments", "customers", "services", "time_slots", "salons")) {
+            assertEquals(1, queriesPerCollection.get(collection).get(), collection);
+        }
+        // Shared references are fetched once, not once per appointment
+        assertEquals(CUSTOMERS, idsRequested.get("customers"));
+        assertEquals(SERVICES, idsRequested.get("services"));
+        assertEquals(SALONS, idsRequested.get("salons"));
+        assertEquals(APPOINTMENTS, idsRequested.get("time_slots"));
+
+        AppointmentResponseDTO last = dtos.get(APPOINTMENTS - 1);
+        assertEquals("appointment" + (APPOINTMENTS - 1), last.getId());
+        assertEquals("Customer " + ((APPOINTMENTS - 1) % CUSTOMERS), last.getCustomerName());
+        assertEquals("Service " + ((APPOINTMENTS - 1) % SERVICES), last.getServiceName());
+        assertEquals("Salon " + ((APPOINTMENTS - 1) % SALONS), last.getSalonName());
+        assertNotNull(last.getStartTime());
+    }
+
+    @Test
+    void danglingReferenceLeavesFieldsEmpty() {
+        fixture = List.of(AppointmentRefResult.builder()
+                .id("appointment0")
+                .customer(new DBRef("customers", "deleted"))
+                .service(new DBRef("services", "service0"))
+                .timeSlot(new DBRef("time_slots", "slot0"))
+                .salon(new DBRef("salons", "salon0"))
+                .build());
+
+        AppointmentResponseDTO dto = assembler.findResponseDTOs(new Query()).get(0);
+
+        assertEquals("deleted", dto.getCustomerId());
+        assertEquals(null, dto.getCustomerName());
+        assertEquals("Salon 0", dto.getSalonName());
+    }
+
+    // ==================== STAND-IN ====================
+
+    private List<?> find(Query query, String collection) {
+        queriesPerCollection.computeIfAbsent(collection, key -> new AtomicInteger()).incrementAndGet();
+        if (collection.equals("appointments")) {
+            return fixture;
+        }
+
+        Collection<?> ids = (Collection<?>) ((Document) query.getQueryObject().get("_id")).get("$in");
+        idsRequested.put(collection, ids.size());
+        return ids.stream()
+                .map(Object::toString)
+                .filter(id -> !id.equals("deleted"))
+                .map(id -> document(collection, id))
+                .collect(Collectors.toList());
+    }
+
+    private Object document(String collection, String id) {
+        String number = id.replaceAll("\\D", "");
+        return switch (collection) {
+            case "customers" -> Customer.builder().id(id).name("Customer " + number).email(id + "@example.com").build();
+            case "services" -> Service.builder().id(id).name("Service " + number).build();
+            case "salons" -> {
+                Salon salon = new Salon();
+                salon.setId(id);
+                salon.setName("Salon " + number);
+                yield salon;
+            }
+            case "time_slots" -> TimeSlotRefResult.builder().id(id).date(LocalDate.now())
+                    .startTime(LocalTime.of(10, 0)).endTime(LocalTime.of(10, 30)).build();
+            default -> throw new IllegalArgumentException(collection);
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.models.Counter;
+
+/**
+ * Tests for leasing appointment number blocks
+ * Every allocator shares one in-memory counters collection, the way several
+ * application instances share the counters collection.
+ */
+class AppointmentNumberAllocatorTest {
+
+    private static final long BLOCK_SIZE = 5;
+
+    private final InMemoryCollection counters = new InMemoryCollection(Counter.class, 0);
+    private final AtomicInteger leases = new AtomicInteger();
+
+    @Test
+    void numbersComeFromOneLeasedBlock() {
+        AppointmentNumberAllocator allocator = allocator();
+
+        for (int i = 1; i <= BLOCK_SIZE; i++) {
+            assertEquals(String.format("APT%05d", i), allocator.next());
+        }
+        assertEquals(1, leases.get());
+        assertEquals(BLOCK_SIZE, counters.get(AppointmentNumberAllocator.SEQUENCE).get("seq"));
+    }
+
+    @Test
+    void exhaustedBlockLeasesTheNextOne() {
+        AppointmentNumberAllocator allocator = allocator();
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            allocator.next();
+        }
+
+        assertEquals("APT00006", allocator.next());
+        assertEquals(2, leases.get());
+        assertEquals(2 * BLOCK_SIZE, counters.get(AppointmentNumberAllocator.SEQUENCE).get("seq"));
+    }
+
+    @Test
+    void leasingContinuesFromTheStoredCounter() {
+        counters.put(new Document("_id", AppointmentNumberAllocator.SEQUENCE).append("seq", 99_998L));
+        AppointmentNumberAllocator allocator = allocator();
+
+        assertEquals("APT99999", allocator.next());
+        // Numbers keep growing past five digits instead of wrapping
+        assertEquals("APT100000", allocator.next());
+    }
+
+    @Test
+    void instancesNeverHandOutTheSameNumber() throws Exception {
+        final int instances = 4;
+        final int threadsPerInstance = 4;
+        final int numbersPerThread = 500;
+        List<AppointmentNumberAllocator> allocators = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            allocators.add(allocator());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(instances * threadsPerInstance);
+        CountDownLatch startGate = new CountDownLatch(1);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (AppointmentNumberAllocator allocator : allocators) {
+            for (int t = 0; t < threadsPerInstance; t++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    for (int i = 0; i < numbersPerThread; i++) {
+                        numbers.add(allocator.next());
+                    }
+                    return null;
+                }));
+            }
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int total = instances * threadsPerInstance * numbersPerThread;
+        assertEquals(total, numbers.size());
+        // Every instance leases whole blocks; what is left in the last ones is never used
+        long leased = (long) leases.get() * BLOCK_SIZE;
+        assertEquals(leased, counters.get(AppointmentNumberAllocator.SEQUENCE).get("seq"));
+        assertTrue(leased - total < instances * BLOCK_SIZE);
+    }
+
+    private AppointmentNumberAllocator allocator() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Counter.class)))
+                .thenAnswer(invocation -> {
+                    leases.incrementAndGet();
+                    return counters.findAndModify(invocation.getArgument(0), invocation.getArgument(1),
+                            invocation.getArgument(2), Counter.class);
+                });
+        AppointmentNumberAllocator allocator = new AppointmentNumberAllocator(mongoTemplate);
+        ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+        return allocator;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.salon_booking.dto.AppointmentBatchItemDTO;
+import com.example.salon_booking.dto.BulkTransitionResult;
+import com.example.salon_booking.exception.InvalidStateTransitionException;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.AppointmentTransition;
+
+/**
+ * Tests for status-guarded appointment transitions against a real mongod
+ * Racing transitions of one appointment must leave exactly one winner, with
+ * the loser told why, and a batch must report only the appointments its own
+ * bulk write changed.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AppointmentTransitionMongoTest {
+
+    private static final int APPOINTMENTS = 200;
+
+    private MongoTemplate mongoTemplate;
+    private AppointmentTransitionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = MongoTestDatabase.create();
+        executor = new AppointmentTransitionExecutor(mongoTemplate, new AppointmentListAssembler(mongoTemplate));
+    }
+
+    @Test
+    void racingCompleteAndCancelLeaveOneWinner() throws Exception {
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            insertAppointment("a" + i, AppointmentStatus.CONFIRMED);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Throwable>> completes = new ArrayList<>();
+        List<Future<Throwable>> cancels = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            String id = "a" + i;
+            completes.add(pool.submit(() -> attempt(startGate, id, AppointmentTransition.COMPLETE)));
+            cancels.add(pool.submit(() -> attempt(startGate, id, AppointmentTransition.CANCEL)));
+        }
+
+        startGate.countDown();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Throwable completeError = completes.get(i).get(30, TimeUnit.SECONDS);
+            Throwable cancelError = cancels.get(i).get(30, TimeUnit.SECONDS);
+            // Both leave a final status, so exactly one of them can match
+            assertEquals(1, (completeError == null ? 0 : 1) + (cancelError == null ? 0 : 1));
+            assertInstanceOf(InvalidStateTransitionException.class,
+                    completeError != null ? completeError : cancelError);
+            Document stored = appointment("a" + i);
+            assertEquals(completeError == null ? "COMPLETED" : "CANCELLED", stored.get("status"));
+            assertEquals(1, stored.getInteger("version"));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void transitionFromAFinalStatusIsRejected() {
+        insertAppointment("a1", AppointmentStatus.COMPLETED);
+
+        assertThrows(InvalidStateTransitionException.class,
+                () -> executor.apply("a1", AppointmentTransition.CANCEL));
+        assertThrows(ResourceNotFoundException.class,
+                () -> executor.apply("missing", AppointmentTransition.CANCEL));
+        assertEquals("COMPLETED", appointment("a1").get("status"));
+        assertEquals(0, appointment("a1").getInteger("version"));
+    }
+
+    @Test
+    void batchReportsOnlyTheAppointmentsItChanged() {
+        insertAppointment("a1", AppointmentStatus.PENDING);
+        insertAppointment("a2", AppointmentStatus.PENDING);
+        mongoTemplate.insert(new Document("_id", "a3").append("status", "CONFIRMED").append("version", 1)
+                .append("batchId", "other-batch").append("updatedAt", new Date()), "appointments");
+        insertAppointment("a4", AppointmentStatus.CANCELLED);
+
+        BulkTransitionResult result = executor.applyAll(List.of(
+                batchItem("a1", AppointmentTransition.CONFIRM),
+                batchItem("a2", AppointmentTransition.CANCEL),
+                batchItem("a3", AppointmentTransition.CONFIRM),
+                batchItem("a4", AppointmentTransition.CONFIRM),
+                batchItem("missing", AppointmentTransition.CONFIRM)));
+
+        assertEquals(Set.of("a1", "a2"), result.getApplied());
+        assertEquals(Set.of("a1", "a2", "a3", "a4"), result.getRows().keySet());
+        assertEquals(AppointmentStatus.CONFIRMED, result.getRows().get("a1").getStatus());
+        assertEquals(AppointmentStatus.CANCELLED, result.getRows().get("a2").getStatus());
+        assertEquals("other-batch", appointment("a3").get("batchId"));
+        assertEquals("CANCELLED", appointment("a4").get("status"));
+    }
+
+    private Throwable attempt(CountDownLatch startGate, String id, AppointmentTransition transition)
+            throws InterruptedException {
+        startGate.await();
+        try {
+            executor.apply(id, transition);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void insertAppointment(String id, AppointmentStatus status) {
+        mongoTemplate.insert(new Document("_id", id).append("status", status.name()).append("version", 0),
+                "appointments");
+    }
+
+    private Document appointment(String id) {
+        return mongoTemplate.findById(id, Document.class, "appointments");
+    }
+
+    private static AppointmentBatchItemDTO batchItem(String id, AppointmentTransition transition) {
+        return AppointmentBatchItemDTO.builder().appointmentId(id).transition(transition).build();
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.example.salon_booking.dto.AppointmentBatchItemDTO;
+import com.example.salon_booking.dto.AppointmentRefResult;
+import com.example.salon_booking.dto.BulkTransitionResult;
+import com.example.salon_booking.exception.InvalidStateTransitionException;
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.AppointmentTransition;
+import com.mongodb.DBRef;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Tests for AppointmentTransitionExecutor
+ * Uses an in-memory stand-in for MongoTemplate that applies the status-guarded
+ * findAndModify atomically, the same guarantee MongoDB gives per document.
+ * Covers racing transitions, batches (against an in-memory collection running
+ * the executor's real bulk updates) and a small JMH-style throughput comparison
+ * of the single conditional write against the read-check-write it replaces.
+ */
+class AppointmentTransitionTest {
+
+    private static final int THREADS = 64;
+    private static final int APPOINTMENTS = 2_000;
+
+    private final Map<String, AppointmentStatus> statuses = new ConcurrentHashMap<>();
+    private final InMemoryCollection appointments = new InMemoryCollection(Appointment.class, 0);
+    private final AtomicLong roundTrips = new AtomicLong();
+    private volatile long roundTripNanos;
+
+    private MongoTemplate mongoTemplate;
+    private AppointmentTransitionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(AppointmentRefResult.class), eq("appointments")))
+                .thenAnswer(invocation -> transition(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.findOne(any(Query.class), eq(AppointmentRefResult.class), eq("appointments")))
+                .thenAnswer(invocation -> current(invocation.getArgument(0)));
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Appointment.class, "appointments"))
+                .thenAnswer(invocation -> bulkOperations());
+        when(mongoTemplate.find(any(Query.class), eq(AppointmentRefResult.class), eq("appointments")))
+                .thenAnswer(invocation -> appointments.find(invocation.getArgument(0), AppointmentRefResult.class));
+
+        executor = new AppointmentTransitionExecutor(mongoTemplate, new AppointmentListAssembler(mongoTemplate));
+    }
+
+    @Test
+    void tableMatchesTheDocumentedLifecycle() {
+        assertTrue(AppointmentStatus.PENDING.canTransitionTo(AppointmentStatus.CONFIRMED));
+        assertTrue(AppointmentStatus.PENDING.canTransitionTo(AppointmentStatus.CANCELLED));
+        assertTrue(AppointmentStatus.CONFIRMED.canTransitionTo(AppointmentStatus.COMPLETED));
+        assertTrue(AppointmentStatus.CONFIRMED.canTransitionTo(AppointmentStatus.CANCELLED));
+        assertTrue(AppointmentStatus.CONFIRMED.canTransitionTo(AppointmentStatus.NO_SHOW));
+        assertFalse(AppointmentStatus.PENDING.canTransitionTo(AppointmentStatus.COMPLETED));
+        assertFalse(AppointmentStatus.PENDING.canTransitionTo(AppointmentStatus.NO_SHOW));
+        for (AppointmentStatus finalStatus : AppointmentStatus.values()) {
+            if (!finalStatus.isFinalState()) {
+                continue;
+            }
+            for (AppointmentStatus target : AppointmentStatus.values()) {
+                assertFalse(finalStatus.canTransitionTo(target), finalStatus + " -> " + target);
+            }
+        }
+    }
+
+    @Test
+    void successfulTransitionIsOneRoundTrip() {
+        statuses.put("a1", AppointmentStatus.CONFIRMED);
+
+        AppointmentRefResult result = executor.apply("a1", AppointmentTransition.NO_SHOW);
+
+        assertEquals(AppointmentStatus.NO_SHOW, result.getStatus());
+        assertEquals(1, roundTrips.get());
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(AppointmentRefResult.class), eq("appointments"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(AppointmentRefResult.class), eq("appointments"));
+    }
+
+    @Test
+    void rejectedTransitionIsAConflictOrNotFound() {
+        statuses.put("a1", AppointmentStatus.CANCELLED);
+
+        InvalidStateTransitionException conflict = assertThrows(InvalidStateTransitionException.class,
+                () -> executor.apply("a1", AppointmentTransition.CONFIRM));
+        assertTrue(conflict.getMessage().contains("CANCELLED"));
+        assertEquals(AppointmentStatus.CANCELLED, statuses.get("a1"));
+        assertThrows(ResourceNotFoundException.class, () -> executor.apply("missing", AppointmentTransition.CONFIRM));
+    }
+
+    @Test
+    void racingConfirmAndCancelAlwaysEndCancelled() throws Exception {
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            statuses.put("a" + i, AppointmentStatus.PENDING);
+        }
+        Map<AppointmentTransition, AtomicInteger> wins = counters();
+        Map<AppointmentTransition, AtomicInteger> conflicts = counters();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            String id = "a" + i;
+            tasks.add(attempt(id, AppointmentTransition.CONFIRM, wins, conflicts));
+            tasks.add(attempt(id, AppointmentTransition.CANCEL, wins, conflicts));
+        }
+        runConcurrently(tasks);
+
+        // Cancel is allowed from both PENDING and CONFIRMED, so it always wins;
+        // confirm only wins when it lands first
+        assertEquals(APPOINTMENTS, wins.get(AppointmentTransition.CANCEL).get());
+        assertEquals(0, conflicts.get(AppointmentTransition.CANCEL).get());
+        assertEquals(APPOINTMENTS, wins.get(AppointmentTransition.CONFIRM).get()
+                + conflicts.get(AppointmentTransition.CONFIRM).get());
+        assertTrue(statuses.values().stream().allMatch(status -> status == AppointmentStatus.CANCELLED));
+    }
+
+    @Test
+    void racingFinalTransitionsHaveExactlyOneWinner() throws Exception {
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            statuses.put("a" + i, AppointmentStatus.CONFIRMED);
+        }
+        Map<AppointmentTransition, AtomicInteger> wins = counters();
+        Map<AppointmentTransition, AtomicInteger> conflicts = counters();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            String id = "a" + i;
+            tasks.add(attempt(id, AppointmentTransition.COMPLETE, wins, conflicts));
+            tasks.add(attempt(id, AppointmentTransition.CANCEL, wins, conflicts));
+            tasks.add(attempt(id, AppointmentTransition.NO_SHOW, wins, conflicts));
+        }
+        runConcurrently(tasks);
+
+        int totalWins = wins.values().stream().mapToInt(AtomicInteger::get).sum();
+        int totalConflicts = conflicts.values().stream().mapToInt(AtomicInteger::get).sum();
+        assertEquals(APPOINTMENTS, totalWins);
+        assertEquals(2 * APPOINTMENTS, totalConflicts);
+        for (AppointmentTransition transition : wins.keySet()) {
+            long ended = statuses.values().stream().filter(status -> status == transition.getTo()).count();
+            assertEquals(wins.get(transition).get(), ended, transition.name());
+        }
+    }
+
+    // ==================== BATCHES ====================
+
+    @Test
+    void batchReportsOnlyTheAppointmentsItChanged() {
+        appointments.put(new Document("_id", "a1").append("status", "PENDING"));
+        appointments.put(new Document("_id", "a2").append("status", "PENDING"));
+        // Confirmed a moment ago by another batch: already in the target status
+        appointments.put(new Document("_id", "a3").append("status", "CONFIRMED")
+                .append("batchId", "other-batch").append("updatedAt", new Date()));
+        appointments.put(new Document("_id", "a4").append("status", "CANCELLED"));
+
+        BulkTransitionResult result = executor.applyAll(List.of(
+                batchItem("a1", AppointmentTransition.CONFIRM),
+                batchItem("a2", AppointmentTransition.CANCEL),
+                batchItem("a3", AppointmentTransition.CONFIRM),
+                batchItem("a4", AppointmentTransition.CONFIRM),
+                batchItem("missing", AppointmentTransition.CONFIRM)));
+
+        assertEquals(Set.of("a1", "a2"), result.getApplied());
+        assertEquals(Set.of("a1", "a2", "a3", "a4"), result.getRows().keySet());
+        assertEquals(AppointmentStatus.CONFIRMED, result.getRows().get("a1").getStatus());
+        assertEquals(AppointmentStatus.CANCELLED, result.getRows().get("a2").getStatus());
+        assertEquals("other-batch", appointments.get("a3").get("batchId"));
+        assertEquals("CANCELLED", appointments.get("a4").get("status"));
+    }
+
+    @Test
+    void emptyBatchWritesNothing() {
+        BulkTransitionResult result = executor.applyAll(List.of());
+
+        assertTrue(result.getApplied().isEmpty());
+        assertTrue(result.getRows().isEmpty());
+        verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), eq(Appointment.class), eq("appointments"));
+    }
+
+    private static AppointmentBatchItemDTO batchItem(String id, AppointmentTransition transition) {
+        return AppointmentBatchItemDTO.builder().appointmentId(id).transition(transition).build();
+    }
+
+    /**
+     * Bulk write that queues the guarded updates and applies them to the in-memory collection
+     */
+    private BulkOperations bulkOperations() {
+        List<Query> queries = new ArrayList<>();
+        List<UpdateDefinition> updates = new ArrayList<>();
+        return mock(BulkOperations.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "updateOne" -> {
+                    queries.add(invocation.getArgument(0));
+                    updates.add(invocation.getArgument(1));
+                    return invocation.getMock();
+                }
+                case "execute" -> {
+                    int matched = 0;
+                    for (int i = 0; i < queries.size(); i++) {
+                        matched += (int) appointments.updateFirst(queries.get(i), updates.get(i)).getMatchedCount();
+                    }
+                    return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of());
+                }
+                default -> throw new UnsupportedOperationException(invocation.getMethod().getName());
+            }
+        });
+    }
+
+    // ==================== MICRO-BENCHMARK ====================
+
+    @Test
+    void conditionalWriteVersusReadCheckWrite() {
+        // Simulated server round trip; the executor's own work is negligible next to it
+        roundTripNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        AtomicLong sequence = new AtomicLong();
+
+        double conditional = measure(() -> {
+            String id = "b" + sequence.incrementAndGet();
+            statuses.put(id, AppointmentStatus.PENDING);
+            executor.apply(id, AppointmentTransition.CONFIRM);
+        });
+        double readCheckWrite = measure(() -> {
+            String id = "b" + sequence.incrementAndGet();
+            statuses.put(id, AppointmentStatus.PENDING);
+            AppointmentRefResult read = current(new Query(Criteria.where("_id").is(id)));
+            if (AppointmentTransition.CONFIRM.isAllowedFrom(read.getStatus())) {
+                executor.apply(id, AppointmentTransition.CONFIRM);
+            }
+        });
+
+        roundTripNanos = 0;
+        double noLatency = measure(() -> {
+            String id = "b" + sequence.incrementAndGet();
+            statuses.put(id, AppointmentStatus.PENDING);
+            executor.apply(id, AppointmentTransition.CONFIRM);
+        });
+
+        assertTrue(conditional > readCheckWrite, "one round trip should beat two");
+        assertTrue(noLatency > conditional, "the executor's own work should be small next to a round trip");
+    }
+
+    /**
+     * JMH-style measurement: warmup iterations, then the mean of the timed iterations
+     * @return Mean throughput in ops/s
+     */
+    private double measure(Runnable operation) {
+        final int warmupIterations = 3;
+        final int measurementIterations = 5;
+        final long iterationNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+        for (int i = 0; i < warmupIterations; i++) {
+            runFor(iterationNanos, operation);
+        }
+        double[] throughput = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            throughput[i] = runFor(iterationNanos, operation);
+        }
+
+        double mean = 0;
+        for (double value : throughput) {
+            mean += value / measurementIterations;
+        }
+        statuses.clear();
+        return mean;
+    }
+
+    private static double runFor(long iterationNanos, Runnable operation) {
+        long operations = 0;
+        long started = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            operations++;
+            elapsed = System.nanoTime() - started;
+        } while (elapsed < iterationNanos);
+        return operations / (elapsed / 1e9);
+    }
+
+    // ==================== HELPERS ====================
+
+    private Callable<Void> attempt(String id, AppointmentTransition transition,
+                                   Map<AppointmentTransition, AtomicInteger> wins,
+                                   Map<AppointmentTransition, AtomicInteger> conflicts) {
+        return () -> {
+            try {
+                executor.apply(id, transition);
+                wins.get(transition).incrementAndGet();
+            } catch (InvalidStateTransitionException e) {
+                conflicts.get(transition).incrementAndGet();
+            }
+            return null;
+        };
+    }
+
+    private static Map<AppointmentTransition, AtomicInteger> counters() {
+        Map<AppointmentTransition, AtomicInteger> counters = new EnumMap<>(AppointmentTransition.class);
+        for (AppointmentTransition transition : AppointmentTransition.values()) {
+            counters.put(transition, new AtomicInteger());
+        }
+        return counters;
+    }
+
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(pool.submit(() -> {
+                startGate.await();
+                return task.call();
+            }));
+        }
+        startGate.countDown();
+        for (Future<Void> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    // ==================== IN-MEMORY STAND-IN ====================
+
+    @SuppressWarnings("unchecked")
+    private AppointmentRefResult transition(Query query, UpdateDefinition update) {
+        roundTrip();
+        String id = (String) query.getQueryObject().get("_id");
+        Collection<AppointmentStatus> from = (Collection<AppointmentStatus>)
+                ((Document) query.getQueryObject().get("status")).get("$in");
+        AppointmentStatus to = (AppointmentStatus) ((Document) update.getUpdateObject().get("$set")).get("status");
+
+        AppointmentStatus[] applied = new AppointmentStatus[1];
+        statuses.computeIfPresent(id, (key, status) -> {
+            if (from.contains(status)) {
+                applied[0] = to;
+                return to;
+            }
+            return status;
+        });
+        if (applied[0] == null) {
+            return null;
+        }
+        return AppointmentRefResult.builder()
+                .id(id)
+                .status(applied[0])
+                .timeSlot(new DBRef("time_slots", "slot-" + id))
+                .build();
+    }
+
+    private AppointmentRefResult current(Query query) {
+        roundTrip();
+        AppointmentStatus status = statuses.get((String) query.getQueryObject().get("_id"));
+        return status == null ? null : AppointmentRefResult.builder().status(status).build();
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+    }
+}
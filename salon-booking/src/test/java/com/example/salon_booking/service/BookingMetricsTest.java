@@ -0,0 +1,55 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the salon tag of booking step timers
+ * Every step of a booking, the salon lookup included, must carry the same tag,
+ * even on the first booking of a salon.
+ */
+class BookingMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BookingMetrics bookingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        bookingMetrics = new BookingMetrics(meterRegistry);
+        ReflectionTestUtils.setField(bookingMetrics, "maxSalonTags", 1);
+    }
+
+    @Test
+    void firstBookingOfASalonTagsEveryStepWithIt() {
+        bookingMetrics.salonFetch("salon1", () -> "found");
+        bookingMetrics.step("slot_reserve", "salon1", () -> "reserved");
+
+        assertEquals(1, stepCount("salon_fetch", "salon1"));
+        assertEquals(1, stepCount("slot_reserve", "salon1"));
+    }
+
+    @Test
+    void unknownSalonsAndSalonsOverTheLimitShareOneTag() {
+        assertThrows(ResourceNotFoundException.class, () -> bookingMetrics.salonFetch("missing", () -> {
+            throw new ResourceNotFoundException("Salon not found with id: missing");
+        }));
+        bookingMetrics.salonFetch("salon1", () -> "found");
+        bookingMetrics.salonFetch("salon2", () -> "found");
+
+        assertEquals(1, stepCount("salon_fetch", "salon1"));
+        assertEquals(2, stepCount("salon_fetch", BookingMetrics.OTHER_SALONS));
+    }
+
+    private long stepCount(String step, String salon) {
+        return meterRegistry.get(BookingMetrics.STEP_TIMER).tags("step", step, "salon", salon).timer().count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the confirmation code format and its check character
+ */
+class ConfirmationCodeGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int CODES = 2_000;
+
+    private final ConfirmationCodeGenerator generator = new ConfirmationCodeGenerator();
+
+    @Test
+    void codesAreCrockfordBase32WithAValidCheckCharacter() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < CODES; i++) {
+            String code = generator.next();
+            assertTrue(code.matches("APT-[" + ALPHABET + "]{12}"), code);
+            assertTrue(generator.isPlausible(code), code);
+            seen.add(code);
+        }
+        assertEquals(CODES, seen.size());
+    }
+
+    @Test
+    void everySingleCharacterTypoIsRejected() {
+        for (int i = 0; i < 100; i++) {
+            String code = generator.next();
+            for (int position = ConfirmationCodeGenerator.PREFIX.length(); position < code.length(); position++) {
+                for (char replacement : ALPHABET.toCharArray()) {
+                    if (replacement != code.charAt(position)) {
+                        String typo = code.substring(0, position) + replacement + code.substring(position + 1);
+                        assertFalse(generator.isPlausible(typo), code + " -> " + typo);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void adjacentTranspositionsAreRejected() {
+        for (int i = 0; i < CODES; i++) {
+            String code = generator.next();
+            for (int position = ConfirmationCodeGenerator.PREFIX.length(); position < code.length() - 1; position++) {
+                char first = code.charAt(position);
+                char second = code.charAt(position + 1);
+                // Luhn mod N cannot see a swap of the first and last alphabet characters
+                if (first == second || (first == '0' && second == 'Z') || (first == 'Z' && second == '0')) {
+                    continue;
+                }
+                String swapped = code.substring(0, position) + second + first + code.substring(position + 2);
+                assertFalse(generator.isPlausible(swapped), code + " -> " + swapped);
+            }
+        }
+    }
+
+    @Test
+    void typedCodesAreNormalized() {
+        String code = generator.next();
+        String typed = "  " + code.toLowerCase().replace('0', 'o').replace('1', 'l') + " ";
+
+        assertEquals(code, generator.normalize(typed));
+        assertTrue(generator.isPlausible(generator.normalize(typed)));
+    }
+
+    @Test
+    void legacyAndForeignCodesAreNotChecked() {
+        assertTrue(generator.isPlausible("APT-1A2B3C4D"));
+        assertTrue(generator.isPlausible("SOMETHING-ELSE"));
+        assertFalse(generator.isPlausible("APT-0M4XR7K2QHU!"));
+        assertFalse(generator.isPlausible("APT-0M4XR7K2QHUC"));
+    }
+}
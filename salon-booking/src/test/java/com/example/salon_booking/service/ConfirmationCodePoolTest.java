@@ -0,0 +1,143 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.ConfirmationCodePoolStats;
+
+/**
+ * Tests for the confirmation code pool
+ * The generator hands out numbered codes. Every third of the first batch is
+ * already used by an appointment: those must never leave the pool, and the
+ * refill must replace them.
+ */
+class ConfirmationCodePoolTest {
+
+    private static final int POOL_SIZE = 16;
+    private static final int REFILL_THRESHOLD = 4;
+
+    private final AtomicInteger generated = new AtomicInteger();
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private ConfirmationCodePool pool;
+
+    @BeforeEach
+    void setUp() {
+        ConfirmationCodeGenerator generator = mock(ConfirmationCodeGenerator.class);
+        when(generator.next()).thenAnswer(invocation -> "APT-" + generated.incrementAndGet());
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("confirmationCode"), eq("appointments"),
+                eq(String.class))).thenAnswer(invocation -> {
+            if (databaseDown.get()) {
+                throw new DataAccessResourceFailureException("primary unavailable");
+            }
+            return usedCodes(invocation.getArgument(0));
+        });
+
+        pool = new ConfirmationCodePool(generator, mongoTemplate);
+        ReflectionTestUtils.setField(pool, "poolSize", POOL_SIZE);
+        ReflectionTestUtils.setField(pool, "refillThreshold", REFILL_THRESHOLD);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.stop();
+    }
+
+    @Test
+    void startFillsThePoolWithUnusedCodes() {
+        pool.start();
+        awaitUntil(() -> pool.getStats().getAvailable() == POOL_SIZE);
+
+        ConfirmationCodePoolStats stats = pool.getStats();
+        assertEquals(POOL_SIZE / 3, stats.getCollisions());
+        assertEquals(POOL_SIZE + POOL_SIZE / 3, stats.getCodesGenerated());
+        assertEquals(1, stats.getRefills());
+        for (int i = 0; i < POOL_SIZE; i++) {
+            assertFalse(isUsed(pool.take()));
+        }
+        assertEquals(0, pool.getStats().getGeneratedInline());
+    }
+
+    @Test
+    void poolIsRefilledOnceBelowTheThreshold() {
+        pool.start();
+        awaitUntil(() -> pool.getStats().getAvailable() == POOL_SIZE);
+        long refills = pool.getStats().getRefills();
+
+        Set<String> taken = new HashSet<>();
+        for (int i = 0; i < POOL_SIZE - REFILL_THRESHOLD + 1; i++) {
+            taken.add(pool.take());
+        }
+        awaitUntil(() -> pool.getStats().getAvailable() == POOL_SIZE);
+
+        assertTrue(pool.getStats().getRefills() > refills);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            String code = pool.take();
+            assertFalse(isUsed(code));
+            assertTrue(taken.add(code), "code handed out twice: " + code);
+        }
+    }
+
+    @Test
+    void emptyPoolFallsBackToTheGenerator() {
+        databaseDown.set(true);
+        pool.start();
+        awaitUntil(() -> pool.getStats().getRefillFailures() > 0);
+
+        String code = pool.take();
+
+        assertTrue(code.startsWith("APT-"));
+        assertEquals(1, pool.getStats().getGeneratedInline());
+        assertEquals(0, pool.getStats().getAvailable());
+        // Taking from the empty pool asked for another refill, which fails too
+        awaitUntil(() -> pool.getStats().getRefillFailures() == 2);
+
+        databaseDown.set(false);
+        assertEquals(POOL_SIZE, pool.refill());
+        assertEquals(0, pool.refill());
+    }
+
+    private static List<String> usedCodes(Query query) {
+        Collection<?> codes = (Collection<?>) ((Document) query.getQueryObject().get("confirmationCode")).get("$in");
+        return codes.stream().map(Object::toString).filter(ConfirmationCodePoolTest::isUsed).toList();
+    }
+
+    private static boolean isUsed(String code) {
+        int number = Integer.parseInt(code.substring("APT-".length()));
+        return number <= POOL_SIZE && number % 3 == 0;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met within 5 s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.example.salon_booking.config.CustomerEmailMigration;
+import com.example.salon_booking.dto.CustomerEmailGroup;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.repositories.CustomerRepository;
+import com.mongodb.DBRef;
+
+/**
+ * Tests for CustomerEmailMigration
+ * The customers and appointments collections are in-memory stand-ins running
+ * the migration's real updates and removes. The email groups are what
+ * findEmailGroupsToNormalize returns for these customers: oldest first, with
+ * the normalized email.
+ */
+class CustomerEmailMigrationTest {
+
+    private static final ObjectId JANE = new ObjectId();
+    private static final ObjectId JANE_AGAIN = new ObjectId();
+    private static final ObjectId JANE_UPPER = new ObjectId();
+    private static final ObjectId SOLO = new ObjectId();
+    private static final ObjectId BOB = new ObjectId();
+
+    private final InMemoryCollection customers = new InMemoryCollection(Customer.class, 0);
+    private final InMemoryCollection appointments = new InMemoryCollection(Appointment.class, 0);
+
+    private CustomerRepository customerRepository;
+    private AppointmentSnapshotService appointmentSnapshotService;
+    private CustomerEmailMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 0);
+        customers.put(customer(JANE, "Jane.Doe@Example.com ", created));
+        customers.put(customer(JANE_AGAIN, "jane.doe@example.com", created.plusDays(1)));
+        customers.put(customer(JANE_UPPER, "JANE.DOE@EXAMPLE.COM", created.plusDays(2)));
+        customers.put(customer(SOLO, "Solo@Example.com", created));
+        customers.put(customer(BOB, "bob@example.com", created));
+        appointments.put(appointment("a1", JANE));
+        appointments.put(appointment("a2", JANE_AGAIN));
+        appointments.put(appointment("a3", JANE_UPPER));
+        appointments.put(appointment("a4", BOB));
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("appointments")))
+                .thenAnswer(invocation -> appointments.updateMulti(invocation.getArgument(0),
+                        invocation.getArgument(1)));
+        when(mongoTemplate.remove(any(Query.class), eq("customers")))
+                .thenAnswer(invocation -> customers.remove(invocation.getArgument(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("customers")))
+                .thenAnswer(invocation -> customers.updateFirst(invocation.getArgument(0),
+                        invocation.getArgument(1)));
+        when(mongoTemplate.findById(anyString(), eq(Customer.class)))
+                .thenAnswer(invocation -> customers.findById(invocation.getArgument(0), Customer.class));
+
+        customerRepository = mock(CustomerRepository.class);
+        appointmentSnapshotService = mock(AppointmentSnapshotService.class);
+        migration = new CustomerEmailMigration(mongoTemplate, customerRepository, appointmentSnapshotService);
+    }
+
+    @Test
+    void duplicatesAreMergedIntoTheOldestCustomer() {
+        when(customerRepository.findEmailGroupsToNormalize()).thenReturn(List.of(
+                group("jane.doe@example.com", JANE, JANE_AGAIN, JANE_UPPER),
+                group("solo@example.com", SOLO)));
+
+        migration.normalizeEmails();
+
+        assertEquals(3, customers.size());
+        assertNull(customers.get(JANE_AGAIN));
+        assertNull(customers.get(JANE_UPPER));
+        assertEquals("jane.doe@example.com", customers.get(JANE).get("email"));
+        assertEquals("solo@example.com", customers.get(SOLO).get("email"));
+        assertEquals("bob@example.com", customers.get(BOB).get("email"));
+
+        for (String id : List.of("a1", "a2", "a3")) {
+            assertEquals(JANE, customerOf(id));
+        }
+        assertEquals(BOB, customerOf("a4"));
+
+        ArgumentCaptor<Customer> refreshed = ArgumentCaptor.forClass(Customer.class);
+        verify(appointmentSnapshotService, times(2)).refreshCustomer(refreshed.capture());
+        assertEquals(List.of(JANE.toHexString(), SOLO.toHexString()),
+                refreshed.getAllValues().stream().map(Customer::getId).toList());
+        assertEquals("jane.doe@example.com", refreshed.getAllValues().get(0).getEmail());
+    }
+
+    @Test
+    void nothingToNormalizeChangesNothing() {
+        when(customerRepository.findEmailGroupsToNormalize()).thenReturn(List.of());
+        List<Document> before = customers.all();
+
+        migration.normalizeEmails();
+
+        assertEquals(before, customers.all());
+        assertEquals(JANE_AGAIN, customerOf("a2"));
+        verify(appointmentSnapshotService, never()).refreshCustomer(any());
+    }
+
+    private ObjectId customerOf(String appointmentId) {
+        return (ObjectId) ((DBRef) appointments.get(appointmentId).get("customer")).getId();
+    }
+
+    private static Document customer(ObjectId id, String email, LocalDateTime createdAt) {
+        return new Document("_id", id).append("name", "Customer").append("email", email).append("createdAt", createdAt);
+    }
+
+    private static Document appointment(String id, ObjectId customerId) {
+        return new Document("_id", id).append("customer", new DBRef("customers", customerId));
+    }
+
+    private static CustomerEmailGroup group(String email, ObjectId... customerIds) {
+        return CustomerEmailGroup.builder()
+                .email(email)
+                .customerIds(Arrays.stream(customerIds).map(ObjectId::toHexString).toList())
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.salon_booking.config.CustomerEmailMigration;
+import com.example.salon_booking.config.MongoIndexConfig;
+import com.example.salon_booking.dto.CustomerDTO;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.repositories.CustomerRepository;
+
+/**
+ * Tests for case-insensitive customer emails against a real mongod
+ * Startup merges customers whose emails differ only in casing, builds the
+ * collated unique email index, and the booking upsert then matches a stored
+ * customer whatever the casing of either email.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerEmailMongoTest {
+
+    private MongoTemplate mongoTemplate;
+    private CustomerRepository customerRepository;
+    private MongoIndexConfig mongoIndexConfig;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = MongoTestDatabase.create();
+        customerRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(CustomerRepository.class);
+        CustomerEmailMigration migration = new CustomerEmailMigration(mongoTemplate, customerRepository,
+                mock(AppointmentSnapshotService.class));
+        mongoIndexConfig = new MongoIndexConfig(mongoTemplate, new MongoMappingContext(), migration);
+    }
+
+    @Test
+    void startupMergesCasingDuplicatesBeforeBuildingTheUniqueIndex() {
+        ObjectId oldest = new ObjectId();
+        insertCustomer(oldest, "Jane.Doe@Example.com ", 1);
+        insertCustomer(new ObjectId(), "JANE.DOE@EXAMPLE.COM", 2);
+
+        mongoIndexConfig.afterSingletonsInstantiated();
+
+        assertEquals(1, mongoTemplate.count(new Query(), "customers"));
+        assertEquals("jane.doe@example.com", customerRepository.findById(oldest.toHexString()).orElseThrow()
+                .getEmail());
+        IndexInfo index = mongoTemplate.indexOps(Customer.class).getIndexInfo().stream()
+                .filter(info -> info.getName().equals("customer_email_idx"))
+                .findFirst().orElseThrow();
+        assertEquals(2, index.getCollation().orElseThrow().get("strength"));
+        assertThrows(DuplicateKeyException.class,
+                () -> insertCustomer(new ObjectId(), "Jane.Doe@example.COM", 3));
+    }
+
+    @Test
+    void upsertMatchesAStoredCustomerWhateverTheCasing() {
+        mongoIndexConfig.ensureIndexes();
+        // Stored before emails were normalized, so not matched by an exact lower-case lookup
+        ObjectId stored = new ObjectId();
+        insertCustomer(stored, "Jane.Doe@Example.com", 1);
+
+        Customer first = customerService().createOrGetCustomer(dto("jane.doe@example.com"));
+        Customer second = customerService().createOrGetCustomer(dto(" JANE.DOE@example.com"));
+
+        assertEquals(stored.toHexString(), first.getId());
+        assertEquals(stored.toHexString(), second.getId());
+        assertEquals(1, mongoTemplate.count(new Query(), "customers"));
+        assertEquals(stored.toHexString(), customerRepository.findByEmail("JANE.DOE@EXAMPLE.COM").orElseThrow()
+                .getId());
+    }
+
+    @Test
+    void firstBookingInsertsTheNormalizedEmail() {
+        mongoIndexConfig.ensureIndexes();
+
+        Customer customer = customerService().createOrGetCustomer(dto("  Sam.Perera@Example.com"));
+
+        assertEquals("sam.perera@example.com", customer.getEmail());
+        assertEquals("sam.perera@example.com",
+                mongoTemplate.findById(customer.getId(), Document.class, "customers").get("email"));
+    }
+
+    private CustomerService customerService() {
+        CustomerService customerService = new CustomerService(customerRepository,
+                new KeysetPaginationService(mongoTemplate), mongoTemplate);
+        ReflectionTestUtils.setField(customerService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(customerService, "cacheTtlSeconds", 60L);
+        customerService.createCache();
+        return customerService;
+    }
+
+    private void insertCustomer(ObjectId id, String email, int day) {
+        mongoTemplate.insert(new Document("_id", id)
+                .append("name", "Jane Doe")
+                .append("email", email)
+                .append("createdAt", new Date(day * 86_400_000L)), "customers");
+    }
+
+    private static CustomerDTO dto(String email) {
+        return CustomerDTO.builder()
+                .email(email)
+                .name("Jane Doe")
+                .phone("+94771234567")
+                .preferredContact("EMAIL")
+                .build();
+    }
+}
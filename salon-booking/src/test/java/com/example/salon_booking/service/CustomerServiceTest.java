@@ -0,0 +1,134 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.CustomerDTO;
+import com.example.salon_booking.models.Customer;
+import com.example.salon_booking.repositories.CustomerRepository;
+
+/**
+ * Tests for the customer upsert behind booking
+ * The customers collection is an in-memory stand-in that runs the real
+ * findAndModify upsert. It matches emails exactly, so the tests also check that
+ * the query carries the case-insensitive collation MongoDB would match with.
+ */
+class CustomerServiceTest {
+
+    private final InMemoryCollection customers = new InMemoryCollection(Customer.class, 0);
+    private final List<Query> queries = new ArrayList<>();
+    private final AtomicBoolean concurrentInsert = new AtomicBoolean();
+
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Customer.class)))
+                .thenAnswer(invocation -> {
+                    Query query = invocation.getArgument(0);
+                    queries.add(query);
+                    if (concurrentInsert.getAndSet(false)) {
+                        // Another booking's upsert inserted the customer first
+                        customers.put(new Document("_id", "winner")
+                                .append("email", customers.mapQuery(query).get("email"))
+                                .append("name", "First Booker"));
+                        throw new DuplicateKeyException("E11000 duplicate key error index: customer_email_idx");
+                    }
+                    return customers.findAndModify(query, invocation.getArgument(1), invocation.getArgument(2),
+                            Customer.class);
+                });
+
+        customerService = new CustomerService(mock(CustomerRepository.class), mock(KeysetPaginationService.class),
+                mongoTemplate);
+        ReflectionTestUtils.setField(customerService, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(customerService, "cacheTtlSeconds", 60L);
+        customerService.createCache();
+    }
+
+    @Test
+    void firstBookingInsertsCustomerWithNormalizedEmail() {
+        Customer customer = customerService.createOrGetCustomer(dto("  Jane.Doe@Example.COM ", "Jane Doe"));
+
+        assertEquals("jane.doe@example.com", customer.getEmail());
+        assertEquals("Jane Doe", customer.getName());
+        assertEquals(1, customers.size());
+        Document stored = customers.all().get(0);
+        assertEquals("jane.doe@example.com", stored.get("email"));
+        assertEquals("+94771234567", stored.get("phone"));
+        assertTrue(stored.containsKey("createdAt"));
+    }
+
+    @Test
+    void upsertMatchesEmailsCaseInsensitively() {
+        customerService.createOrGetCustomer(dto("Jane.Doe@Example.com", "Jane Doe"));
+
+        Document collation = queries.get(0).getCollation().orElseThrow().toDocument();
+        assertEquals("en", collation.get("locale"));
+        assertEquals(2, collation.get("strength"));
+    }
+
+    @Test
+    void repeatBookingReturnsTheStoredCustomerUnchanged() {
+        customers.put(new Document("_id", "c1").append("email", "jane.doe@example.com").append("name", "Jane Doe")
+                .append("phone", "+94770000000"));
+
+        Customer customer = customerService.createOrGetCustomer(dto("jane.doe@example.com", "J. Doe"));
+
+        assertEquals("c1", customer.getId());
+        assertEquals("Jane Doe", customer.getName());
+        assertEquals(1, customers.size());
+        assertEquals("+94770000000", customers.get("c1").get("phone"));
+    }
+
+    @Test
+    void repeatBookerIsServedFromTheCache() {
+        Customer first = customerService.createOrGetCustomer(dto("jane.doe@example.com", "Jane Doe"));
+
+        Customer second = customerService.createOrGetCustomer(dto(" JANE.DOE@example.com", "Jane Doe"));
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, queries.size());
+        assertEquals(1, customerService.getStats().getHits());
+    }
+
+    @Test
+    void concurrentFirstBookingsShareOneCustomer() {
+        concurrentInsert.set(true);
+
+        Customer customer = customerService.createOrGetCustomer(dto("Jane.Doe@example.com", "Second Booker"));
+
+        assertEquals("winner", customer.getId());
+        assertEquals("First Booker", customer.getName());
+        assertEquals(1, customers.size());
+        assertEquals(2, queries.size());
+    }
+
+    private static CustomerDTO dto(String email, String name) {
+        return CustomerDTO.builder()
+                .email(email)
+                .name(name)
+                .phone("+94771234567")
+                .preferredContact("EMAIL")
+                .build();
+    }
+}
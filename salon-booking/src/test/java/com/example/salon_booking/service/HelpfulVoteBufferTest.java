@@ -0,0 +1,257 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.models.Review;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for HelpfulVoteBuffer
+ * The bulk writes are applied to an in-memory reviews collection. A hook runs
+ * before each bulk write so a test can hold a flush mid-write or fail it.
+ */
+class HelpfulVoteBufferTest {
+
+    private static final int REVIEWS = 10;
+
+    private final InMemoryCollection reviews = new InMemoryCollection(Review.class, 0);
+    private volatile Runnable beforeWrite = () -> { };
+
+    private HelpfulVoteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < REVIEWS; i++) {
+            reviews.put(new Document("_id", "review" + i).append("helpfulCount", 0));
+        }
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Review.class)).thenAnswer(invocation -> bulkOperations());
+
+        buffer = new HelpfulVoteBuffer(mongoTemplate);
+        // No scheduled flushes: the tests flush explicitly
+        ReflectionTestUtils.setField(buffer, "flushThreshold", Long.MAX_VALUE);
+    }
+
+    @Test
+    void votesRecordedDuringFlushesAreWrittenOnce() throws Exception {
+        final int threads = 16;
+        final int votesPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < votesPerThread; i++) {
+                    buffer.record("review" + (i % REVIEWS));
+                }
+                return null;
+            }));
+        }
+
+        startGate.countDown();
+        while (futures.stream().anyMatch(future -> !future.isDone())) {
+            buffer.flush();
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        buffer.flush();
+
+        long stored = reviews.all().stream()
+                .mapToLong(review -> review.get("helpfulCount", Number.class).longValue())
+                .sum();
+        assertEquals(threads * votesPerThread, stored);
+        assertEquals(threads * votesPerThread, buffer.getStats().getVotesFlushed());
+        assertEquals(0, buffer.getStats().getBufferedDelta());
+    }
+
+    @Test
+    void flushedCountersAreRemoved() {
+        for (int i = 0; i < REVIEWS; i++) {
+            buffer.record("review" + i);
+        }
+        assertEquals(REVIEWS, buffer.getStats().getBufferedReviews());
+
+        assertEquals(REVIEWS, buffer.flush());
+
+        assertEquals(0, buffer.getStats().getBufferedReviews());
+        assertEquals(0, buffer.pendingDelta("review0"));
+        assertEquals(1, helpfulCount("review0"));
+    }
+
+    @Test
+    void votesBeingWrittenArePendingOnce() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            buffer.record("review0");
+        }
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        beforeWrite = () -> {
+            writing.countDown();
+            await(release);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Long> flush = executor.submit(buffer::flush);
+
+        await(writing);
+        buffer.record("review0");
+        // Three votes in flight and one newly buffered, none stored yet
+        assertEquals(4, buffer.pendingDelta("review0"));
+        assertEquals(0, helpfulCount("review0"));
+
+        release.countDown();
+        assertEquals(3, flush.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(3, helpfulCount("review0"));
+        assertEquals(1, buffer.pendingDelta("review0"));
+    }
+
+    @Test
+    void failedFlushKeepsTheVotes() {
+        buffer.record("review0");
+        buffer.record("review0");
+        AtomicBoolean fail = new AtomicBoolean(true);
+        beforeWrite = () -> {
+            if (fail.get()) {
+                throw new DataAccessResourceFailureException("primary unavailable");
+            }
+        };
+
+        assertEquals(0, buffer.flush());
+        assertEquals(2, buffer.pendingDelta("review0"));
+        assertEquals(1, buffer.getStats().getFlushFailures());
+
+        fail.set(false);
+        assertEquals(2, buffer.flush());
+        assertEquals(2, helpfulCount("review0"));
+        assertEquals(0, buffer.pendingDelta("review0"));
+    }
+
+    @Test
+    void readAcrossAFlushIsRepeated() {
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        for (int i = 0; i < 3; i++) {
+            buffer.record("review0");
+        }
+        AtomicInteger attempts = new AtomicInteger();
+
+        long count = buffer.read(() -> {
+            long stored = helpfulCount("review0");
+            if (attempts.incrementAndGet() == 1) {
+                // Lands between the stored read and the pending lookup: both miss the votes
+                buffer.flush();
+            }
+            return stored + buffer.pendingDelta("review0");
+        });
+
+        assertEquals(3, count);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void readWaitsForAFlushInFlight() throws Exception {
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        for (int i = 0; i < 3; i++) {
+            buffer.record("review0");
+        }
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        beforeWrite = () -> {
+            writing.countDown();
+            await(release);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Long> flush = executor.submit(buffer::flush);
+        await(writing);
+
+        Future<Long> read = executor.submit(() -> buffer.read(() -> helpfulCount("review0")));
+        Thread.sleep(100);
+        assertFalse(read.isDone());
+        release.countDown();
+
+        assertEquals(3, flush.get(30, TimeUnit.SECONDS));
+        // Read after the flush settled, not mid-write
+        assertEquals(3, read.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void bufferedDeltaAndFlushesArePublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        buffer.bindTo(meterRegistry);
+        buffer.record("review0");
+        buffer.record("review1");
+
+        assertEquals(2, meterRegistry.get("salon.reviews.helpful.buffered.delta").gauge().value());
+
+        buffer.flush();
+
+        assertEquals(0, meterRegistry.get("salon.reviews.helpful.buffered.delta").gauge().value());
+        assertEquals(2, meterRegistry.get("salon.reviews.helpful.votes").tag("state", "flushed")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("salon.reviews.helpful.flush").functionTimer().count());
+    }
+
+    private long helpfulCount(String reviewId) {
+        return reviews.get(reviewId).get("helpfulCount", Number.class).longValue();
+    }
+
+    private BulkOperations bulkOperations() {
+        List<Query> queries = new ArrayList<>();
+        List<UpdateDefinition> updates = new ArrayList<>();
+        return mock(BulkOperations.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "updateOne" -> {
+                    queries.add(invocation.getArgument(0));
+                    updates.add(invocation.getArgument(1));
+                    return invocation.getMock();
+                }
+                case "execute" -> {
+                    beforeWrite.run();
+                    int matched = 0;
+                    for (int i = 0; i < queries.size(); i++) {
+                        matched += (int) reviews.updateFirst(queries.get(i), updates.get(i)).getMatchedCount();
+                    }
+                    return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of());
+                }
+                default -> throw new UnsupportedOperationException(invocation.getMethod().getName());
+            }
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.AppointmentRequestDTO;
+import com.example.salon_booking.dto.AppointmentResponseDTO;
+import com.example.salon_booking.dto.IdempotentResult;
+import com.example.salon_booking.exception.IdempotencyKeyInUseException;
+import com.example.salon_booking.exception.IdempotencyKeyMismatchException;
+import com.example.salon_booking.models.AppointmentStatus;
+import com.example.salon_booking.models.IdempotencyRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Load test for Idempotency-Key handling of appointment creation
+ * Clients give up on a request after a short timeout and retry while the
+ * server is still booking, back off on 409, and sometimes lose a response and
+ * retry after it was stored. The idempotency_keys collection is an in-memory
+ * stand-in that evaluates the claim, takeover, completion and removal queries
+ * the service actually sends (unique _id, one round trip per call).
+ *
+ * Every key must be booked exactly once and every client must end up with the
+ * response of that one booking. The run without keys shows the double bookings
+ * the same retries cause otherwise.
+ */
+class IdempotencyLoadTest {
+
+    private static final String SCOPE = "create-appointment";
+    private static final int CLIENTS = 300;
+    private static final int CLIENT_THREADS = 48;
+    private static final int SERVER_THREADS = 96;
+    private static final long CLIENT_TIMEOUT_MS = 10;
+    private static final int MAX_BOOKING_MS = 25;
+    private static final double LOST_RESPONSE_RATE = 0.3;
+    private static final long ROUND_TRIP_MICROS = 100;
+
+    private final InMemoryCollection keys = new InMemoryCollection(IdempotencyRecord.class, ROUND_TRIP_MICROS);
+    private final Map<String, AtomicInteger> bookings = new ConcurrentHashMap<>();
+    private final Map<String, AppointmentResponseDTO> appointments = new ConcurrentHashMap<>();
+
+    private final AtomicInteger timeouts = new AtomicInteger();
+    private final AtomicInteger replays = new AtomicInteger();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findById(anyString(), eq(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> keys.findById(invocation.getArgument(0), IdempotencyRecord.class));
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> keys.insert(invocation.getArgument(0)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> keys.updateFirst(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> keys.upsert(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.remove(any(Query.class), eq(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> keys.remove(invocation.getArgument(0)));
+
+        idempotencyService = new IdempotencyService(mongoTemplate, objectMapper);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 30L);
+    }
+
+    @Test
+    void retriedBookingsRunExactlyOncePerKey() throws Exception {
+        Map<String, AppointmentResponseDTO> received = runClients(true);
+
+        assertEquals(CLIENTS, received.size());
+        assertEquals(CLIENTS, appointments.size(), "each key must be booked exactly once");
+        for (Map.Entry<String, AppointmentResponseDTO> client : received.entrySet()) {
+            AppointmentResponseDTO response = client.getValue();
+            assertEquals(1, bookings.get(client.getKey()).get());
+            assertEquals(appointments.get(response.getId()).getConfirmationCode(), response.getConfirmationCode(),
+                    "a retry must return the original appointment");
+        }
+        assertTrue(timeouts.get() > 0 && replays.get() > 0, "the load should include retries");
+        assertEquals(CLIENTS, keys.size());
+        for (Document record : keys.all()) {
+            assertEquals(true, record.get("completed"));
+            assertTrue(appointments.containsKey(record.getString("resourceId")),
+                    "the claimed id must be the id of the booked appointment");
+        }
+    }
+
+    @Test
+    void retriesWithoutKeysBookAgain() throws Exception {
+        runClients(false);
+        int totalBookings = bookings.values().stream().mapToInt(AtomicInteger::get).sum();
+        assertTrue(totalBookings > CLIENTS, "lost and timed-out responses should cause double bookings");
+    }
+
+    @Test
+    void keyReusedWithAnotherBodyIsRejected() {
+        execute("k1", request("k1"));
+
+        AppointmentRequestDTO other = request("k1");
+        other.setTimeSlotId("another-slot");
+        assertThrows(IdempotencyKeyMismatchException.class, () -> execute("k1", other));
+        assertEquals(1, bookings.get("k1").get());
+    }
+
+    @Test
+    void failedRequestGivesTheKeyUp() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(SCOPE, "k2", request("k2"),
+                AppointmentResponseDTO.class, appointmentId -> {
+                    throw new IllegalStateException("slot taken");
+                }, this::findAppointment));
+        assertEquals(0, keys.size());
+
+        IdempotentResult<AppointmentResponseDTO> retry = execute("k2", request("k2"));
+        assertFalse(retry.isReplayed());
+        assertEquals(1, bookings.get("k2").get());
+    }
+
+    @Test
+    void requestWhileFirstIsRunningGets409() {
+        assertThrows(IdempotencyKeyInUseException.class, () -> idempotencyService.execute(SCOPE, "k3",
+                request("k3"), AppointmentResponseDTO.class, appointmentId -> {
+                    execute("k3", request("k3"));
+                    return book("k3", appointmentId);
+                }, this::findAppointment));
+        assertTrue(bookings.isEmpty());
+    }
+
+    @Test
+    void staleClaimWhoseAppointmentWasCreatedIsRecovered() throws Exception {
+        // The first request booked, then died before it could complete the key
+        String appointmentId = new ObjectId().toHexString();
+        AppointmentResponseDTO created = book("k4", appointmentId);
+        keys.insert(staleClaim("k4", appointmentId));
+
+        IdempotentResult<AppointmentResponseDTO> retry = execute("k4", request("k4"));
+
+        assertTrue(retry.isReplayed());
+        assertEquals(created.getId(), retry.getBody().getId());
+        assertEquals(1, bookings.get("k4").get(), "the appointment must not be booked again");
+        Document record = keys.get(SCOPE + ":k4");
+        assertEquals(true, record.get("completed"));
+        assertNotEquals("crashed", record.get("owner"));
+    }
+
+    @Test
+    void staleClaimWithoutAppointmentBooksWithTheClaimedId() throws Exception {
+        String appointmentId = new ObjectId().toHexString();
+        keys.insert(staleClaim("k5", appointmentId));
+
+        IdempotentResult<AppointmentResponseDTO> retry = execute("k5", request("k5"));
+
+        assertFalse(retry.isReplayed());
+        assertEquals(appointmentId, retry.getBody().getId());
+        assertEquals(1, bookings.get("k5").get());
+    }
+
+    @Test
+    void requestThatLostItsClaimCannotGiveItUp() {
+        // Take over immediately, so a retry issued while the first request runs replaces its claim
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 0L);
+        String[] winner = new String[1];
+
+        assertThrows(DuplicateKeyException.class, () -> idempotencyService.execute(SCOPE, "k6", request("k6"),
+                AppointmentResponseDTO.class, appointmentId -> {
+                    winner[0] = execute("k6", request("k6")).getBody().getConfirmationCode();
+                    return book("k6", appointmentId);
+                }, this::findAppointment));
+
+        Document record = keys.get(SCOPE + ":k6");
+        assertEquals(true, record.get("completed"), "the failed request must not remove the new owner's key");
+        assertTrue(execute("k6", request("k6")).isReplayed());
+        assertEquals(winner[0], execute("k6", request("k6")).getBody().getConfirmationCode());
+    }
+
+    @Test
+    void requestThatLostItsClaimCannotCompleteIt() {
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTimeoutSeconds", 0L);
+        String[] winner = new String[1];
+
+        idempotencyService.execute(SCOPE, "k7", request("k7"), AppointmentResponseDTO.class, appointmentId -> {
+            winner[0] = execute("k7", request("k7")).getBody().getConfirmationCode();
+            return AppointmentResponseDTO.builder().id(appointmentId).confirmationCode("APT-LATE").build();
+        }, this::findAppointment);
+
+        IdempotentResult<AppointmentResponseDTO> replay = execute("k7", request("k7"));
+        assertTrue(replay.isReplayed());
+        assertEquals(winner[0], replay.getBody().getConfirmationCode(),
+                "the stuck request must not overwrite the stored response");
+    }
+
+    // ==================== CLIENTS ====================
+
+    private Map<String, AppointmentResponseDTO> runClients(boolean withKeys) throws Exception {
+        ExecutorService server = Executors.newFixedThreadPool(SERVER_THREADS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        Map<String, AppointmentResponseDTO> received = new ConcurrentHashMap<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                String key = UUID.randomUUID().toString();
+                futures.add(clients.submit(() -> {
+                    received.put(key, client(server, key, withKeys));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdown();
+            server.shutdown();
+            server.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        return received;
+    }
+
+    /**
+     * One mobile client: retries on timeout and 409, and sometimes loses a response it was sent
+     */
+    private AppointmentResponseDTO client(ExecutorService server, String key, boolean withKey) throws Exception {
+        AppointmentRequestDTO body = request(key);
+        boolean loseResponse = ThreadLocalRandom.current().nextDouble() < LOST_RESPONSE_RATE;
+        for (int attempt = 1; ; attempt++) {
+            Callable<IdempotentResult<AppointmentResponseDTO>> call = withKey
+                    ? () -> execute(key, body)
+                    : () -> IdempotentResult.<AppointmentResponseDTO>builder()
+                            .body(book(key, new ObjectId().toHexString())).build();
+            Future<IdempotentResult<AppointmentResponseDTO>> response = server.submit(call);
+            try {
+                IdempotentResult<AppointmentResponseDTO> result = response.get(CLIENT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (result.isReplayed()) {
+                    replays.incrementAndGet();
+                }
+                if (loseResponse) {
+                    // Connection dropped after the server answered; the client cannot tell and retries
+                    loseResponse = false;
+                    backoff(attempt);
+                    continue;
+                }
+                return result.getBody();
+            } catch (TimeoutException e) {
+                // The server keeps working on the abandoned request
+                timeouts.incrementAndGet();
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof IdempotencyKeyInUseException)) {
+                    throw e;
+                }
+            }
+            backoff(attempt);
+        }
+    }
+
+    private static void backoff(int attempt) throws InterruptedException {
+        Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << Math.min(attempt, 4)));
+    }
+
+    private IdempotentResult<AppointmentResponseDTO> execute(String key, AppointmentRequestDTO body) {
+        return idempotencyService.execute(SCOPE, key, body, AppointmentResponseDTO.class,
+                appointmentId -> book(key, appointmentId), this::findAppointment);
+    }
+
+    private AppointmentRequestDTO request(String key) {
+        return AppointmentRequestDTO.builder()
+                .salonId("salon1")
+                .serviceId("service1")
+                .timeSlotId("slot-" + key)
+                .customerName("Customer " + key.substring(0, 2))
+                .customerEmail("customer@example.com")
+                .customerPhone("0771234567")
+                .build();
+    }
+
+    private IdempotencyRecord staleClaim(String key, String appointmentId) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request(key)));
+        return IdempotencyRecord.builder()
+                .id(SCOPE + ":" + key)
+                .requestHash(HexFormat.of().formatHex(digest))
+                .owner("crashed")
+                .resourceId(appointmentId)
+                .completed(false)
+                .startedAt(LocalDateTime.now().minusMinutes(5))
+                .expiresAt(LocalDateTime.now().plusHours(24))
+                .build();
+    }
+
+    /**
+     * The booking flow itself: slow, and not idempotent (a new confirmation code every run)
+     */
+    private AppointmentResponseDTO book(String key, String appointmentId) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(2, MAX_BOOKING_MS)));
+        bookings.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        AppointmentResponseDTO response = AppointmentResponseDTO.builder()
+                .id(appointmentId)
+                .confirmationCode("APT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .status(AppointmentStatus.PENDING)
+                .bookingDate(LocalDateTime.now())
+                .build();
+        // Appointment ids are unique, like the _id of the appointments collection
+        if (appointments.putIfAbsent(appointmentId, response) != null) {
+            throw new DuplicateKeyException("E11000 duplicate key error: " + appointmentId);
+        }
+        return response;
+    }
+
+    private Optional<AppointmentResponseDTO> findAppointment(String appointmentId) {
+        return Optional.ofNullable(appointments.get(appointmentId));
+    }
+}
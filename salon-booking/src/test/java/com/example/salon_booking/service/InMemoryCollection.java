@@ -0,0 +1,513 @@
+package com.example.salon_booking.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * In-memory stand-in for one MongoDB collection, for tests that mock MongoTemplate
+ * Queries and updates are mapped with Spring Data's QueryMapper / UpdateMapper,
+ * exactly as MongoTemplate sends them, and the resulting documents are
+ * evaluated here. Each operation is atomic per collection, like a single
+ * document write on the server.
+ *
+ * Supports the operators the services use: comparison, $in, $exists, $and /
+ * $or in filters; $set, $setOnInsert, $inc, $unset in updates; and $set
+ * stages with $add, $ifNull, $eq, $gte, $and, $cond in pipeline updates.
+ * Collations, cross-type BSON ordering and concurrency between separate
+ * operations are not modelled; the *MongoTest classes cover those against a
+ * real mongod.
+ */
+final class InMemoryCollection {
+
+    private static final MongoCustomConversions CONVERSIONS = new MongoCustomConversions(List.of());
+    private static final MongoMappingContext MAPPING_CONTEXT = mappingContext();
+    private static final MappingMongoConverter CONVERTER = converter();
+
+    private final MongoPersistentEntity<?> entity;
+    private final long roundTripNanos;
+    private final Map<Object, Document> documents = new LinkedHashMap<>();
+    private final QueryMapper queryMapper = new QueryMapper(CONVERTER);
+    private final UpdateMapper updateMapper = new UpdateMapper(CONVERTER);
+
+    /**
+     * @param entityType Entity stored in the collection
+     * @param roundTripMicros Simulated server round trip per operation
+     */
+    InMemoryCollection(Class<?> entityType, long roundTripMicros) {
+        this.entity = MAPPING_CONTEXT.getRequiredPersistentEntity(entityType);
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(CONVERSIONS.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        return context;
+    }
+
+    private static MappingMongoConverter converter() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, MAPPING_CONTEXT);
+        converter.setCustomConversions(CONVERSIONS);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    // ==================== MONGOTEMPLATE OPERATIONS ====================
+
+    <T> T findById(Object id, Class<T> type) {
+        roundTrip();
+        Document document;
+        synchronized (this) {
+            document = copy(documents.get(mappedId(id)));
+        }
+        return read(type, document);
+    }
+
+    <T> List<T> find(Query query, Class<T> type) {
+        roundTrip();
+        Document filter = mapQuery(query);
+        List<T> results = new ArrayList<>();
+        synchronized (this) {
+            for (Document document : documents.values()) {
+                if (matches(document, filter)) {
+                    results.add(read(type, project(document, query.getFieldsObject())));
+                }
+            }
+        }
+        return results;
+    }
+
+    <T> T insert(T object) {
+        roundTrip();
+        Document document = new Document();
+        CONVERTER.write(object, document);
+        synchronized (this) {
+            if (documents.containsKey(document.get("_id"))) {
+                throw new DuplicateKeyException("E11000 duplicate key error: " + document.get("_id"));
+            }
+            documents.put(document.get("_id"), document);
+        }
+        return object;
+    }
+
+    UpdateResult updateFirst(Query query, UpdateDefinition update) {
+        return update(query, update, false);
+    }
+
+    UpdateResult upsert(Query query, UpdateDefinition update) {
+        return update(query, update, true);
+    }
+
+    UpdateResult updateMulti(Query query, UpdateDefinition update) {
+        roundTrip();
+        Document filter = mapQuery(query);
+        Object mappedUpdate = mapUpdate(update);
+        long matched = 0;
+        long modified = 0;
+        synchronized (this) {
+            for (Document document : documents.values()) {
+                if (matches(document, filter)) {
+                    Document before = copy(document);
+                    apply(document, mappedUpdate, false);
+                    matched++;
+                    modified += before.equals(document) ? 0 : 1;
+                }
+            }
+        }
+        return UpdateResult.acknowledged(matched, modified, null);
+    }
+
+    DeleteResult remove(Query query) {
+        roundTrip();
+        Document filter = mapQuery(query);
+        synchronized (this) {
+            long before = documents.size();
+            documents.values().removeIf(document -> matches(document, filter));
+            return DeleteResult.acknowledged(before - documents.size());
+        }
+    }
+
+    <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options, Class<T> type) {
+        roundTrip();
+        Document filter = mapQuery(query);
+        Object mappedUpdate = mapUpdate(update);
+        Document result;
+        synchronized (this) {
+            Document current = first(filter);
+            if (current == null && !options.isUpsert()) {
+                return null;
+            }
+            Document previous = copy(current);
+            Document updated = current != null ? current : newDocument(filter);
+            apply(updated, mappedUpdate, current == null);
+            if (current == null) {
+                insertUpserted(updated);
+            }
+            result = options.isReturnNew() ? copy(updated) : previous;
+        }
+        return result == null ? null : read(type, project(result, query.getFieldsObject()));
+    }
+
+    private UpdateResult update(Query query, UpdateDefinition update, boolean upsert) {
+        roundTrip();
+        Document filter = mapQuery(query);
+        Object mappedUpdate = mapUpdate(update);
+        synchronized (this) {
+            Document current = first(filter);
+            if (current != null) {
+                Document before = copy(current);
+                apply(current, mappedUpdate, false);
+                return UpdateResult.acknowledged(1, before.equals(current) ? 0L : 1L, null);
+            }
+            if (!upsert) {
+                return UpdateResult.acknowledged(0, 0L, null);
+            }
+            Document inserted = newDocument(filter);
+            apply(inserted, mappedUpdate, true);
+            insertUpserted(inserted);
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+    }
+
+    // ==================== TEST ACCESS ====================
+
+    /**
+     * Store a raw document, e.g. one in a legacy shape the entity no longer maps
+     */
+    synchronized void put(Document document) {
+        documents.put(document.get("_id"), document);
+    }
+
+    /**
+     * Stored document as the server holds it
+     */
+    synchronized Document get(Object id) {
+        return copy(documents.get(mappedId(id)));
+    }
+
+    synchronized List<Document> all() {
+        return documents.values().stream().map(InMemoryCollection::copy).toList();
+    }
+
+    synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Map an update the way MongoTemplate sends it
+     * @return Update document, or the pipeline of an AggregationUpdate
+     */
+    Object mapUpdate(UpdateDefinition update) {
+        if (update instanceof AggregationUpdate pipeline) {
+            return pipeline.toPipeline(Aggregation.DEFAULT_CONTEXT);
+        }
+        return updateMapper.getMappedObject(update.getUpdateObject(), entity);
+    }
+
+    Document mapQuery(Query query) {
+        return queryMapper.getMappedObject(query.getQueryObject(), entity);
+    }
+
+    // ==================== EVALUATION ====================
+
+    private Object mappedId(Object id) {
+        return mapQuery(new Query(Criteria.where("_id").is(id))).get("_id");
+    }
+
+    private <T> T read(Class<T> type, Document document) {
+        if (document == null) {
+            return null;
+        }
+        return type == Document.class ? type.cast(document) : CONVERTER.read(type, document);
+    }
+
+    private Document first(Document filter) {
+        for (Document document : documents.values()) {
+            if (matches(document, filter)) {
+                return document;
+            }
+        }
+        return null;
+    }
+
+    private void insertUpserted(Document document) {
+        if (!document.containsKey("_id")) {
+            document.put("_id", new ObjectId());
+        }
+        if (documents.containsKey(document.get("_id"))) {
+            throw new DuplicateKeyException("E11000 duplicate key error: " + document.get("_id"));
+        }
+        documents.put(document.get("_id"), document);
+    }
+
+    /**
+     * Document an upsert starts from: the equality fields of the filter
+     */
+    private static Document newDocument(Document filter) {
+        Document document = new Document();
+        filter.forEach((field, condition) -> {
+            if (!field.startsWith("$") && !isOperatorDocument(condition)) {
+                setPath(document, field, condition);
+            }
+        });
+        return document;
+    }
+
+    static boolean matches(Document document, Document filter) {
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            String field = entry.getKey();
+            Object condition = entry.getValue();
+            boolean matched = switch (field) {
+                case "$and" -> ((List<?>) condition).stream().allMatch(part -> matches(document, (Document) part));
+                case "$or" -> ((List<?>) condition).stream().anyMatch(part -> matches(document, (Document) part));
+                default -> matchesField(document, field, condition);
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesField(Document document, String field, Object condition) {
+        boolean present = hasPath(document, field);
+        Object value = getPath(document, field);
+        if (!isOperatorDocument(condition)) {
+            return valueEquals(value, condition);
+        }
+        for (Map.Entry<String, Object> operator : ((Document) condition).entrySet()) {
+            Object operand = operator.getValue();
+            boolean matched = switch (operator.getKey()) {
+                case "$eq" -> valueEquals(value, operand);
+                case "$ne" -> !valueEquals(value, operand);
+                case "$in" -> ((Collection<?>) operand).stream().anyMatch(candidate -> valueEquals(value, candidate));
+                case "$nin" -> ((Collection<?>) operand).stream().noneMatch(candidate -> valueEquals(value, candidate));
+                case "$exists" -> present == Boolean.TRUE.equals(operand);
+                case "$lt" -> value != null && compare(value, operand) < 0;
+                case "$lte" -> value != null && compare(value, operand) <= 0;
+                case "$gt" -> value != null && compare(value, operand) > 0;
+                case "$gte" -> value != null && compare(value, operand) >= 0;
+                default -> throw new UnsupportedOperationException("Query operator " + operator.getKey());
+            };
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOperatorDocument(Object condition) {
+        return condition instanceof Document document && !document.isEmpty()
+                && document.keySet().iterator().next().startsWith("$");
+    }
+
+    private static boolean valueEquals(Object value, Object expected) {
+        if (value instanceof List<?> list && !(expected instanceof List<?>)) {
+            return list.stream().anyMatch(element -> valueEquals(element, expected));
+        }
+        if (value instanceof Number a && expected instanceof Number b) {
+            return a.doubleValue() == b.doubleValue();
+        }
+        return Objects.equals(value, expected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object value, Object operand) {
+        if (value instanceof Number a && operand instanceof Number b) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        if (value instanceof Date a && operand instanceof Date b) {
+            return a.compareTo(b);
+        }
+        return ((Comparable) value).compareTo(operand);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(Document document, Object update, boolean inserting) {
+        if (update instanceof List<?> pipeline) {
+            for (Object stage : pipeline) {
+                Document set = (Document) ((Document) stage).get("$set");
+                if (set == null) {
+                    throw new UnsupportedOperationException("Pipeline stage " + stage);
+                }
+                Document before = copy(document);
+                set.forEach((field, expression) -> setPath(document, field, evaluate(before, expression)));
+            }
+            return;
+        }
+        for (Map.Entry<String, Object> operator : ((Document) update).entrySet()) {
+            Map<String, Object> fields = (Map<String, Object>) operator.getValue();
+            switch (operator.getKey()) {
+                case "$set" -> fields.forEach((field, value) -> setPath(document, field, value));
+                case "$setOnInsert" -> {
+                    if (inserting) {
+                        fields.forEach((field, value) -> setPath(document, field, value));
+                    }
+                }
+                case "$inc" -> fields.forEach((field, delta) -> setPath(document, field,
+                        add(getPath(document, field), (Number) delta)));
+                case "$unset" -> fields.keySet().forEach(field -> removePath(document, field));
+                default -> throw new UnsupportedOperationException("Update operator " + operator.getKey());
+            }
+        }
+    }
+
+    /**
+     * Aggregation expression against the document as it was before the stage
+     */
+    private static Object evaluate(Document document, Object expression) {
+        if (expression instanceof String reference && reference.startsWith("$")) {
+            return getPath(document, reference.substring(1));
+        }
+        if (!(expression instanceof Document operator) || operator.isEmpty()
+                || !operator.keySet().iterator().next().startsWith("$")) {
+            return expression;
+        }
+        String name = operator.keySet().iterator().next();
+        List<?> args = operator.get(name) instanceof List<?> list ? list : List.of(operator.get(name));
+        return switch (name) {
+            case "$add" -> args.stream().map(arg -> (Number) evaluate(document, arg))
+                    .reduce(0, InMemoryCollection::add);
+            case "$ifNull" -> {
+                Object value = evaluate(document, args.get(0));
+                yield value != null ? value : evaluate(document, args.get(1));
+            }
+            case "$eq" -> valueEquals(evaluate(document, args.get(0)), evaluate(document, args.get(1)));
+            case "$gte" -> compare(evaluate(document, args.get(0)), evaluate(document, args.get(1))) >= 0;
+            case "$and" -> args.stream().allMatch(arg -> Boolean.TRUE.equals(evaluate(document, arg)));
+            case "$cond" -> Boolean.TRUE.equals(evaluate(document, args.get(0)))
+                    ? evaluate(document, args.get(1)) : evaluate(document, args.get(2));
+            default -> throw new UnsupportedOperationException("Expression " + name);
+        };
+    }
+
+    private static Number add(Object current, Number delta) {
+        Number base = current instanceof Number number ? number : 0;
+        if (base instanceof Double || delta instanceof Double) {
+            return base.doubleValue() + delta.doubleValue();
+        }
+        if (base instanceof Long || delta instanceof Long) {
+            return base.longValue() + delta.longValue();
+        }
+        return base.intValue() + delta.intValue();
+    }
+
+    // ==================== PATHS ====================
+
+    private static Object getPath(Document document, String path) {
+        Object current = document;
+        for (String part : path.split("\\.")) {
+            if (current instanceof DBRef ref) {
+                // Stored as { $ref, $id }
+                current = switch (part) {
+                    case "$id" -> ref.getId();
+                    case "$ref" -> ref.getCollectionName();
+                    default -> null;
+                };
+                continue;
+            }
+            if (!(current instanceof Document level)) {
+                return null;
+            }
+            current = level.get(part);
+        }
+        return current;
+    }
+
+    private static boolean hasPath(Document document, String path) {
+        String[] parts = path.split("\\.");
+        Document level = document;
+        for (int i = 0; i < parts.length - 1; i++) {
+            if (!(level.get(parts[i]) instanceof Document next)) {
+                return false;
+            }
+            level = next;
+        }
+        return level.containsKey(parts[parts.length - 1]);
+    }
+
+    private static void setPath(Document document, String path, Object value) {
+        String[] parts = path.split("\\.");
+        Document level = document;
+        for (int i = 0; i < parts.length - 1; i++) {
+            Object next = level.get(parts[i]);
+            if (!(next instanceof Document)) {
+                next = new Document();
+                level.put(parts[i], next);
+            }
+            level = (Document) next;
+        }
+        level.put(parts[parts.length - 1], value);
+    }
+
+    private static void removePath(Document document, String path) {
+        String[] parts = path.split("\\.");
+        Object level = document;
+        for (int i = 0; i < parts.length - 1 && level instanceof Document current; i++) {
+            level = current.get(parts[i]);
+        }
+        if (level instanceof Document current) {
+            current.remove(parts[parts.length - 1]);
+        }
+    }
+
+    /**
+     * Apply an inclusion projection (top-level fields; _id is always kept)
+     */
+    private static Document project(Document document, Document fields) {
+        if (document == null || fields == null || fields.isEmpty()) {
+            return document;
+        }
+        Document projected = new Document("_id", document.get("_id"));
+        fields.forEach((field, include) -> {
+            String top = field.split("\\.")[0];
+            if (document.containsKey(top)) {
+                projected.put(top, document.get(top));
+            }
+        });
+        return projected;
+    }
+
+    private static Document copy(Document document) {
+        if (document == null) {
+            return null;
+        }
+        Document copy = new Document();
+        document.forEach((key, value) -> copy.put(key, value instanceof Document nested ? copy(nested) : value));
+        return copy;
+    }
+
+    private void roundTrip() {
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+    }
+}
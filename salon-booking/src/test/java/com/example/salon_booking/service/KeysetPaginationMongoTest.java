@@ -0,0 +1,129 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.salon_booking.dto.KeysetPage;
+import com.example.salon_booking.dto.SalonSummaryDTO;
+import com.example.salon_booking.models.Review;
+
+/**
+ * Tests for keyset pagination over collections mixing string and ObjectId ids
+ * Seeded documents have string ids ("salon1"), documents created through the
+ * API have ObjectIds. MongoDB sorts all strings before all ObjectIds, so a page
+ * ending on one type must continue into the other.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class KeysetPaginationMongoTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private MongoTemplate mongoTemplate;
+    private KeysetPaginationService keysetPaginationService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = MongoTestDatabase.create();
+        keysetPaginationService = new KeysetPaginationService(mongoTemplate);
+    }
+
+    @Test
+    void pagingByIdCrossesFromStringToObjectIds() {
+        List<Object> ids = new ArrayList<>(List.of("salon1", "salon2", "salon3"));
+        for (int i = 0; i < 4; i++) {
+            ids.add(new ObjectId());
+        }
+        for (Object id : ids) {
+            mongoTemplate.insert(new Document("_id", id).append("name", "Salon " + id).append("type", "hair-salon"),
+                    "salons");
+        }
+
+        for (int size = 1; size <= ids.size(); size++) {
+            final int pageSize = size;
+            List<String> paged = pageAll(token -> {
+                Query query = new Query();
+                query.fields().include(SalonSummaryDTO.FIELDS.toArray(String[]::new));
+                return keysetPaginationService.pageById(query, SalonSummaryDTO.class, "salons",
+                        SalonSummaryDTO::getId, token, pageSize);
+            }, SalonSummaryDTO::getId);
+
+            assertEquals(ids.stream().map(Object::toString).toList(), paged, "page size " + size);
+        }
+    }
+
+    @Test
+    void pagingByDateCrossesFromObjectIdsToStringsWithinOneDate() {
+        ObjectId newest = new ObjectId();
+        ObjectId sameDayLower = new ObjectId();
+        ObjectId sameDayHigher = new ObjectId();
+        insertReview(newest, DAY.plusDays(1));
+        insertReview(sameDayLower, DAY);
+        insertReview(sameDayHigher, DAY);
+        insertReview("review2", DAY);
+        insertReview("review1", DAY);
+        insertReview(new ObjectId(), DAY.minusDays(1));
+        insertReview("review0", null);
+        insertReview(new ObjectId(), null);
+
+        // Newest first; on a shared date ObjectIds before strings, both descending; no date last
+        List<String> all = pageAll(token -> keysetPaginationService.pageByDateDesc(new Query(), Review.class,
+                "reviews", "reviewDate", Review::getReviewDate, Review::getId, token, 100), Review::getId);
+        assertEquals(8, all.size());
+        assertEquals(List.of(newest.toHexString(), sameDayHigher.toHexString(), sameDayLower.toHexString(),
+                "review2", "review1"), all.subList(0, 5));
+
+        for (int size = 1; size < all.size(); size++) {
+            final int pageSize = size;
+            assertEquals(all, pageAll(token -> keysetPaginationService.pageByDateDesc(new Query(), Review.class,
+                    "reviews", "reviewDate", Review::getReviewDate, Review::getId, token, pageSize), Review::getId),
+                    "page size " + size);
+        }
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        mongoTemplate.insert(new Document("_id", "salon1").append("name", "Salon"), "salons");
+
+        KeysetPage<SalonSummaryDTO> page = keysetPaginationService.pageById(new Query(), SalonSummaryDTO.class,
+                "salons", SalonSummaryDTO::getId, null, 5);
+
+        assertEquals(1, page.getSize());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextToken());
+    }
+
+    private void insertReview(Object id, LocalDateTime reviewDate) {
+        Document review = new Document("_id", id).append("rating", 5).append("isVisible", true);
+        if (reviewDate != null) {
+            review.append("reviewDate", Date.from(reviewDate.atZone(ZoneId.systemDefault()).toInstant()));
+        }
+        mongoTemplate.insert(review, "reviews");
+    }
+
+    private static <T> List<String> pageAll(Function<String, KeysetPage<T>> fetch, Function<T, String> idOf) {
+        List<String> ids = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<T> page = fetch.apply(token);
+            page.getItems().forEach(item -> ids.add(idOf.apply(item)));
+            token = page.getNextToken();
+        } while (token != null);
+        return ids;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.salon_booking.config.CustomerEmailMigration;
+import com.example.salon_booking.config.MongoIndexConfig;
+import com.example.salon_booking.models.Appointment;
+import com.example.salon_booking.models.Customer;
+
+/**
+ * Tests for replacing changed indexes at startup
+ * A retired index is dropped only after its replacement was built, and a
+ * unique index that cannot be built fails startup while the old one stays.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoIndexConfigMongoTest {
+
+    private MongoTemplate mongoTemplate;
+    private MongoIndexConfig mongoIndexConfig;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = MongoTestDatabase.create();
+        mongoIndexConfig = new MongoIndexConfig(mongoTemplate, new MongoMappingContext(),
+                mock(CustomerEmailMigration.class));
+    }
+
+    @Test
+    void retiredIndexIsDroppedOnceItsReplacementExists() {
+        mongoTemplate.indexOps(Appointment.class).createIndex(new Index()
+                .on("customer.$id", Sort.Direction.ASC).on("bookingDate", Sort.Direction.DESC)
+                .named("customer_booking_idx"));
+
+        mongoIndexConfig.ensureIndexes();
+
+        Set<String> indexes = indexNames(Appointment.class);
+        assertTrue(indexes.contains("customer_booking_seek_idx"));
+        assertFalse(indexes.contains("customer_booking_idx"));
+    }
+
+    @Test
+    void unbuildableUniqueIndexFailsStartupAndKeepsTheOldOne() {
+        mongoTemplate.indexOps(Customer.class).createIndex(new Index().on("email", Sort.Direction.ASC)
+                .unique().named("email"));
+        mongoTemplate.insert(new Document("email", "jane.doe@example.com"), "customers");
+        mongoTemplate.insert(new Document("email", "Jane.Doe@example.com"), "customers");
+
+        assertThrows(IllegalStateException.class, mongoIndexConfig::ensureIndexes);
+
+        Set<String> indexes = indexNames(Customer.class);
+        assertFalse(indexes.contains("customer_email_idx"));
+        assertTrue(indexes.contains("email"));
+    }
+
+    private Set<String> indexNames(Class<?> entity) {
+        return mongoTemplate.indexOps(entity).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+    }
+}
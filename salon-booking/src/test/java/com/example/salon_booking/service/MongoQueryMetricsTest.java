@@ -0,0 +1,188 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.QueryShapeStats;
+import com.example.salon_booking.repositories.AppointmentRepository;
+import com.example.salon_booking.repositories.RepositoryInvocationContext;
+import com.example.salon_booking.repositories.ReviewRepository;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for attributing Mongo commands to repository methods
+ * Repositories are proxied with the RepositoryInvocationContext interceptor
+ * like MongoQueryMetricsConfig does. Their targets fire the command events the
+ * driver would, on the calling thread, into MongoQueryMetrics.
+ */
+class MongoQueryMetricsTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private MongoQueryMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new MongoQueryMetrics(meterRegistry);
+        ReflectionTestUtils.setField(metrics, "slowQueryMs", 100L);
+        ReflectionTestUtils.setField(metrics, "maxQueryShapes", 10);
+    }
+
+    @Test
+    void repositoryCommandsAreTaggedWithTheMethod() {
+        AppointmentRepository target = mock(AppointmentRepository.class);
+        when(target.findByConfirmationCode(anyString())).thenAnswer(invocation -> {
+            find("appointments", new BsonDocument("confirmationCode", new BsonString(invocation.getArgument(0))), 1);
+            return Optional.empty();
+        });
+        AppointmentRepository repository = proxy(target, AppointmentRepository.class);
+
+        repository.findByConfirmationCode("APT-0M4XR7K2QH9C");
+        repository.findByConfirmationCode("APT-1N5YS8M3RJ0D");
+
+        Timer timer = timer("appointments", "AppointmentRepository.findByConfirmationCode", "success");
+        assertEquals(2, timer.count());
+        DistributionSummary documents = meterRegistry.find(MongoQueryMetrics.COMMAND_TIMER + ".documents")
+                .tag("method", "AppointmentRepository.findByConfirmationCode").summary();
+        assertEquals(2, documents.totalAmount());
+
+        // Both lookups are one shape, attributed to the method
+        QueryShapeStats shape = metrics.getSlowestShapes(10).get(0);
+        assertEquals("{\"confirmationCode\": ?}", shape.getShape());
+        assertEquals("AppointmentRepository.findByConfirmationCode", shape.getMethod());
+        assertEquals(2, shape.getCount());
+        assertNull(RepositoryInvocationContext.current());
+    }
+
+    @Test
+    void commandsOutsideRepositoriesAreTaggedAsTemplate() {
+        find("salons", new BsonDocument("type", new BsonString("hair-salon")), 3);
+
+        assertEquals(1, timer("salons", MongoQueryMetrics.TEMPLATE_METHOD, "success").count());
+    }
+
+    @Test
+    void nestedRepositoryCallRestoresTheOuterMethod() {
+        AppointmentRepository appointmentTarget = mock(AppointmentRepository.class);
+        when(appointmentTarget.findByConfirmationCode(anyString())).thenAnswer(invocation -> {
+            find("appointments", new BsonDocument("confirmationCode", new BsonString("x")), 1);
+            return Optional.empty();
+        });
+        AppointmentRepository appointments = proxy(appointmentTarget, AppointmentRepository.class);
+
+        ReviewRepository reviewTarget = mock(ReviewRepository.class);
+        when(reviewTarget.findAll()).thenAnswer(invocation -> {
+            appointments.findByConfirmationCode("x");
+            // Issued after the inner call returned
+            find("reviews", new BsonDocument(), 0);
+            return List.of();
+        });
+        proxy(reviewTarget, ReviewRepository.class).findAll();
+
+        assertEquals(1, timer("appointments", "AppointmentRepository.findByConfirmationCode", "success").count());
+        assertEquals(1, timer("reviews", "ReviewRepository.findAll", "success").count());
+        assertNull(RepositoryInvocationContext.current());
+    }
+
+    @Test
+    void failedCommandsAreTaggedAndTheContextIsCleared() {
+        AppointmentRepository target = mock(AppointmentRepository.class);
+        when(target.findById(any())).thenAnswer(invocation -> {
+            int requestId = started("appointments", "find", new BsonDocument("_id", new BsonString("a1")));
+            metrics.commandFailed(new CommandFailedEvent(null, 1, requestId, CONNECTION, "salon", "find",
+                    TimeUnit.MILLISECONDS.toNanos(2), new MongoSocketReadException("reset", new ServerAddress())));
+            throw new DataAccessResourceFailureException("reset");
+        });
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> proxy(target, AppointmentRepository.class).findById("a1"));
+
+        assertEquals(1, timer("appointments", "AppointmentRepository.findById", "failure").count());
+        assertNull(RepositoryInvocationContext.current());
+    }
+
+    @Test
+    void replyBytesAreOnlyMeasuredWhenEnabled() {
+        find("salons", new BsonDocument(), 2);
+        assertNull(meterRegistry.find(MongoQueryMetrics.COMMAND_TIMER + ".reply.bytes").summary());
+
+        ReflectionTestUtils.setField(metrics, "measureReplyBytes", true);
+        find("salons", new BsonDocument(), 2);
+        DistributionSummary bytes = meterRegistry.find(MongoQueryMetrics.COMMAND_TIMER + ".reply.bytes").summary();
+        assertNotNull(bytes);
+        assertEquals(1, bytes.count());
+    }
+
+    // ==================== DRIVER EVENTS ====================
+
+    private void find(String collection, BsonDocument filter, int documents) {
+        int requestId = started(collection, "find", filter);
+        BsonArray batch = new BsonArray();
+        for (int i = 0; i < documents; i++) {
+            batch.add(new BsonDocument("_id", new BsonInt32(i)));
+        }
+        BsonDocument reply = new BsonDocument("cursor", new BsonDocument("firstBatch", batch))
+                .append("ok", new BsonInt32(1));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, CONNECTION, "salon", "find",
+                reply, TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    private int started(String collection, String command, BsonDocument filter) {
+        int requestId = requestIds.incrementAndGet();
+        BsonDocument body = new BsonDocument(command, new BsonString(collection)).append("filter", filter);
+        metrics.commandStarted(new CommandStartedEvent(null, 1, requestId, CONNECTION, "salon", command, body));
+        return requestId;
+    }
+
+    private Timer timer(String collection, String method, String status) {
+        Timer timer = meterRegistry.find(MongoQueryMetrics.COMMAND_TIMER)
+                .tag("collection", collection)
+                .tag("method", method)
+                .tag("status", status)
+                .timer();
+        assertNotNull(timer, collection + " " + method + " " + status);
+        return timer;
+    }
+
+    private static <T> T proxy(T target, Class<T> repositoryInterface) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addInterface(repositoryInterface);
+        factory.addAdvice(RepositoryInvocationContext.interceptorFor(repositoryInterface));
+        return repositoryInterface.cast(factory.getProxy());
+    }
+}
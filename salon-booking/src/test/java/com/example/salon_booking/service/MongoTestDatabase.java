@@ -0,0 +1,41 @@
+package com.example.salon_booking.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Real mongod for tests whose behaviour depends on the server: collation,
+ * BSON type order, conditional updates under contention
+ * One container (a single-node replica set) is started on first use and shared
+ * by every test class; each call gets a fresh database. Test classes using it
+ * are annotated with @Testcontainers(disabledWithoutDocker = true), so they are
+ * skipped where no Docker daemon is available.
+ */
+final class MongoTestDatabase {
+
+    private static final MongoDBContainer CONTAINER = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static MongoClient client;
+
+    private MongoTestDatabase() {
+    }
+
+    /**
+     * Template on a new, empty database
+     * @return MongoTemplate with the default mapping (no automatic index creation)
+     */
+    static synchronized MongoTemplate create() {
+        if (client == null) {
+            CONTAINER.start();
+            client = MongoClients.create(CONTAINER.getReplicaSetUrl());
+        }
+        return new MongoTemplate(client, "salon_test_" + DATABASES.incrementAndGet());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.example.salon_booking.dto.RatingReconcileReport;
+import com.example.salon_booking.dto.RatingStatisticsDTO;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.SalonRatingAggregate;
+import com.example.salon_booking.repositories.ReviewRepository;
+import com.example.salon_booking.repositories.SalonRepository;
+
+/**
+ * Tests for seeding and reconciling salon rating aggregates
+ * The aggregates live in an in-memory collection that applies the service's
+ * real updates. A review can be added while the service is counting reviews,
+ * the way a request running next to the reconciliation would: its $inc must
+ * survive the correction.
+ */
+class RatingAggregateServiceTest {
+
+    private static final String SALON_ID = "salon1";
+
+    private final InMemoryCollection aggregates = new InMemoryCollection(SalonRatingAggregate.class, 0);
+    private final List<Integer> ratings = new ArrayList<>();
+
+    /**
+     * Rating of a review added right after the next count of the reviews, or null
+     */
+    private Integer addedDuringCount;
+
+    private RatingAggregateService ratingAggregateService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findById(anyString(), eq(SalonRatingAggregate.class)))
+                .thenAnswer(invocation -> aggregates.findById(invocation.getArgument(0), SalonRatingAggregate.class));
+        when(mongoTemplate.findAll(SalonRatingAggregate.class))
+                .thenAnswer(invocation -> aggregates.find(new Query(), SalonRatingAggregate.class));
+        when(mongoTemplate.insert(any(SalonRatingAggregate.class)))
+                .thenAnswer(invocation -> aggregates.insert(invocation.getArgument(0)));
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(SalonRatingAggregate.class)))
+                .thenAnswer(invocation -> aggregates.upsert(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(SalonRatingAggregate.class)))
+                .thenAnswer(invocation -> aggregates.updateFirst(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.find(any(Query.class), eq(Salon.class))).thenAnswer(invocation -> {
+            Salon salon = new Salon();
+            salon.setId(SALON_ID);
+            return List.of(salon);
+        });
+
+        ReviewRepository reviewRepository = mock(ReviewRepository.class);
+        when(reviewRepository.getRatingDistribution(any())).thenAnswer(invocation -> countReviews());
+
+        ratingAggregateService = new RatingAggregateService(mongoTemplate, reviewRepository,
+                mock(SalonRepository.class), mock(SalonRatingRefresher.class));
+    }
+
+    @Test
+    void reconcileCorrectsDriftWithoutLosingConcurrentReviews() {
+        ratings.addAll(List.of(5, 4));
+        // The 4-star review never reached the aggregate
+        aggregates.put(aggregate(1, 5, 0, 1));
+        addedDuringCount = 3;
+
+        RatingReconcileReport report = ratingAggregateService.reconcile();
+
+        assertEquals(1, report.getDriftedSalons());
+        assertTotals(3, 12, 1, 1);
+    }
+
+    @Test
+    void reconcileLeavesAccurateAggregatesAlone() {
+        ratings.addAll(List.of(5, 4));
+        Document stored = aggregate(2, 9, 1, 1);
+        aggregates.put(stored);
+
+        RatingReconcileReport report = ratingAggregateService.reconcile();
+
+        assertEquals(0, report.getDriftedSalons());
+        assertEquals(stored, aggregates.get(SALON_ID));
+    }
+
+    @Test
+    void seedCreatesMissingAggregate() {
+        ratings.addAll(List.of(5, 4));
+
+        ratingAggregateService.seedMissingAggregates();
+
+        assertTotals(2, 9, 1, 1);
+    }
+
+    @Test
+    void seedDoesNotOverwriteAggregateCreatedByAReview() {
+        ratings.addAll(List.of(5, 4));
+        // The first review change for the salon upserts its aggregate while the seed counts
+        addedDuringCount = 4;
+
+        ratingAggregateService.seedMissingAggregates();
+
+        assertTotals(3, 13, 2, 1);
+    }
+
+    private Optional<RatingStatisticsDTO> countReviews() {
+        RatingStatisticsDTO stats = new RatingStatisticsDTO();
+        stats.setOneStar(count(1));
+        stats.setTwoStars(count(2));
+        stats.setThreeStars(count(3));
+        stats.setFourStars(count(4));
+        stats.setFiveStars(count(5));
+
+        if (addedDuringCount != null) {
+            int rating = addedDuringCount;
+            addedDuringCount = null;
+            ratings.add(rating);
+            ratingAggregateService.reviewAdded(SALON_ID, rating);
+        }
+        return Optional.of(stats);
+    }
+
+    private long count(int rating) {
+        return ratings.stream().filter(value -> value == rating).count();
+    }
+
+    private void assertTotals(long reviewCount, long ratingSum, long fourStars, long fiveStars) {
+        SalonRatingAggregate stored = aggregates.findById(SALON_ID, SalonRatingAggregate.class);
+        assertEquals(reviewCount, stored.getReviewCount());
+        assertEquals(ratingSum, stored.getRatingSum());
+        assertEquals(fourStars, stored.getFourStars());
+        assertEquals(fiveStars, stored.getFiveStars());
+        assertEquals(ratings.size(), stored.getOneStar() + stored.getTwoStars() + stored.getThreeStars()
+                + stored.getFourStars() + stored.getFiveStars());
+    }
+
+    private static Document aggregate(long reviewCount, long ratingSum, long fourStars, long fiveStars) {
+        return new Document("_id", SALON_ID)
+                .append("reviewCount", reviewCount)
+                .append("ratingSum", ratingSum)
+                .append("oneStar", 0L)
+                .append("twoStars", 0L)
+                .append("threeStars", 0L)
+                .append("fourStars", fourStars)
+                .append("fiveStars", fiveStars);
+    }
+}
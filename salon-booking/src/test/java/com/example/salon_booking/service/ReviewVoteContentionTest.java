@@ -0,0 +1,162 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.example.salon_booking.exception.ResourceNotFoundException;
+import com.example.salon_booking.models.Review;
+import com.example.salon_booking.repositories.ReviewRepository;
+import com.example.salon_booking.repositories.SalonRepository;
+import com.mongodb.DBRef;
+
+/**
+ * Contention test for review helpful / report votes
+ * The reviews collection is an in-memory stand-in that applies each
+ * findAndModify atomically, the same guarantee MongoDB gives per document, and
+ * evaluates the $inc and the report pipeline the service actually sends. The
+ * service must not read and save the review itself, otherwise votes are lost.
+ */
+class ReviewVoteContentionTest {
+
+    private static final String REVIEW_ID = "review-1";
+    private static final String SALON_ID = "salon1";
+    private static final int THREADS = 64;
+    private static final int HELPFUL_VOTES = 20_000;
+    private static final int REPORTS = 500;
+
+    private final InMemoryCollection reviews = new InMemoryCollection(Review.class, 0);
+
+    private ReviewRepository reviewRepository;
+    private RatingAggregateService ratingAggregateService;
+    private ReviewService reviewService;
+
+    @BeforeEach
+    void setUp() {
+        reviews.put(new Document("_id", REVIEW_ID)
+                .append("rating", 4)
+                .append("isVisible", true)
+                .append("helpfulCount", 0)
+                .append("reportCount", 0)
+                .append("salon", new DBRef("salons", SALON_ID)));
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Review.class)))
+                .thenAnswer(invocation -> reviews.findAndModify(invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2), Review.class));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("reviews")))
+                .thenAnswer(invocation -> reviews.findAndModify(invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2), Document.class));
+
+        reviewRepository = mock(ReviewRepository.class);
+        ratingAggregateService = mock(RatingAggregateService.class);
+        reviewService = new ReviewService(reviewRepository, mock(SalonRepository.class),
+                mock(KeysetPaginationService.class), ratingAggregateService, mongoTemplate,
+                new HelpfulVoteBuffer(mongoTemplate));
+    }
+
+    @Test
+    void concurrentHelpfulVotesAreNotLost() throws Exception {
+        List<Integer> counts = runConcurrently(HELPFUL_VOTES, () -> reviewService.incrementHelpfulCount(REVIEW_ID));
+
+        assertEquals(HELPFUL_VOTES, reviews.get(REVIEW_ID).get("helpfulCount"));
+        // Every vote saw its own increment: the returned counts are 1..N, each once
+        assertEquals(HELPFUL_VOTES, counts.stream().distinct().count());
+        assertEquals(HELPFUL_VOTES, counts.stream().mapToInt(Integer::intValue).max().getAsInt());
+        verify(reviewRepository, never()).save(any());
+    }
+
+    @Test
+    void concurrentReportsHideTheReviewExactlyOnce() throws Exception {
+        runConcurrently(REPORTS, () -> reviewService.incrementReportCount(REVIEW_ID));
+
+        Document stored = reviews.get(REVIEW_ID);
+        assertEquals(REPORTS, stored.get("reportCount"));
+        assertEquals(false, stored.get("isVisible"));
+        assertEquals("Auto-hidden due to multiple reports", stored.get("moderatorNotes"));
+        verify(ratingAggregateService, times(1)).reviewRemoved(SALON_ID, 4);
+        verify(ratingAggregateService, never()).reviewAdded(anyString(), anyInt());
+        verify(reviewRepository, never()).save(any());
+    }
+
+    @Test
+    void reportsBelowThresholdKeepTheReviewVisible() {
+        for (int i = 1; i < 5; i++) {
+            assertEquals(i, reviewService.incrementReportCount(REVIEW_ID));
+        }
+        assertEquals(true, reviews.get(REVIEW_ID).get("isVisible"));
+        assertNull(reviews.get(REVIEW_ID).get("moderatorNotes"));
+
+        assertEquals(5, reviewService.incrementReportCount(REVIEW_ID));
+        assertEquals(false, reviews.get(REVIEW_ID).get("isVisible"));
+        verify(ratingAggregateService, times(1)).reviewRemoved(SALON_ID, 4);
+    }
+
+    @Test
+    void reportOnHiddenReviewDoesNotRemoveItsRatingAgain() {
+        reviews.put(new Document(reviews.get(REVIEW_ID)).append("isVisible", false).append("reportCount", 7));
+
+        assertEquals(8, reviewService.incrementReportCount(REVIEW_ID));
+
+        assertEquals(false, reviews.get(REVIEW_ID).get("isVisible"));
+        assertNull(reviews.get(REVIEW_ID).get("moderatorNotes"));
+        verify(ratingAggregateService, never()).reviewRemoved(anyString(), anyInt());
+    }
+
+    @Test
+    void votesOnUnknownReviewAreRejected() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> reviewService.incrementHelpfulCount("missing"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> reviewService.incrementReportCount("missing"));
+    }
+
+    private List<Integer> runConcurrently(int tasks, Callable<Integer> vote) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return vote.call();
+            }));
+        }
+
+        startGate.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
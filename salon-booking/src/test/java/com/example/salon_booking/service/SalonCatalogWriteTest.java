@@ -0,0 +1,184 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.config.SalonDocumentMigration;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.repositories.SalonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for salon writes against a salon document in the legacy shape
+ * The salons collection is an in-memory stand-in that runs the update and
+ * migration queries the services actually send. The stored salon still embeds
+ * large bookings / slotsBooked arrays and carries cached rating fields: an
+ * update must only $set the editable fields and leave both alone, and the
+ * migration must strip the arrays.
+ */
+class SalonCatalogWriteTest {
+
+    private static final String SALON_ID = "salon1";
+    private static final int BOOKINGS = 1_000;
+    private static final long STORED_VERSION = 3L;
+
+    private final InMemoryCollection salons = new InMemoryCollection(Salon.class, 0);
+    private final AtomicReference<UpdateDefinition> lastUpdate = new AtomicReference<>();
+
+    private MongoTemplate mongoTemplate;
+    private SalonCatalogService salonCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Salon.class)))
+                .thenAnswer(invocation -> {
+                    lastUpdate.set(invocation.getArgument(1));
+                    return salons.findAndModify(invocation.getArgument(0), invocation.getArgument(1),
+                            new FindAndModifyOptions(), Salon.class);
+                });
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("salons")))
+                .thenAnswer(invocation -> salons.updateMulti(invocation.getArgument(0), invocation.getArgument(1)));
+
+        SalonRepository salonRepository = mock(SalonRepository.class);
+        when(salonRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(salons.findById(invocation.getArgument(0), Salon.class)));
+        when(salonRepository.existsById(anyString()))
+                .thenAnswer(invocation -> salons.get(invocation.getArgument(0)) != null);
+
+        salonCatalogService = new SalonCatalogService(salonRepository, mongoTemplate, new ObjectMapper(),
+                mock(AppointmentSnapshotService.class));
+        ReflectionTestUtils.setField(salonCatalogService, "maxSalons", 100L);
+        ReflectionTestUtils.setField(salonCatalogService, "maxTypes", 10L);
+        ReflectionTestUtils.setField(salonCatalogService, "ttlSeconds", 60L);
+        salonCatalogService.createCaches();
+
+        salons.put(legacyDocument());
+    }
+
+    @Test
+    void updateSetsOnlyTheEditableFields() {
+        Salon details = details();
+        details.setName("Renamed Salon");
+
+        Salon updated = salonCatalogService.updateSalon(SALON_ID, details);
+
+        assertEquals("Renamed Salon", updated.getName());
+        Document stored = salons.get(SALON_ID);
+        assertEquals("Renamed Salon", stored.get("name"));
+        assertEquals(4.5, stored.get("averageRating"));
+        assertEquals(120L, stored.get("totalReviews"));
+        assertEquals(BOOKINGS, ((List<?>) stored.get("bookings")).size());
+        assertEquals(BOOKINGS, ((List<?>) stored.get("slotsBooked")).size());
+
+        // The write carries the editable fields only, however large the stored document is
+        Document set = (Document) ((Document) salons.mapUpdate(lastUpdate.get())).get("$set");
+        assertEquals(Set.of("name", "type", "description", "bannerImage", "images", "reviews", "address", "phone",
+                "email", "services", "openTime", "closeTime", "available", "manager"), set.keySet());
+    }
+
+    @Test
+    void updateWithStaleVersionIsRejected() {
+        Salon details = details();
+        details.setName("Lost Update");
+        details.setVersion(STORED_VERSION - 1);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> salonCatalogService.updateSalon(SALON_ID, details));
+        assertEquals("Salon One", salons.get(SALON_ID).get("name"));
+
+        details.setVersion(STORED_VERSION);
+        assertEquals("Lost Update", salonCatalogService.updateSalon(SALON_ID, details).getName());
+    }
+
+    @Test
+    void migrationStripsEmbeddedArraysOnce() {
+        SalonDocumentMigration migration = new SalonDocumentMigration(mongoTemplate);
+
+        migration.removeEmbeddedBookingArrays();
+
+        Document stored = salons.get(SALON_ID);
+        assertFalse(stored.containsKey("bookings"));
+        assertFalse(stored.containsKey("slotsBooked"));
+        assertEquals("Salon One", stored.get("name"));
+        assertEquals(4.5, stored.get("averageRating"));
+
+        migration.removeEmbeddedBookingArrays();
+        assertEquals(stored, salons.get(SALON_ID));
+    }
+
+    @Test
+    void cacheHitsAndMissesArePublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        salonCatalogService.bindTo(meterRegistry);
+
+        salonCatalogService.getSalon(SALON_ID);
+        salonCatalogService.getSalon(SALON_ID);
+
+        assertEquals(1, cacheGets(meterRegistry, "hit"));
+        assertEquals(1, cacheGets(meterRegistry, "miss"));
+        assertEquals(1, meterRegistry.get("cache.size").tag("cache", "salonsById").gauge().value());
+    }
+
+    private static double cacheGets(SimpleMeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "salonsById", "result", result)
+                .functionCounter().count();
+    }
+
+    private static Document legacyDocument() {
+        List<String> bookings = new ArrayList<>(BOOKINGS);
+        List<String> slots = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new ObjectId().toHexString());
+            slots.add(new ObjectId().toHexString());
+        }
+        return new Document("_id", SALON_ID)
+                .append("name", "Salon One")
+                .append("type", "hair-salon")
+                .append("address", "12 Main Street, Colombo")
+                .append("images", List.of("https://example.com/1.jpg"))
+                .append("services", List.of("Haircut", "Colouring"))
+                .append("available", true)
+                .append("averageRating", 4.5)
+                .append("totalReviews", 120L)
+                .append("version", STORED_VERSION)
+                .append("bookings", bookings)
+                .append("slotsBooked", slots);
+    }
+
+    private static Salon details() {
+        Salon salon = new Salon();
+        salon.setName("Salon One");
+        salon.setType("hair-salon");
+        salon.setAddress("12 Main Street, Colombo");
+        salon.setImages(List.of("https://example.com/1.jpg", "https://example.com/2.jpg"));
+        salon.setServices(List.of("Haircut", "Colouring"));
+        salon.setAvailable(true);
+        return salon;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the rating refresher's meters
+ * The window is long enough that requested refreshes stay pending until the
+ * refresher is stopped, which runs them.
+ */
+class SalonRatingRefresherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SalonRatingRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new SalonRatingRefresher(mock(MongoTemplate.class), mock(SalonCatalogService.class));
+        ReflectionTestUtils.setField(refresher, "windowMs", TimeUnit.MINUTES.toMillis(10));
+        ReflectionTestUtils.setField(refresher, "workers", 1);
+        ReflectionTestUtils.setField(refresher, "maxPending", 100);
+        refresher.start();
+        refresher.bindTo(meterRegistry);
+    }
+
+    @Test
+    void queueDepthAndCoalescingArePublished() {
+        for (int i = 0; i < 3; i++) {
+            refresher.requestRefresh("salon1");
+        }
+        refresher.requestRefresh("salon2");
+
+        assertEquals(2, meterRegistry.get("salon.ratings.refresh.queue.depth").gauge().value());
+        assertEquals(0.5, meterRegistry.get("salon.ratings.refresh.coalescing.ratio").gauge().value());
+        assertEquals(2, requests("scheduled"));
+        assertEquals(2, requests("coalesced"));
+        assertEquals(0, requests("rejected"));
+
+        refresher.stop();
+
+        assertEquals(0, meterRegistry.get("salon.ratings.refresh.queue.depth").gauge().value());
+        assertEquals(2, meterRegistry.get("salon.ratings.refresh").functionTimer().count());
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("salon.ratings.refresh.requests").tag("outcome", outcome).functionCounter().count();
+    }
+}
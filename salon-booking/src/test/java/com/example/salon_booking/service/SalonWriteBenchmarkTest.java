@@ -0,0 +1,158 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.config.SalonDocumentMigration;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.repositories.SalonRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Salon write cost before and after the embedded booking arrays were dropped
+ * The salon has 100k bookings. Before, an update loaded the whole document and
+ * saved it back: decoding and re-encoding both 100k-id arrays, and sending them
+ * in the write. After the migration strips the arrays, updateSalon sends a $set
+ * of the editable fields against the in-memory salons collection, whose stored
+ * document (rewritten whole by the storage engine on each update) is small too.
+ */
+class SalonWriteBenchmarkTest {
+
+    private static final String SALON_ID = "salon1";
+    private static final int BOOKINGS = 100_000;
+    private static final int ROUNDS = 20;
+
+    private final InMemoryCollection salons = new InMemoryCollection(Salon.class, 0);
+    private final AtomicReference<UpdateDefinition> lastUpdate = new AtomicReference<>();
+
+    @Test
+    void salonWritesStaySmallOnceTheArraysAreStripped() {
+        RawBsonDocument legacy = encode(legacyDocument());
+
+        // Before: load the full document and save it back
+        int[] savedBytes = new int[1];
+        Runnable fullSave = () ->
+                savedBytes[0] = encode(legacy.decode(new DocumentCodec())).getByteBuffer().remaining();
+        run(fullSave);
+        long fullSaveNanos = run(fullSave);
+
+        // After: strip the arrays, then update with a $set of the editable fields
+        MongoTemplate mongoTemplate = mongoTemplate();
+        salons.put(legacy.decode(new DocumentCodec()));
+        new SalonDocumentMigration(mongoTemplate).removeEmbeddedBookingArrays();
+        SalonCatalogService salonCatalogService = salonCatalogService(mongoTemplate);
+        Salon details = details();
+        int[] setBytes = new int[1];
+        Runnable update = () -> {
+            salonCatalogService.updateSalon(SALON_ID, details);
+            setBytes[0] = encode(lastUpdate.get().getUpdateObject()).getByteBuffer().remaining();
+        };
+        run(update);
+        long updateNanos = run(update);
+
+        int legacyStoredBytes = legacy.getByteBuffer().remaining();
+        int strippedStoredBytes = encode(salons.get(SALON_ID)).getByteBuffer().remaining();
+        System.out.printf("Salon write with %d bookings: full save %d bytes / %.2f ms (stored %d bytes), "
+                        + "$set %d bytes / %.3f ms (stored %d bytes)%n",
+                BOOKINGS, savedBytes[0], fullSaveNanos / 1e6 / ROUNDS, legacyStoredBytes,
+                setBytes[0], updateNanos / 1e6 / ROUNDS, strippedStoredBytes);
+
+        Document stored = salons.get(SALON_ID);
+        assertFalse(stored.containsKey("bookings") || stored.containsKey("slotsBooked"));
+        assertTrue(setBytes[0] < 2_048, "update is " + setBytes[0] + " bytes");
+        assertTrue(strippedStoredBytes < 2_048, "stored salon is " + strippedStoredBytes + " bytes");
+        assertTrue(setBytes[0] * 1_000 < savedBytes[0]);
+        assertTrue(updateNanos < fullSaveNanos);
+    }
+
+    private static long run(Runnable write) {
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            write.run();
+        }
+        return System.nanoTime() - started;
+    }
+
+    private MongoTemplate mongoTemplate() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Salon.class)))
+                .thenAnswer(invocation -> {
+                    lastUpdate.set(invocation.getArgument(1));
+                    return salons.findAndModify(invocation.getArgument(0), invocation.getArgument(1),
+                            new FindAndModifyOptions(), Salon.class);
+                });
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("salons")))
+                .thenAnswer(invocation -> salons.updateMulti(invocation.getArgument(0), invocation.getArgument(1)));
+        return mongoTemplate;
+    }
+
+    private SalonCatalogService salonCatalogService(MongoTemplate mongoTemplate) {
+        // updateSalon reads the updated salon back by id
+        SalonRepository salonRepository = mock(SalonRepository.class);
+        when(salonRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(salons.findById(invocation.getArgument(0), Salon.class)));
+        SalonCatalogService salonCatalogService = new SalonCatalogService(salonRepository, mongoTemplate,
+                new ObjectMapper(), mock(AppointmentSnapshotService.class));
+        ReflectionTestUtils.setField(salonCatalogService, "maxSalons", 100L);
+        ReflectionTestUtils.setField(salonCatalogService, "maxTypes", 10L);
+        ReflectionTestUtils.setField(salonCatalogService, "ttlSeconds", 60L);
+        salonCatalogService.createCaches();
+        return salonCatalogService;
+    }
+
+    private static RawBsonDocument encode(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec());
+    }
+
+    private static Document legacyDocument() {
+        List<String> bookings = new ArrayList<>(BOOKINGS);
+        List<String> slots = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new ObjectId().toHexString());
+            slots.add(new ObjectId().toHexString());
+        }
+        return new Document("_id", SALON_ID)
+                .append("name", "Salon One")
+                .append("type", "hair-salon")
+                .append("address", "12 Main Street, Colombo")
+                .append("images", List.of("https://example.com/1.jpg"))
+                .append("services", List.of("Haircut", "Colouring"))
+                .append("available", true)
+                .append("averageRating", 4.5)
+                .append("totalReviews", 120L)
+                .append("bookings", bookings)
+                .append("slotsBooked", slots);
+    }
+
+    private static Salon details() {
+        Salon salon = new Salon();
+        salon.setName("Renamed Salon");
+        salon.setType("hair-salon");
+        salon.setAddress("12 Main Street, Colombo");
+        salon.setImages(List.of("https://example.com/1.jpg", "https://example.com/2.jpg"));
+        salon.setServices(List.of("Haircut", "Colouring"));
+        salon.setAvailable(true);
+        return salon;
+    }
+}
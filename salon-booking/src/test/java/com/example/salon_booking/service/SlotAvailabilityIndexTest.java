@@ -0,0 +1,144 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.salon_booking.dto.TimeSlotRefResult;
+import com.example.salon_booking.models.Salon;
+import com.example.salon_booking.models.TimeSlot;
+import com.mongodb.DBRef;
+
+/**
+ * Tests for keeping the availability index in step with slot writes
+ * The time_slots collection is a map of slot id to availability; a read
+ * returns three slots of one salon-day in their stored state. Hooks in the
+ * read stand in for writes landing while a day is loaded.
+ */
+class SlotAvailabilityIndexTest {
+
+    private static final String SALON_ID = "salon1";
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final List<String> SLOTS = List.of("s1", "s2", "s3");
+
+    private final Map<String, Boolean> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private Runnable duringRead = () -> { };
+
+    private SlotAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SLOTS.forEach(slotId -> stored.put(slotId, true));
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(TimeSlotRefResult.class), eq("time_slots")))
+                .thenAnswer(invocation -> {
+                    reads.incrementAndGet();
+                    List<TimeSlotRefResult> rows = rows();
+                    duringRead.run();
+                    return rows;
+                });
+        SalonCatalogService salonCatalogService = mock(SalonCatalogService.class);
+        Salon salon = new Salon();
+        salon.setId(SALON_ID);
+        when(salonCatalogService.getSalon(anyString())).thenReturn(salon);
+
+        index = new SlotAvailabilityIndex(mongoTemplate, salonCatalogService);
+        ReflectionTestUtils.setField(index, "ttlSeconds", 60L);
+    }
+
+    @Test
+    void bookingWhileADayIsLoadedIsNotLost() {
+        // Booked after the rows were read, before the day has grid positions
+        duringRead = () -> book("s2");
+
+        assertEquals(List.of("s1", "s3"), available());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void releaseWhileADayIsLoadedIsNotLost() {
+        stored.put("s1", false);
+        duringRead = () -> release("s1");
+
+        assertEquals(SLOTS, available());
+    }
+
+    @Test
+    void writesToAnIndexedDayAreServedFromMemory() {
+        assertEquals(SLOTS, available());
+
+        book("s3");
+        release("s3");
+        book("s1");
+
+        assertEquals(List.of("s2", "s3"), available());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void expiredDayIsRereadForOtherInstancesBookings() {
+        assertEquals(SLOTS, available());
+        // Booked through another instance: no write-through hook here
+        stored.put("s2", false);
+        assertEquals(SLOTS, available());
+
+        ReflectionTestUtils.setField(index, "ttlSeconds", 0L);
+
+        assertEquals(List.of("s1", "s3"), available());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void bookingWhileAnExpiredDayIsReloadedIsNotLost() {
+        assertEquals(SLOTS, available());
+        ReflectionTestUtils.setField(index, "ttlSeconds", 0L);
+        duringRead = () -> book("s3");
+
+        assertEquals(List.of("s1", "s2"), available());
+    }
+
+    private List<String> available() {
+        return index.getAvailableSlots(SALON_ID, DAY).orElseThrow().stream().map(TimeSlot::getId).toList();
+    }
+
+    private void book(String slotId) {
+        stored.put(slotId, false);
+        index.markUnavailable(slotId);
+    }
+
+    private void release(String slotId) {
+        stored.put(slotId, true);
+        index.markAvailable(slotId);
+    }
+
+    private List<TimeSlotRefResult> rows() {
+        return SLOTS.stream()
+                .map(slotId -> TimeSlotRefResult.builder()
+                        .id(slotId)
+                        .date(DAY)
+                        .startTime(LocalTime.of(9, 0).plusMinutes(30L * SLOTS.indexOf(slotId)))
+                        .endTime(LocalTime.of(9, 30).plusMinutes(30L * SLOTS.indexOf(slotId)))
+                        .isAvailable(stored.get(slotId))
+                        .salon(new DBRef("salons", SALON_ID))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.salon_booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.example.salon_booking.exception.TimeSlotNotAvailableException;
+import com.example.salon_booking.models.TimeSlot;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Concurrency test for SlotReservationService
+ * Uses an in-memory stand-in for MongoTemplate that applies the conditional
+ * findAndModify atomically, the same guarantee MongoDB gives per document
+ */
+class SlotReservationServiceTest {
+
+    private static final String SLOT_ID = "slot-1";
+    private static final int CONCURRENT_BOOKINGS = 500;
+
+    private TimeSlot storedSlot;
+    private SlotReservationService slotReservationService;
+
+    @BeforeEach
+    void setUp() {
+        storedSlot = TimeSlot.builder()
+                .id(SLOT_ID)
+                .date(LocalDate.now().plusDays(1))
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(10, 30))
+                .isAvailable(true)
+                .build();
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(TimeSlot.class)))
+                .thenAnswer(invocation -> claim(invocation.getArgument(0), invocation.getArgument(1)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(TimeSlot.class)))
+                .thenAnswer(invocation -> release(invocation.getArgument(0)));
+
+        slotReservationService = new SlotReservationService(mongoTemplate, mock(SlotAvailabilityIndex.class));
+    }
+
+    @Test
+    void concurrentBookingsProduceExactlyOneWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger losers = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    slotReservationService.reserve(SLOT_ID);
+                    winners.incrementAndGet();
+                } catch (TimeSlotNotAvailableException e) {
+                    losers.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, winners.get());
+        assertEquals(CONCURRENT_BOOKINGS - 1, losers.get());
+        assertEquals(false, storedSlot.getIsAvailable());
+    }
+
+    @Test
+    void releasedSlotCanBeClaimedAgain() {
+        TimeSlot first = slotReservationService.reserve(SLOT_ID);
+        assertNotNull(first.getReservationToken());
+
+        slotReservationService.release(SLOT_ID, first.getReservationToken());
+
+        TimeSlot second = slotReservationService.reserve(SLOT_ID);
+        assertNotNull(second.getReservationToken());
+    }
+
+    // ==================== IN-MEMORY STAND-IN ====================
+
+    private synchronized TimeSlot claim(Query query, UpdateDefinition update) {
+        Document filter = query.getQueryObject();
+        if (!SLOT_ID.equals(filter.get("_id")) || !Boolean.TRUE.equals(filter.get("isAvailable"))) {
+            throw new IllegalStateException("Unexpected claim filter: " + filter);
+        }
+        if (!storedSlot.getIsAvailable()) {
+            return null;
+        }
+        Document set = (Document) update.getUpdateObject().get("$set");
+        storedSlot.setIsAvailable((Boolean) set.get("isAvailable"));
+        storedSlot.setReservationToken((String) set.get("reservationToken"));
+        return copy(storedSlot);
+    }
+
+    private synchronized UpdateResult release(Query query) {
+        Object token = query.getQueryObject().get("reservationToken");
+        if (token != null && !token.equals(storedSlot.getReservationToken())) {
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+        storedSlot.setIsAvailable(true);
+        storedSlot.setReservationToken(null);
+        return UpdateResult.acknowledged(1, 1L, null);
+    }
+
+    private TimeSlot copy(TimeSlot slot) {
+        return TimeSlot.builder()
+                .id(slot.getId())
+                .date(slot.getDate())
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .isAvailable(slot.getIsAvailable())
+                .reservationToken(slot.getReservationToken())
+                .build();
+    }
+}